@@ -0,0 +1,64 @@
+package stream.api.adapter.log.engine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Context pass of one page of "REQ: Pay" matches from the middle of the file: the text scan of
+ * {@link ContextWindow}, the same window read through the thread/time index, and the newest-first variant.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ContextBenchmark {
+
+    @Param({"20", "200"})
+    public int pageSize;
+
+    private MatchList page;
+    private ThreadTimeIndex index;
+
+    @Setup(Level.Trial)
+    public void findPage(GeneratedLog log) throws IOException {
+        page = new MatchList().resume(log.size() / 2, pageSize);
+        MappedSearch.scan(log.channel, 0, log.size(), LineFilter.literal("REQ: Pay"), page);
+        index = new ThreadTimeIndex();
+        index.update(log.channel);
+    }
+
+    @Benchmark
+    public void windowScan(GeneratedLog log, Blackhole blackhole) throws IOException {
+        new ContextWindow(page, (buf, start, length) -> blackhole.consume(length)).stream(log.channel, QueryContext.NONE);
+    }
+
+    @Benchmark
+    public void indexed(GeneratedLog log, Blackhole blackhole) throws IOException {
+        LongStream.Builder offsets = LongStream.builder();
+        for (int i = 0; i < page.size(); i++) {
+            offsets.add(page.offset(i));
+            long time = page.millis(i);
+            LongStream.of(index.lookup(page.thread(i), time - ContextWindow.WINDOW_MILLIS,
+                    time + ContextWindow.WINDOW_MILLIS)).forEach(offsets);
+        }
+        long[] sorted = offsets.build().sorted().distinct().toArray();
+        EntryReader.read(log.channel, sorted, QueryContext.NONE, (buf, start, length) -> blackhole.consume(length));
+    }
+
+    @Benchmark
+    public void newestFirst(GeneratedLog log, Blackhole blackhole) throws IOException {
+        new ContextWindow(page, (buf, start, length) -> blackhole.consume(length))
+                .streamNewestFirst(log.channel, QueryContext.NONE);
+    }
+}
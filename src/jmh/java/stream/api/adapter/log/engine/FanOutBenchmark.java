@@ -0,0 +1,54 @@
+package stream.api.adapter.log.engine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Live tail fan-out: 8MB of lines dispatched to {@code subscribers} listeners, each following its own id
+ * literal, with a few boolean query subscribers mixed in.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FanOutBenchmark {
+
+    @Param({"1", "100", "1000"})
+    public int subscribers;
+
+    private byte[] head;
+    private int[] starts;
+    private FileTailer tailer;
+    private long delivered;
+
+    @Setup(Level.Trial)
+    public void subscribe(GeneratedLog log) throws IOException {
+        head = log.head(8 << 20);
+        starts = GeneratedLog.lineStarts(head);
+        tailer = new FileTailer(log.file, t -> {
+        });
+        for (int i = 0; i < subscribers; i++) {
+            LineFilter filter = i % 50 == 49
+                    ? LineFilter.parse("ERR AND NOT timeout")
+                    : LineFilter.literal("id:" + (100_000 + i * 900));
+            tailer.subscribe(filter, (buf, start, length) -> delivered++);
+        }
+    }
+
+    @Benchmark
+    public long dispatch() {
+        for (int i = 0; i + 1 < starts.length; i++) {
+            tailer.dispatch(starts[i], head, starts[i], starts[i + 1] - starts[i] - 1);
+        }
+        return delivered;
+    }
+}
@@ -0,0 +1,79 @@
+package stream.api.adapter.log.engine;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Log file written by {@link LogGenerator} once per trial and shared by the benchmarks of the trial.
+ */
+@State(Scope.Benchmark)
+public class GeneratedLog {
+
+    @Param("64")
+    public int megabytes;
+
+    @Param("0.8")
+    public double skew;
+
+    Path file;
+    FileChannel channel;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        file = Files.createTempFile("log-view-bench", ".log");
+        new LogGenerator().bytes((long) megabytes << 20).skew(skew).write(file);
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        channel.close();
+        Files.deleteIfExists(file);
+    }
+
+    long size() throws IOException {
+        return channel.size();
+    }
+
+    /**
+     * The first {@code bytes} of the file, cut after the last complete line.
+     */
+    byte[] head(int bytes) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate((int) Math.min(bytes, channel.size()));
+        channel.read(buf, 0);
+        int end = buf.position();
+        while (end > 0 && buf.get(end - 1) != '\n') {
+            end--;
+        }
+        byte[] head = new byte[end];
+        buf.get(0, head);
+        return head;
+    }
+
+    /**
+     * Start offsets of the lines of {@code head}, plus its length at the end.
+     */
+    static int[] lineStarts(byte[] head) {
+        int count = 0;
+        for (byte b : head) {
+            if (b == '\n') count++;
+        }
+        int[] starts = new int[count + 1];
+        int line = 1;
+        for (int i = 0; i < head.length; i++) {
+            if (head[i] == '\n') starts[line++] = i + 1;
+        }
+        return starts;
+    }
+}
@@ -0,0 +1,63 @@
+package stream.api.adapter.log.engine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Header parsing over the first 8MB of lines held in memory, and the same parse inside a {@link LineReader}
+ * pass over the whole file.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class HeaderBenchmark {
+
+    private byte[] head;
+    private int[] starts;
+    private final LogHeader header = new LogHeader();
+
+    @Setup(Level.Trial)
+    public void load(GeneratedLog log) throws IOException {
+        head = log.head(8 << 20);
+        starts = GeneratedLog.lineStarts(head);
+    }
+
+    @Benchmark
+    public long parse() {
+        long sum = 0;
+        for (int i = 0; i + 1 < starts.length; i++) {
+            if (LogHeaders.parse(head, starts[i], starts[i + 1] - starts[i] - 1, header)) {
+                sum += header.getMillis() + header.getThread();
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public void level(Blackhole blackhole) {
+        for (int i = 0; i + 1 < starts.length; i++) {
+            blackhole.consume(ActivityStats.level(head, starts[i], starts[i + 1] - starts[i] - 1));
+        }
+    }
+
+    @Benchmark
+    public long readFile(GeneratedLog log) throws IOException {
+        LogHeader parsed = new LogHeader();
+        long[] sum = {0};
+        LineReader.read(log.channel, 0, log.size(), false, (offset, buf, start, length) -> {
+            if (LogHeaders.parse(buf, start, length, parsed)) sum[0] += parsed.getThread();
+            return true;
+        });
+        return sum[0];
+    }
+}
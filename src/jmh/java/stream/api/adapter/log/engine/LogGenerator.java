@@ -0,0 +1,191 @@
+package stream.api.adapter.log.engine;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Random;
+
+/**
+ * Deterministic generator of adapter logs: "yyyy-MM-dd HH:mm:ss.SSS [Tn] [LVL] - ..." entries on
+ * {@code threads} threads, each thread running REQ:/RES: transactions with a few lines in between, and
+ * [ERR] entries followed by a stack trace. The same seed and settings always give the same bytes.
+ * <p>
+ * {@code skew} is the Zipf exponent of the thread choice: 0 spreads entries evenly, 1 or more makes a few
+ * threads produce most of them.
+ */
+public final class LogGenerator {
+
+    private static final String[] OPERATIONS = {"Pay", "GetBillList", "Register", "CheckPayment"};
+    private static final String[] WORDS = {"session", "token", "account", "bill", "cache", "retry", "user",
+            "payment", "request", "response", "timeout", "provider"};
+    private static final String[] EXCEPTIONS = {"java.lang.IllegalStateException", "java.lang.NullPointerException",
+            "java.net.SocketTimeoutException"};
+    private static final long START_MILLIS = 1_758_672_000_000L;
+
+    private long seed = 42;
+    private long bytes = 64L << 20;
+    private int threads = 64;
+    private double skew = 0.8;
+    private double errorRate = 0.01;
+    private int stackDepth = 12;
+
+    public LogGenerator seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public LogGenerator bytes(long bytes) {
+        this.bytes = bytes;
+        return this;
+    }
+
+    public LogGenerator threads(int threads) {
+        this.threads = threads;
+        return this;
+    }
+
+    public LogGenerator skew(double skew) {
+        this.skew = skew;
+        return this;
+    }
+
+    public LogGenerator errorRate(double errorRate) {
+        this.errorRate = errorRate;
+        return this;
+    }
+
+    public LogGenerator stackDepth(int stackDepth) {
+        this.stackDepth = stackDepth;
+        return this;
+    }
+
+    /**
+     * Serial that occurs in exactly one REQ: line of the generated log, for "rare literal" searches.
+     */
+    public static String rareSerial() {
+        return "SN0000000042";
+    }
+
+    public void write(Path file) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), 1 << 16)) {
+            write(out);
+        }
+    }
+
+    public void write(OutputStream out) throws IOException {
+        Random random = new Random(seed);
+        double[] weights = cumulativeWeights();
+        String[] open = new String[threads];
+        long[] ids = new long[threads];
+        long millis = START_MILLIS;
+        long written = 0;
+        boolean rarePlaced = false;
+        StringBuilder line = new StringBuilder(256);
+
+        while (written < bytes) {
+            millis += random.nextInt(40);
+            int thread = pick(weights, random.nextDouble());
+            line.setLength(0);
+            boolean error = random.nextDouble() < errorRate;
+            header(line, millis, thread + 1, error ? "ERR" : "INF");
+
+            if (error) {
+                line.append(WORDS[random.nextInt(WORDS.length)]).append(" failed id:").append(ids[thread]).append('\n');
+                String exception = EXCEPTIONS[random.nextInt(EXCEPTIONS.length)];
+                line.append(exception).append(": ").append(WORDS[random.nextInt(WORDS.length)]).append('\n');
+                for (int i = 0; i < stackDepth; i++) {
+                    line.append("\tat stream.api.adapter.").append(WORDS[random.nextInt(WORDS.length)])
+                            .append(".Handler.handle(Handler.java:").append(20 + random.nextInt(400)).append(")\n");
+                }
+            } else if (open[thread] == null) {
+                String operation = OPERATIONS[random.nextInt(OPERATIONS.length)];
+                open[thread] = operation;
+                ids[thread] = 100_000 + random.nextInt(900_000);
+                // nadir serial faylın ortasına düşür
+                String serial = String.format("SN%010d", 1_000_000_000L + random.nextInt(1_000_000_000));
+                if (!rarePlaced && written >= bytes / 2) {
+                    serial = rareSerial();
+                    rarePlaced = true;
+                }
+                line.append("REQ: ").append(operation).append(" id:").append(ids[thread])
+                        .append(" Serial:").append(serial)
+                        .append(" amount=").append(random.nextInt(10_000)).append('.').append(random.nextInt(90) + 10)
+                        .append('\n');
+            } else if (random.nextInt(4) == 0) {
+                line.append("RES: ").append(open[thread]).append(" Result:").append(random.nextInt(3) == 0 ? "FAIL" : "OK")
+                        .append(" id:").append(ids[thread]).append('\n');
+                open[thread] = null;
+            } else {
+                line.append(WORDS[random.nextInt(WORDS.length)]).append(' ').append(WORDS[random.nextInt(WORDS.length)])
+                        .append(" id:").append(ids[thread]).append('\n');
+            }
+
+            byte[] data = line.toString().getBytes(StandardCharsets.UTF_8);
+            out.write(data);
+            written += data.length;
+        }
+    }
+
+    private static void header(StringBuilder line, long millis, int thread, String level) {
+        LocalDateTime time = LocalDateTime.ofEpochSecond(millis / 1000, 0, ZoneOffset.UTC);
+        line.append(time.toLocalDate()).append(' ');
+        pad(line, time.getHour(), 2).append(':');
+        pad(line, time.getMinute(), 2).append(':');
+        pad(line, time.getSecond(), 2).append('.');
+        pad(line, (int) (millis % 1000), 3);
+        line.append(" [T").append(thread).append("] [").append(level).append("] - ");
+    }
+
+    private static StringBuilder pad(StringBuilder line, int value, int width) {
+        String digits = Integer.toString(value);
+        for (int i = digits.length(); i < width; i++) {
+            line.append('0');
+        }
+        return line.append(digits);
+    }
+
+    private double[] cumulativeWeights() {
+        double[] weights = new double[threads];
+        double sum = 0;
+        for (int i = 0; i < threads; i++) {
+            sum += 1 / Math.pow(i + 1, skew);
+            weights[i] = sum;
+        }
+        for (int i = 0; i < threads; i++) {
+            weights[i] /= sum;
+        }
+        return weights;
+    }
+
+    private static int pick(double[] weights, double u) {
+        int lo = 0;
+        int hi = weights.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (weights[mid] < u) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * {@code LogGenerator <file> [megabytes] [threads] [skew] [seed]}
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("usage: LogGenerator <file> [megabytes] [threads] [skew] [seed]");
+            return;
+        }
+        LogGenerator generator = new LogGenerator();
+        if (args.length > 1) generator.bytes(Long.parseLong(args[1]) << 20);
+        if (args.length > 2) generator.threads(Integer.parseInt(args[2]));
+        if (args.length > 3) generator.skew(Double.parseDouble(args[3]));
+        if (args.length > 4) generator.seed(Long.parseLong(args[4]));
+        generator.write(Path.of(args[0]));
+    }
+}
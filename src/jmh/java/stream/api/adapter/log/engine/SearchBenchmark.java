@@ -0,0 +1,69 @@
+package stream.api.adapter.log.engine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Match pass over the whole generated file: a rare literal, a frequent one, a boolean query and a regex.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SearchBenchmark {
+
+    @Param({"rare", "frequent", "boolean", "regex"})
+    public String query;
+
+    private LineFilter filter;
+    private ParallelSearch parallel;
+
+    @Setup(Level.Trial)
+    public void compile() {
+        filter = switch (query) {
+            case "rare" -> LineFilter.literal(LogGenerator.rareSerial());
+            case "frequent" -> LineFilter.literal("REQ: Pay");
+            case "boolean" -> LineFilter.parse("ERR AND (timeout OR retry) AND NOT cache");
+            case "regex" -> LineFilter.parse("/Serial:SN10{3}\\d+/");
+            default -> throw new IllegalArgumentException(query);
+        };
+        parallel = new ParallelSearch(ForkJoinPool.commonPool());
+    }
+
+    @Benchmark
+    public int mapped(GeneratedLog log) throws IOException {
+        int[] count = {0};
+        MappedSearch.scan(log.channel, 0, log.size(), filter, line -> {
+            count[0]++;
+            return true;
+        });
+        return count[0];
+    }
+
+    @Benchmark
+    public int parallel(GeneratedLog log) throws IOException {
+        int[] count = {0};
+        parallel.scan(log.channel, 0, log.size(), filter, line -> {
+            count[0]++;
+            return true;
+        });
+        return count[0];
+    }
+
+    @Benchmark
+    public int newestFirst(GeneratedLog log) throws IOException {
+        int[] count = {0};
+        ReverseSearch.scan(log.channel, 0, log.size(), filter, QueryContext.NONE, line -> ++count[0] < 100);
+        return count[0];
+    }
+}
@@ -4,6 +4,7 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import stream.api.adapter.log.controller.LogController;
 
 @Configuration
 public class CorsConfig {
@@ -14,7 +15,10 @@ public class CorsConfig {
             public void addCorsMappings(CorsRegistry registry) {
                 registry.addMapping("/api/**") // только для API
                         .allowedOrigins("*") // адрес фронта
-                        .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS");
+                        .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
+                        .exposedHeaders(LogController.TOTAL_COUNT, LogController.TOTAL_ESTIMATE,
+                                LogController.NEXT_CURSOR, LogController.SKIPPED_FILES, LogController.QUERY_PROFILE,
+                                LogController.FAILED_NODES);
             }
         };
     }
@@ -0,0 +1,65 @@
+package stream.api.adapter.log.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+public class ExecutorConfig {
+
+    // sorğular üçün məhdud pool: dolu olanda yeni sorğu rədd edilir
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService queryExecutor(@Value("${log.query.threads:8}") int threads,
+                                         @Value("${log.query.queue:64}") int queue) {
+        return new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queue), named("log-query"), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    // çox fayllı axtarışda eyni anda axtarılan fayl sayı
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService multiSearchExecutor(@Value("${log.multi.workers:4}") int workers) {
+        return Executors.newFixedThreadPool(workers, named("log-multi"));
+    }
+
+    // hər fayl üçün bir tailer, abunəçi sayından asılı deyil
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService tailExecutor() {
+        return Executors.newCachedThreadPool(named("log-tailer"));
+    }
+
+    // canlı bağlantıların növbələrini boşaldır: bağlantı sayından asılı olmayaraq bir neçə thread
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService liveExecutor(@Value("${log.live.workers:4}") int workers) {
+        return Executors.newFixedThreadPool(workers, named("log-live"));
+    }
+
+    // federativ axtarışda hər node-un axını öz thread-ində oxunur
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService federationExecutor() {
+        return Executors.newCachedThreadPool(named("log-peer"));
+    }
+
+    // yığılmış cavab buffer-lərini vaxtı keçəndə göndərir
+    @Bean(destroyMethod = "shutdownNow")
+    public ScheduledExecutorService flushScheduler() {
+        return Executors.newSingleThreadScheduledExecutor(named("log-flush"));
+    }
+
+    private static ThreadFactory named(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
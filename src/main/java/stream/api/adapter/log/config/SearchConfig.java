@@ -0,0 +1,22 @@
+package stream.api.adapter.log.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import stream.api.adapter.log.engine.ParallelSearch;
+
+import java.util.concurrent.ForkJoinPool;
+
+@Configuration
+public class SearchConfig {
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ForkJoinPool searchPool(@Value("${log.search.parallelism:0}") int parallelism) {
+        return new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @Bean
+    public ParallelSearch parallelSearch(ForkJoinPool searchPool) {
+        return new ParallelSearch(searchPool);
+    }
+}
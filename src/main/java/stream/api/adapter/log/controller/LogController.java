@@ -1,21 +1,80 @@
 package stream.api.adapter.log.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import reactor.core.publisher.Flux;
+import stream.api.adapter.log.engine.ArchiveStats;
+import stream.api.adapter.log.engine.EntryFilter;
+import stream.api.adapter.log.engine.LineSink;
+import stream.api.adapter.log.engine.QueryCancelledException;
+import stream.api.adapter.log.engine.QueryContext;
+import stream.api.adapter.log.engine.QueryProfile;
+import stream.api.adapter.log.engine.TimeRange;
+import stream.api.adapter.log.model.request.EntriesRequest;
 import stream.api.adapter.log.model.request.LogsRequest;
+import stream.api.adapter.log.model.request.MultiLogsRequest;
+import stream.api.adapter.log.model.response.EntryPage;
+import stream.api.adapter.log.model.response.FederatedPage;
+import stream.api.adapter.log.model.response.Histogram;
+import stream.api.adapter.log.model.response.MultiSearchPage;
+import stream.api.adapter.log.model.response.SearchPage;
+import stream.api.adapter.log.model.response.LogResponse;
+import stream.api.adapter.log.service.ArchiveService;
+import stream.api.adapter.log.service.EmitterWriter;
+import stream.api.adapter.log.service.ExportService;
+import stream.api.adapter.log.service.FederationService;
+import stream.api.adapter.log.service.HistogramService;
 import stream.api.adapter.log.service.LogReaderService;
+import stream.api.adapter.log.service.MultiSearchService;
+import stream.api.adapter.log.service.QueryMetrics;
+import stream.api.adapter.log.service.ResponseWriters;
+import stream.api.adapter.log.service.SseStreamService;
+import stream.api.adapter.log.service.TransactionService;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
 
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/api/filter")
 public class LogController {
 
+    public static final String TOTAL_COUNT = "X-Total-Count";
+    public static final String TOTAL_ESTIMATE = "X-Total-Estimate";
+    public static final String NEXT_CURSOR = "X-Next-Cursor";
+    public static final String SKIPPED_FILES = "X-Skipped-Files";
+    public static final String FAILED_NODES = "X-Failed-Nodes";
+    // sorğu header-i "true" olanda profil cavabın trailer-ində qaytarılır
+    public static final String QUERY_PROFILE = "X-Query-Profile";
+
     private final LogReaderService service;
+    private final ResponseWriters writers;
+    private final TransactionService transactionService;
+    private final MultiSearchService multiSearchService;
+    private final ArchiveService archiveService;
+    private final HistogramService histogramService;
+    private final QueryMetrics metrics;
+    private final SseStreamService sseService;
+    private final FederationService federationService;
+    private final ExportService exportService;
+
+    @Qualifier("queryExecutor")
+    private final ExecutorService queryExecutor;
 
 //    @GetMapping("/test/monitor")
 //    public String triggerMonitorOnce() {
@@ -23,46 +82,281 @@ public class LogController {
 //        return "Triggered manual exception scan. Check application console logs.";
 //    }
 
-//    @GetMapping("/{file}/{serial}")
-//    public ResponseEntity<LogResponse> getLogByFileAndSerial(@PathVariable String file,
-//                                                             @PathVariable String serial) {
-//        String path = "C:/Users/user/Desktop/stream/" + file;
-//        return ResponseEntity.ok(service.findByOrdinatorOrReference(path, serial));
-//    }
+    /**
+     * Runs on the query pool like the stream endpoints: the first lookup of a file indexes all of it.
+     */
+    @GetMapping("/{file}/{serial}")
+    public CompletableFuture<ResponseEntity<LogResponse>> getLogByFileAndSerial(@PathVariable String file,
+                                                                                @PathVariable String serial) {
+        QueryContext query = service.newQuery();
+        query.getProfile().setLabel("serial " + file + " " + serial);
+        return CompletableFuture.supplyAsync(() -> {
+            long matchStart = System.nanoTime();
+            boolean cancelled = false;
+            try {
+                return ResponseEntity.ok(transactionService.findBySerial(file, serial, query));
+            } catch (QueryCancelledException e) {
+                cancelled = true;
+                throw e;
+            } finally {
+                query.getProfile().record(QueryProfile.Phase.MATCH, System.nanoTime() - matchStart);
+                metrics.record(query, cancelled);
+            }
+        }, queryExecutor);
+    }
 
     @PostMapping("/file-stream")
-    public ResponseEntity<ResponseBodyEmitter> streamLogs(@RequestBody LogsRequest req) {
-        ResponseBodyEmitter emitter =  new ResponseBodyEmitter();
+    public CompletableFuture<ResponseEntity<ResponseBodyEmitter>> streamLogs(
+            @RequestBody LogsRequest req,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestHeader(value = QUERY_PROFILE, defaultValue = "false") boolean profile,
+            HttpServletResponse response) {
+        QueryContext query = service.newQuery();
+        query.getProfile().setLabel("file-stream " + req.getFile() + " "
+                + (req.getQuery() != null && !req.getQuery().isBlank() ? req.getQuery() : req.getUniqueData()));
+        return stream(query, writers.useGzip(acceptEncoding), profile ? response : null,
+                () -> service.findPage(req, query),
+                SearchPage::getTotal,
+                (page, builder) -> {
+                    builder.header(page.isTotalExact() ? TOTAL_COUNT : TOTAL_ESTIMATE, String.valueOf(page.getTotal()));
+                    if (page.getNextCursor() != null) {
+                        builder.header(NEXT_CURSOR, page.getNextCursor());
+                    }
+                },
+                (page, sink) -> service.streamPage(page, query, sink));
+    }
+
+    @PostMapping("/files-stream")
+    public CompletableFuture<ResponseEntity<ResponseBodyEmitter>> streamManyLogs(
+            @RequestBody MultiLogsRequest req,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestHeader(value = QUERY_PROFILE, defaultValue = "false") boolean profile,
+            HttpServletResponse response) {
+        QueryContext query = service.newQuery();
+        query.getProfile().setLabel("files-stream " + (req.getFiles() != null ? req.getFiles() : req.getGlob()) + " "
+                + (req.getQuery() != null && !req.getQuery().isBlank() ? req.getQuery() : req.getUniqueData()));
+        return stream(query, writers.useGzip(acceptEncoding), profile ? response : null,
+                () -> multiSearchService.findPage(req, query),
+                MultiSearchPage::getTotal,
+                (page, builder) -> builder
+                        .header(page.isTotalExact() ? TOTAL_COUNT : TOTAL_ESTIMATE, String.valueOf(page.getTotal()))
+                        .header(SKIPPED_FILES, String.valueOf(page.getSkippedFiles())),
+                (page, sink) -> multiSearchService.streamPage(page, query, sink));
+    }
+
+    /**
+     * {@code /file-stream} on every configured log-view node, merged by time; lines are prefixed with the
+     * node name. Nodes that did not answer in time are listed in {@value #FAILED_NODES}.
+     */
+    @PostMapping("/federated-stream")
+    public CompletableFuture<ResponseEntity<ResponseBodyEmitter>> streamFederatedLogs(
+            @RequestBody LogsRequest req,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestHeader(value = QUERY_PROFILE, defaultValue = "false") boolean profile,
+            HttpServletResponse response) {
+        QueryContext query = service.newQuery();
+        query.getProfile().setLabel("federated-stream " + req.getFile() + " "
+                + (req.getQuery() != null && !req.getQuery().isBlank() ? req.getQuery() : req.getUniqueData()));
+        return stream(query, writers.useGzip(acceptEncoding), profile ? response : null,
+                () -> federationService.findPage(req, query),
+                FederatedPage::getTotal,
+                (page, builder) -> builder
+                        .header(page.isTotalExact() ? TOTAL_COUNT : TOTAL_ESTIMATE, String.valueOf(page.getTotal()))
+                        .header(FAILED_NODES, String.join(",", page.getFailedNodes())),
+                (page, sink) -> federationService.streamPage(page, query, sink));
+    }
 
-        new Thread(() -> {
+    @PostMapping("/entries-stream")
+    public CompletableFuture<ResponseEntity<ResponseBodyEmitter>> streamEntries(
+            @RequestBody EntriesRequest req,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestHeader(value = QUERY_PROFILE, defaultValue = "false") boolean profile,
+            HttpServletResponse response) {
+        QueryContext query = service.newQuery();
+        query.getProfile().setLabel("entries-stream " + req.getFile() + " thread=" + req.getThread()
+                + " level=" + req.getLevel());
+        return stream(query, writers.useGzip(acceptEncoding), profile ? response : null,
+                () -> service.findEntries(req.getFile(),
+                        EntryFilter.of(TimeRange.of(req.getFrom(), req.getTo()), req.getThread(), req.getLevel()),
+                        req.getPage(), req.getSize(), query),
+                EntryPage::getTotal,
+                (page, builder) -> builder.header(TOTAL_COUNT, String.valueOf(page.getTotal())),
+                (page, sink) -> service.streamEntries(page, query, sink));
+    }
+
+    /**
+     * Runs {@code find} on the query pool, sends the headers as soon as it returns, then streams the body.
+     * The query is recorded in the metrics when the body ends; with {@code profileTo} set its profile is
+     * also sent as the {@value #QUERY_PROFILE} trailer.
+     */
+    private <P> CompletableFuture<ResponseEntity<ResponseBodyEmitter>> stream(
+            QueryContext query, boolean gzip, HttpServletResponse profileTo, Supplier<P> find, ToLongFunction<P> total,
+            BiConsumer<P, ResponseEntity.BodyBuilder> headers, BiConsumer<P, LineSink> body) {
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(query.getTimeoutMillis() > 0 ? query.getTimeoutMillis() : null);
+        CompletableFuture<ResponseEntity<ResponseBodyEmitter>> response = new CompletableFuture<>();
+        QueryProfile profile = query.getProfile();
+        boolean trailer = profileTo != null && profileTrailer(profileTo, query);
+
+        Future<?> task = queryExecutor.submit(() -> {
+            P page;
+            long matchStart = System.nanoTime();
+            try {
+                page = find.get();
+            } catch (Exception e) {
+                profile.record(QueryProfile.Phase.MATCH, System.nanoTime() - matchStart);
+                metrics.record(query, e instanceof QueryCancelledException);
+                response.completeExceptionally(e);
+                return;
+            }
+            profile.record(QueryProfile.Phase.MATCH, System.nanoTime() - matchStart);
+            profile.setMatches(total.applyAsLong(page));
+
+            // header-lər kontekst axınından əvvəl göndərilir
+            ResponseEntity.BodyBuilder builder = streamHeaders(gzip);
+            if (trailer) {
+                builder.header(HttpHeaders.TRAILER, QUERY_PROFILE);
+            }
+            headers.accept(page, builder);
+            response.complete(builder.body(emitter));
+
+            EmitterWriter writer = writers.open(emitter, gzip, profile);
+            long contextStart = System.nanoTime();
             try {
-                service.streamLogs(req.getFile(), req.getUniqueData(), req.getPage(), req.getSize(), emitter);
+                body.accept(page, writer);
+                writer.close();
+                finish(query, contextStart, false);
                 emitter.complete();
             } catch (Exception e) {
+                writer.discard();
+                finish(query, contextStart, e instanceof QueryCancelledException || query.isCancelled());
                 emitter.completeWithError(e);
             }
-        }).start();
-        return ResponseEntity.ok(emitter);
+        });
+
+        // müştəri bağlananda və ya vaxt bitəndə axtarış dayandırılır
+        Runnable cancel = () -> {
+            query.cancel();
+            task.cancel(true);
+        };
+        emitter.onCompletion(cancel);
+        emitter.onTimeout(cancel);
+        emitter.onError(e -> cancel.run());
+        return response;
     }
 
+    /**
+     * Context phase is the body time without the time spent sending; recorded before the emitter completes,
+     * since the trailer is read then.
+     */
+    private void finish(QueryContext query, long contextStart, boolean cancelled) {
+        QueryProfile profile = query.getProfile();
+        long elapsed = System.nanoTime() - contextStart;
+        profile.record(QueryProfile.Phase.CONTEXT, Math.max(0, elapsed - profile.getNanos(QueryProfile.Phase.EMIT)));
+        metrics.record(query, cancelled);
+    }
+
+    /**
+     * @return false when the connection cannot carry trailers (HTTP/1.0)
+     */
+    private static boolean profileTrailer(HttpServletResponse response, QueryContext query) {
+        try {
+            response.setTrailerFields(() -> Map.of(QUERY_PROFILE, query.getProfile().summary(query.getScannedBytes())));
+            return true;
+        } catch (IllegalStateException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @param overflow buffer, drop-oldest or sample; the configured policy when missing
+     */
     @PostMapping("/file-live")
-    public ResponseEntity<ResponseBodyEmitter> streamLiveLogs(@RequestBody LogsRequest req) {
+    public ResponseEntity<ResponseBodyEmitter> streamLiveLogs(
+            @RequestBody LogsRequest req,
+            @RequestParam(required = false) String overflow,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         ResponseBodyEmitter emitter = new ResponseBodyEmitter(0L);
-        new Thread(() -> {
-            try {
-                service.streamLiveLogs(req.getFile(), req.getUniqueData(), emitter);
-            } catch (Exception e) {
-                emitter.completeWithError(e);
-            }
-        }).start();
+        boolean gzip = writers.useGzip(acceptEncoding);
+        EmitterWriter writer = writers.open(emitter, gzip);
+        try {
+            service.streamLiveLogs(req.getFile(), req.getUniqueData(), req.getQuery(), overflow, emitter, writer,
+                    metrics::dropped);
+        } catch (Exception e) {
+            writer.discard();
+            emitter.completeWithError(e);
+        }
+
+        return streamHeaders(gzip).body(emitter);
+    }
 
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_TYPE, "text/plain;charset=UTF-8") // 🔑 vacibdir
-                .body(emitter);
+    /**
+     * {@code /file-stream} as Server-Sent Events; the file is read as fast as the client takes events.
+     */
+    @PostMapping(value = "/file-stream-sse", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> streamLogsSse(@RequestBody LogsRequest req) {
+        QueryContext query = service.newQuery();
+        query.getProfile().setLabel("file-stream-sse " + req.getFile() + " "
+                + (req.getQuery() != null && !req.getQuery().isBlank() ? req.getQuery() : req.getUniqueData()));
+        return sseService.stream(req, query);
+    }
+
+    /**
+     * {@code /file-live} as Server-Sent Events, with a bounded buffer per connection.
+     *
+     * @param overflow buffer, drop-oldest or sample; the configured policy when missing
+     */
+    @PostMapping(value = "/file-live-sse", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> streamLiveLogsSse(@RequestBody LogsRequest req,
+                                                           @RequestParam(required = false) String overflow) {
+        return sseService.live(req, overflow);
+    }
+
+    private static ResponseEntity.BodyBuilder streamHeaders(boolean gzip) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_TYPE, "text/plain;charset=UTF-8"); // 🔑 vacibdir
+        if (gzip) {
+            builder.header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        return builder;
+    }
+
+    /**
+     * Raw log slice as a download: the page of matches with their thread context when a filter is given,
+     * otherwise the time range. Resumable with Range unless gzipped.
+     */
+    @GetMapping("/export")
+    public void export(@RequestParam String file,
+                       @RequestParam(required = false) String uniqueData,
+                       @RequestParam(required = false) String query,
+                       @RequestParam(required = false) String from,
+                       @RequestParam(required = false) String to,
+                       @RequestParam(defaultValue = "0") int page,
+                       @RequestParam(defaultValue = "1000") int size,
+                       @RequestParam(defaultValue = "false") boolean gzip,
+                       HttpServletRequest request,
+                       HttpServletResponse response) throws IOException {
+        exportService.export(new LogsRequest(file, uniqueData, query, page, size, null, from, to, false),
+                gzip, request, response);
     }
 
     @GetMapping("/files")
     public ResponseEntity<List<String>> getLogFiles() {
         return ResponseEntity.ok(service.loadFiles());
     }
+
+    @GetMapping("/histogram")
+    public ResponseEntity<Histogram> getHistogram(@RequestParam String file,
+                                                  @RequestParam(required = false) String by,
+                                                  @RequestParam(required = false) String key,
+                                                  @RequestParam(required = false) String from,
+                                                  @RequestParam(required = false) String to,
+                                                  @RequestParam(defaultValue = "1") int step) {
+        return ResponseEntity.ok(histogramService.histogram(file, by, key, from, to, step));
+    }
+
+    @GetMapping("/archives/stats")
+    public ResponseEntity<List<ArchiveStats>> getArchiveStats() {
+        return ResponseEntity.ok(archiveService.stats());
+    }
 }
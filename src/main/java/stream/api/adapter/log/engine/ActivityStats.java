@@ -0,0 +1,389 @@
+package stream.api.adapter.log.engine;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per minute entry counts of one file, by level ("[ERR]", "[INF]", ...), by operation (the word after
+ * "REQ:") and by thread. Only header lines are counted, one per log entry. Built in one forward pass and
+ * extended incrementally, so a histogram is read from the counters without touching the file.
+ */
+public class ActivityStats {
+
+    public enum Dimension {
+        LEVEL, OPERATION, THREAD
+    }
+
+    private static final int MAGIC = 0x41435453;
+    private static final int VERSION = 3;
+    private static final int BATCH_SIZE = 64 * 1024;
+    private static final long MILLIS_PER_MINUTE = 60_000L;
+    private static final int MAX_LEVEL_LENGTH = 8;
+    // səviyyə thread-dən sonra gəlir, sətrin başından uzaqda axtarmırıq
+    private static final int LEVEL_SCAN = 48;
+    private static final BytePattern REQ = new BytePattern("REQ:");
+
+    private Counts counts = new Counts();
+    private volatile long indexedBytes;
+    private volatile long headHash;
+
+    public long getIndexedBytes() {
+        return indexedBytes;
+    }
+
+    /**
+     * Counts the entries appended since the last call. A file that became shorter, or whose head changed,
+     * is counted from scratch.
+     *
+     * @return true when something changed
+     */
+    public boolean update(FileChannel channel) throws IOException {
+        long size = channel.size();
+        boolean reset = !matches(channel);
+        if (reset) {
+            reset();
+        }
+        long indexed = indexedBytes;
+        if (size == indexed) return reset;
+
+        Pass pass = new Pass();
+        long end = LineReader.read(channel, indexed, size, false, pass);
+        pass.flush(end);
+        if (indexed < FileHead.BYTES) {
+            headHash = FileHead.hash(channel, end);
+        }
+        return true;
+    }
+
+    /**
+     * False when the file is shorter than what was counted or its head is not the counted file's head.
+     */
+    private boolean matches(FileChannel channel) throws IOException {
+        long indexed = indexedBytes;
+        if (channel.size() < indexed) return false;
+        return indexed == 0 || FileHead.hash(channel, indexed) == headHash;
+    }
+
+    /**
+     * Minutes of the first and the last counted entry, or {@link TimeRange#ALL} when nothing is counted yet.
+     */
+    public synchronized TimeRange covered() {
+        Series total = counts.total;
+        if (total.total == 0) return TimeRange.ALL;
+        return new TimeRange(total.firstMinute() * MILLIS_PER_MINUTE, total.lastMinute() * MILLIS_PER_MINUTE);
+    }
+
+    /**
+     * Entry counts in {@code buckets} buckets of {@code step} minutes starting at the minute of {@code from}:
+     * one series per value of {@code by} seen in that range, or the single series of {@code key} when given.
+     * The {@code null} key holds all entries.
+     */
+    public synchronized Map<String, int[]> histogram(Dimension by, String key, long from, int buckets, int step) {
+        int first = minute(from);
+        Map<String, int[]> result = new LinkedHashMap<>();
+        result.put(null, counts.total.buckets(first, buckets, step));
+
+        for (Map.Entry<String, Series> e : counts.dimension(by).entrySet()) {
+            if (key != null && !key.equals(e.getKey())) continue;
+            int[] series = e.getValue().buckets(first, buckets, step);
+            if (key != null || !isEmpty(series)) {
+                result.put(e.getKey(), series);
+            }
+        }
+        return result;
+    }
+
+    public synchronized void save(Path sidecar) throws IOException {
+        Path tmp = sidecar.resolveSibling(sidecar.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(indexedBytes);
+            out.writeLong(headHash);
+            counts.total.write(out);
+            for (Dimension by : Dimension.values()) {
+                Map<String, Series> series = counts.dimension(by);
+                out.writeInt(series.size());
+                for (Map.Entry<String, Series> e : series.entrySet()) {
+                    out.writeUTF(e.getKey());
+                    e.getValue().write(out);
+                }
+            }
+        }
+        Files.move(tmp, sidecar, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @param channel the counted file, to check that the sidecar was built on it
+     * @return the saved counters, or empty ones when the sidecar is missing, unreadable or belongs to an
+     * earlier file of the same name
+     */
+    public static ActivityStats load(Path sidecar, FileChannel channel) {
+        ActivityStats stats = new ActivityStats();
+        if (!Files.exists(sidecar)) return stats;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(sidecar)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) return new ActivityStats();
+            long indexed = in.readLong();
+            long head = in.readLong();
+            Counts counts = new Counts();
+            counts.total.read(in);
+            for (Dimension by : Dimension.values()) {
+                Map<String, Series> series = counts.dimension(by);
+                int size = in.readInt();
+                for (int i = 0; i < size; i++) {
+                    String key = in.readUTF();
+                    Series s = new Series();
+                    s.read(in);
+                    series.put(key, s);
+                }
+            }
+            stats.counts = counts;
+            stats.indexedBytes = indexed;
+            stats.headHash = head;
+            return stats.matches(channel) ? stats : new ActivityStats();
+        } catch (IOException e) {
+            return new ActivityStats();
+        }
+    }
+
+    private synchronized void reset() {
+        counts = new Counts();
+        indexedBytes = 0;
+        headHash = 0;
+    }
+
+    private synchronized void merge(Counts delta, long end) {
+        counts.merge(delta);
+        indexedBytes = end;
+    }
+
+    private static int minute(long millis) {
+        return (int) Math.floorDiv(millis, MILLIS_PER_MINUTE);
+    }
+
+    private static boolean isEmpty(int[] series) {
+        for (int count : series) {
+            if (count != 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Level of a header line: the first bracketed word after the timestamp that is not the thread, e.g. "ERR".
+     */
+    static String level(byte[] buf, int start, int length) {
+        int end = Math.min(start + length, start + LogHeaders.TIMESTAMP_LENGTH + LEVEL_SCAN);
+        for (int i = start + LogHeaders.TIMESTAMP_LENGTH; i < end; i++) {
+            if (buf[i] != '[') continue;
+            int j = i + 1;
+            while (j < end && j - i <= MAX_LEVEL_LENGTH && buf[j] >= 'A' && buf[j] <= 'Z') {
+                j++;
+            }
+            if (j > i + 1 && j < end && buf[j] == ']') {
+                return new String(buf, i + 1, j - i - 1, StandardCharsets.US_ASCII);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Counters of every dimension; the pass fills a private one and merges it in batches.
+     */
+    private static final class Counts {
+        private final Series total = new Series();
+        private final Map<String, Series> levels = new HashMap<>();
+        private final Map<String, Series> operations = new HashMap<>();
+        private final Map<String, Series> threads = new HashMap<>();
+
+        Map<String, Series> dimension(Dimension by) {
+            return switch (by) {
+                case LEVEL -> levels;
+                case OPERATION -> operations;
+                case THREAD -> threads;
+            };
+        }
+
+        void merge(Counts delta) {
+            total.addAll(delta.total);
+            for (Dimension by : Dimension.values()) {
+                Map<String, Series> target = dimension(by);
+                delta.dimension(by).forEach((key, series) -> target.computeIfAbsent(key, k -> new Series()).addAll(series));
+            }
+        }
+    }
+
+    private final class Pass implements LineVisitor {
+        private final LogHeader header = new LogHeader();
+        // thread id-dən açar yaratmamaq üçün
+        private final Map<Integer, Series> threadSeries = new HashMap<>();
+        private Counts delta = new Counts();
+        private int lines;
+
+        @Override
+        public boolean visit(long offset, byte[] buf, int start, int length) {
+            if (lines == BATCH_SIZE) {
+                flush(offset);
+            }
+            if (!LogHeaders.parse(buf, start, length, header)) return true;
+
+            lines++;
+            int minute = minute(header.getMillis());
+            delta.total.add(minute);
+
+            String level = level(buf, start, length);
+            if (level != null) {
+                delta.levels.computeIfAbsent(level, k -> new Series()).add(minute);
+            }
+            if (header.hasThread()) {
+                threadSeries.computeIfAbsent(header.getThread(),
+                        t -> delta.threads.computeIfAbsent(LogHeaders.threadName(t), k -> new Series())).add(minute);
+            }
+
+            int end = start + length;
+            int at = REQ.indexOf(buf, start + LogHeaders.TIMESTAMP_LENGTH, end);
+            if (at >= 0) {
+                String operation = TransactionIndex.operationAfter(at, buf, end);
+                if (!operation.isEmpty()) {
+                    delta.operations.computeIfAbsent(operation, k -> new Series()).add(minute);
+                }
+            }
+            return true;
+        }
+
+        void flush(long end) {
+            merge(delta, end);
+            delta = new Counts();
+            threadSeries.clear();
+            lines = 0;
+        }
+    }
+
+    /**
+     * Counts per minute since the epoch, in chunks of {@value #CHUNK_MINUTES} minutes; chunks without any
+     * entry are never allocated.
+     */
+    private static final class Series {
+        private static final int CHUNK_SHIFT = 10;
+        private static final int CHUNK_MINUTES = 1 << CHUNK_SHIFT;
+        private static final int CHUNK_MASK = CHUNK_MINUTES - 1;
+
+        // chunks[i] = [(firstChunk + i) * CHUNK_MINUTES, ...)
+        private int firstChunk;
+        private int[][] chunks = new int[0][];
+        private long total;
+
+        void add(int minute) {
+            add(minute, 1);
+        }
+
+        void add(int minute, int count) {
+            int chunk = minute >> CHUNK_SHIFT;
+            if (chunks.length == 0) {
+                firstChunk = chunk;
+                chunks = new int[1][];
+            } else if (chunk < firstChunk) {
+                int[][] grown = new int[chunks.length + firstChunk - chunk][];
+                System.arraycopy(chunks, 0, grown, firstChunk - chunk, chunks.length);
+                chunks = grown;
+                firstChunk = chunk;
+            } else if (chunk - firstChunk >= chunks.length) {
+                chunks = Arrays.copyOf(chunks, Math.max(chunk - firstChunk + 1, chunks.length * 2));
+            }
+            int[] counts = chunks[chunk - firstChunk];
+            if (counts == null) {
+                counts = chunks[chunk - firstChunk] = new int[CHUNK_MINUTES];
+            }
+            counts[minute & CHUNK_MASK] += count;
+            total += count;
+        }
+
+        void addAll(Series other) {
+            for (int i = 0; i < other.chunks.length; i++) {
+                int[] counts = other.chunks[i];
+                if (counts == null) continue;
+                int base = (other.firstChunk + i) << CHUNK_SHIFT;
+                for (int m = 0; m < CHUNK_MINUTES; m++) {
+                    if (counts[m] != 0) add(base + m, counts[m]);
+                }
+            }
+        }
+
+        int[] buckets(int first, int buckets, int step) {
+            int[] result = new int[buckets];
+            long last = (long) first + (long) buckets * step;
+            for (int i = 0; i < chunks.length; i++) {
+                int[] counts = chunks[i];
+                if (counts == null) continue;
+                long base = (long) (firstChunk + i) << CHUNK_SHIFT;
+                if (base + CHUNK_MINUTES <= first || base >= last) continue;
+                for (int m = 0; m < CHUNK_MINUTES; m++) {
+                    long minute = base + m;
+                    if (counts[m] != 0 && minute >= first && minute < last) {
+                        result[(int) ((minute - first) / step)] += counts[m];
+                    }
+                }
+            }
+            return result;
+        }
+
+        long firstMinute() {
+            for (int i = 0; i < chunks.length; i++) {
+                int[] counts = chunks[i];
+                if (counts == null) continue;
+                for (int m = 0; m < CHUNK_MINUTES; m++) {
+                    if (counts[m] != 0) return ((long) (firstChunk + i) << CHUNK_SHIFT) + m;
+                }
+            }
+            return 0;
+        }
+
+        long lastMinute() {
+            for (int i = chunks.length - 1; i >= 0; i--) {
+                int[] counts = chunks[i];
+                if (counts == null) continue;
+                for (int m = CHUNK_MINUTES - 1; m >= 0; m--) {
+                    if (counts[m] != 0) return ((long) (firstChunk + i) << CHUNK_SHIFT) + m;
+                }
+            }
+            return 0;
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            out.writeInt(firstChunk);
+            out.writeInt(chunks.length);
+            for (int[] counts : chunks) {
+                out.writeBoolean(counts != null);
+                if (counts == null) continue;
+                for (int count : counts) {
+                    out.writeInt(count);
+                }
+            }
+        }
+
+        void read(DataInputStream in) throws IOException {
+            firstChunk = in.readInt();
+            chunks = new int[in.readInt()][];
+            for (int i = 0; i < chunks.length; i++) {
+                if (!in.readBoolean()) continue;
+                int[] counts = chunks[i] = new int[CHUNK_MINUTES];
+                for (int m = 0; m < CHUNK_MINUTES; m++) {
+                    counts[m] = in.readInt();
+                    total += counts[m];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package stream.api.adapter.log.engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Read-only view of the uncompressed content of a gzip archive as a {@link FileChannel}, so the
+ * readers and searches work on archives unchanged. A read continues the current inflater when it is
+ * at or a little before the requested position, otherwise decompression restarts at the nearest
+ * {@link GzipIndex} checkpoint. Memory mapping is not supported; {@link MappedSearch} and
+ * {@link ParallelSearch} fall back to {@link StreamSearch} for these channels.
+ */
+public class ArchiveChannel extends FileChannel {
+
+    private static final int INPUT_SIZE = 64 * 1024;
+
+    private final FileChannel archive;
+    private final GzipIndex index;
+    private final ArchiveStats stats;
+    private final byte[] input = new byte[INPUT_SIZE + 1];
+    private final byte[] shifted = new byte[INPUT_SIZE + 1];
+    private final byte[] skip = new byte[INPUT_SIZE];
+
+    private Inflater inflater;
+    private int checkpoint;
+    private long out;
+    private long compressedPos;
+    private int shift;
+    private long position;
+    private long compressedRead;
+    private long produced;
+
+    public ArchiveChannel(FileChannel archive, GzipIndex index, ArchiveStats stats) {
+        this.archive = archive;
+        this.index = index;
+        this.stats = stats;
+    }
+
+    @Override
+    public synchronized int read(ByteBuffer dst, long position) throws IOException {
+        if (position < 0) throw new IllegalArgumentException("Mənfi mövqe");
+        if (!dst.hasRemaining()) return 0;
+        if (position >= index.size()) return -1;
+
+        long started = System.nanoTime();
+        long compressedBefore = compressedRead;
+        long producedBefore = produced;
+        try {
+            seek(position);
+            int n;
+            if (dst.hasArray()) {
+                n = inflate(dst.array(), dst.arrayOffset() + dst.position(), dst.remaining());
+                if (n > 0) dst.position(dst.position() + n);
+            } else {
+                n = inflate(skip, 0, Math.min(skip.length, dst.remaining()));
+                if (n > 0) dst.put(skip, 0, n);
+            }
+            return n;
+        } finally {
+            stats.record(compressedRead - compressedBefore, produced - producedBefore, System.nanoTime() - started);
+        }
+    }
+
+    @Override
+    public synchronized int read(ByteBuffer dst) throws IOException {
+        int n = read(dst, position);
+        if (n > 0) position += n;
+        return n;
+    }
+
+    @Override
+    public synchronized long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+        long total = 0;
+        for (int i = offset; i < offset + length; i++) {
+            while (dsts[i].hasRemaining()) {
+                int n = read(dsts[i]);
+                if (n < 0) return total == 0 ? -1 : total;
+                total += n;
+            }
+        }
+        return total;
+    }
+
+    @Override
+    public synchronized long position() {
+        return position;
+    }
+
+    @Override
+    public synchronized FileChannel position(long newPosition) {
+        this.position = newPosition;
+        return this;
+    }
+
+    /**
+     * Uncompressed size.
+     */
+    @Override
+    public long size() {
+        return index.size();
+    }
+
+    @Override
+    public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(INPUT_SIZE);
+        long transferred = 0;
+        while (transferred < count) {
+            buf.clear().limit((int) Math.min(buf.capacity(), count - transferred));
+            int n = read(buf, position + transferred);
+            if (n <= 0) break;
+            buf.flip();
+            while (buf.hasRemaining()) {
+                transferred += target.write(buf);
+            }
+        }
+        return transferred;
+    }
+
+    @Override
+    public MappedByteBuffer map(MapMode mode, long position, long size) {
+        throw new UnsupportedOperationException("Arxiv faylı map oluna bilməz");
+    }
+
+    @Override
+    public int write(ByteBuffer src) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public long write(ByteBuffer[] srcs, int offset, int length) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public int write(ByteBuffer src, long position) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public FileChannel truncate(long size) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public long transferFrom(ReadableByteChannel src, long position, long count) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public void force(boolean metaData) {
+    }
+
+    @Override
+    public FileLock lock(long position, long size, boolean shared) {
+        throw new UnsupportedOperationException("Arxiv faylı kilidlənə bilməz");
+    }
+
+    @Override
+    public FileLock tryLock(long position, long size, boolean shared) {
+        throw new UnsupportedOperationException("Arxiv faylı kilidlənə bilməz");
+    }
+
+    @Override
+    protected synchronized void implCloseChannel() throws IOException {
+        if (inflater != null) {
+            inflater.end();
+            inflater = null;
+        }
+        archive.close();
+    }
+
+    private void seek(long target) throws IOException {
+        // geri və ya uzağa irəli getmək üçün ən yaxın checkpoint-dən başlayırıq
+        if (inflater == null || target < out) {
+            restore(index.floor(target));
+        } else if (target - out > index.interval()) {
+            int nearest = index.floor(target);
+            if (index.out(nearest) > out) restore(nearest);
+        }
+        while (out < target) {
+            int n = inflate(skip, 0, (int) Math.min(skip.length, target - out));
+            if (n < 0) throw new ZipException("Arxiv gözləniləndən qısadır");
+        }
+    }
+
+    private void restore(int i) throws IOException {
+        if (inflater == null) {
+            inflater = new Inflater(true);
+        } else {
+            inflater.reset();
+        }
+        byte[] window = index.window(i);
+        if (window.length > 0) {
+            inflater.setDictionary(window);
+        }
+        checkpoint = i;
+        out = index.out(i);
+        compressedPos = index.bitOffset(i) >>> 3;
+        shift = (int) (index.bitOffset(i) & 7);
+    }
+
+    /**
+     * @return bytes produced (at least one), or -1 at the end of the archive
+     */
+    private int inflate(byte[] buf, int off, int len) throws IOException {
+        try {
+            while (true) {
+                if (inflater.finished()) {
+                    // gzip member bitdi, növbəti member-in checkpoint-indən davam edirik
+                    int next = index.nextMember(checkpoint);
+                    if (next < 0) return -1;
+                    restore(next);
+                }
+                if (inflater.needsInput() && !feed()) return -1;
+
+                int n = inflater.inflate(buf, off, len);
+                if (n > 0) {
+                    out += n;
+                    produced += n;
+                    return n;
+                }
+                if (inflater.needsDictionary()) throw new ZipException("Deflate lüğəti tələb olunur");
+            }
+        } catch (DataFormatException e) {
+            throw new ZipException(e.getMessage());
+        }
+    }
+
+    /**
+     * Hands the inflater the next compressed bytes, shifted by {@code shift} bits when the checkpoint
+     * was not on a byte boundary.
+     */
+    private boolean feed() throws IOException {
+        long remaining = archive.size() - compressedPos;
+        if (remaining <= 0) return false;
+
+        int want = (int) Math.min(shift == 0 ? INPUT_SIZE : INPUT_SIZE + 1, remaining);
+        ByteBuffer bb = ByteBuffer.wrap(input, 0, want);
+        while (bb.hasRemaining()) {
+            if (archive.read(bb, compressedPos + bb.position()) < 0) break;
+        }
+        int n = bb.position();
+        if (n == 0) return false;
+        compressedRead += n;
+
+        if (shift == 0) {
+            inflater.setInput(input, 0, n);
+            compressedPos += n;
+            return true;
+        }
+
+        // son bayt növbəti bayt ilə birləşdirilir, faylın sonunda isə tək qalır
+        boolean last = compressedPos + n >= archive.size();
+        int count = last ? n : n - 1;
+        for (int i = 0; i < count; i++) {
+            int next = i + 1 < n ? input[i + 1] & 0xFF : 0;
+            shifted[i] = (byte) (((input[i] & 0xFF) >>> shift) | (next << (8 - shift)));
+        }
+        inflater.setInput(shifted, 0, count);
+        compressedPos += count;
+        return true;
+    }
+}
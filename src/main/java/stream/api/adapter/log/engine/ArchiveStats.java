@@ -0,0 +1,48 @@
+package stream.api.adapter.log.engine;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decompression counters of one archive format, shared by all of its channels.
+ */
+public final class ArchiveStats {
+
+    private final String format;
+    private final LongAdder compressedBytes = new LongAdder();
+    private final LongAdder uncompressedBytes = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+
+    public ArchiveStats(String format) {
+        this.format = format;
+    }
+
+    void record(long compressed, long uncompressed, long elapsedNanos) {
+        compressedBytes.add(compressed);
+        uncompressedBytes.add(uncompressed);
+        nanos.add(elapsedNanos);
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public long getCompressedBytes() {
+        return compressedBytes.sum();
+    }
+
+    public long getUncompressedBytes() {
+        return uncompressedBytes.sum();
+    }
+
+    public long getNanos() {
+        return nanos.sum();
+    }
+
+    /**
+     * Uncompressed MB produced per second spent decompressing.
+     */
+    public double getMegabytesPerSecond() {
+        long elapsed = nanos.sum();
+        return elapsed == 0 ? 0 : uncompressedBytes.sum() / 1e6 / (elapsed / 1e9);
+    }
+}
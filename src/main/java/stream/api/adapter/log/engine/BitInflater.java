@@ -0,0 +1,360 @@
+package stream.api.adapter.log.engine;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.zip.ZipException;
+
+/**
+ * Minimal pure Java inflater (RFC 1951/1952) used only to index gzip archives. Unlike
+ * {@link java.util.zip.Inflater} it can report the exact bit position of every deflate block
+ * boundary together with the last 32KB of output, which is what resuming in the middle of a
+ * stream needs. The decompressed bytes themselves are not handed out.
+ */
+final class BitInflater {
+
+    static final int WINDOW_SIZE = 32 * 1024;
+
+    private static final int WINDOW_MASK = WINDOW_SIZE - 1;
+    private static final int FAST_BITS = 9;
+    private static final int MAX_BITS = 15;
+
+    private static final int[] LENGTH_BASE = {
+            3, 4, 5, 6, 7, 8, 9, 10, 11, 13, 15, 17, 19, 23, 27, 31,
+            35, 43, 51, 59, 67, 83, 99, 115, 131, 163, 195, 227, 258};
+    private static final int[] LENGTH_EXTRA = {
+            0, 0, 0, 0, 0, 0, 0, 0, 1, 1, 1, 1, 2, 2, 2, 2, 3, 3, 3, 3, 4, 4, 4, 4, 5, 5, 5, 5, 0};
+    private static final int[] DIST_BASE = {
+            1, 2, 3, 4, 5, 7, 9, 13, 17, 25, 33, 49, 65, 97, 129, 193,
+            257, 385, 513, 769, 1025, 1537, 2049, 3073, 4097, 6145, 8193, 12289, 16385, 24577};
+    private static final int[] DIST_EXTRA = {
+            0, 0, 0, 0, 1, 1, 2, 2, 3, 3, 4, 4, 5, 5, 6, 6, 7, 7, 8, 8, 9, 9, 10, 10, 11, 11, 12, 12, 13, 13};
+    private static final int[] CODE_LENGTH_ORDER = {
+            16, 17, 18, 0, 8, 7, 9, 6, 10, 5, 11, 4, 12, 3, 13, 2, 14, 1, 15};
+
+    private static final Huffman FIXED_LITERALS;
+    private static final Huffman FIXED_DISTANCES;
+
+    static {
+        int[] lengths = new int[288];
+        for (int i = 0; i < 288; i++) {
+            lengths[i] = i < 144 ? 8 : i < 256 ? 9 : i < 280 ? 7 : 8;
+        }
+        FIXED_LITERALS = new Huffman(lengths, 288);
+        int[] distances = new int[30];
+        Arrays.fill(distances, 5);
+        FIXED_DISTANCES = new Huffman(distances, 30);
+    }
+
+    /**
+     * Called at stream positions where decompression can be resumed.
+     */
+    interface BoundaryListener {
+
+        /**
+         * @param out       uncompressed offset of the boundary
+         * @param bitOffset compressed bit offset of the next deflate block
+         * @param member    true at the start of a gzip member (no history needed)
+         */
+        void boundary(long out, long bitOffset, boolean member) throws IOException;
+    }
+
+    private final FileChannel channel;
+    private final ByteBuffer input = ByteBuffer.allocate(64 * 1024);
+    private final byte[] window = new byte[WINDOW_SIZE];
+    private final QueryContext query;
+    private long inputBase;
+    private boolean inputEof;
+
+    private long bitBuf;
+    private int bitCount;
+    private long out;
+    private long memberStart;
+
+    BitInflater(FileChannel channel, QueryContext query) {
+        this.channel = channel;
+        this.query = query;
+        input.limit(0);
+    }
+
+    /**
+     * Inflates every gzip member of the archive, reporting resumable positions.
+     *
+     * @return total uncompressed size
+     */
+    long run(BoundaryListener listener) throws IOException {
+        do {
+            readGzipHeader();
+            memberStart = out;
+            listener.boundary(out, bitOffset(), true);
+            boolean last;
+            do {
+                last = bits(1) == 1;
+                int type = bits(2);
+                switch (type) {
+                    case 0 -> stored();
+                    case 1 -> codes(FIXED_LITERALS, FIXED_DISTANCES);
+                    case 2 -> dynamic();
+                    default -> throw new ZipException("Yanlış deflate blok tipi");
+                }
+                if (!last) {
+                    listener.boundary(out, bitOffset(), false);
+                }
+            } while (!last);
+            readTrailer();
+        } while (nextMember());
+        return out;
+    }
+
+    /**
+     * The last {@code min(32KB, output of the current member)} bytes, oldest first.
+     */
+    byte[] window() {
+        int length = (int) Math.min(WINDOW_SIZE, out - memberStart);
+        byte[] copy = new byte[length];
+        for (int i = 0; i < length; i++) {
+            copy[i] = window[(int) ((out - length + i) & WINDOW_MASK)];
+        }
+        return copy;
+    }
+
+    private long bitOffset() {
+        return (inputBase + input.position()) * 8 - bitCount;
+    }
+
+    private void readGzipHeader() throws IOException {
+        if (bits(8) != 0x1f || bits(8) != 0x8b) throw new ZipException("Gzip faylı deyil");
+        if (bits(8) != 8) throw new ZipException("Dəstəklənməyən gzip sıxılma metodu");
+        int flags = bits(8);
+        bits(16);
+        bits(16);
+        bits(16);
+        if ((flags & 4) != 0) {
+            int extra = bits(16);
+            for (int i = 0; i < extra; i++) bits(8);
+        }
+        if ((flags & 8) != 0) {
+            while (bits(8) != 0) {
+                // fayl adı
+            }
+        }
+        if ((flags & 16) != 0) {
+            while (bits(8) != 0) {
+                // şərh
+            }
+        }
+        if ((flags & 2) != 0) {
+            bits(16);
+        }
+    }
+
+    private void readTrailer() throws IOException {
+        alignToByte();
+        bits(16);
+        bits(16);
+        long size = bits(16) | ((long) bits(16) << 16);
+        if (size != ((out - memberStart) & 0xFFFFFFFFL)) {
+            throw new ZipException("Gzip ölçüsü uyğun gəlmir");
+        }
+    }
+
+    /**
+     * True when another gzip member follows; trailing zero padding ends the archive.
+     */
+    private boolean nextMember() throws IOException {
+        fill();
+        return bitCount >= 16 && (bitBuf & 0xFFFF) == 0x8b1f;
+    }
+
+    private void stored() throws IOException {
+        alignToByte();
+        int length = bits(16);
+        int complement = bits(16);
+        if ((length ^ 0xFFFF) != complement) throw new ZipException("Yanlış stored blok uzunluğu");
+        for (int i = 0; i < length; i++) {
+            put((byte) bits(8));
+        }
+    }
+
+    private void dynamic() throws IOException {
+        int literalCount = bits(5) + 257;
+        int distanceCount = bits(5) + 1;
+        int codeLengthCount = bits(4) + 4;
+
+        int[] codeLengths = new int[19];
+        for (int i = 0; i < codeLengthCount; i++) {
+            codeLengths[CODE_LENGTH_ORDER[i]] = bits(3);
+        }
+        Huffman lengthCode = new Huffman(codeLengths, 19);
+
+        int[] lengths = new int[literalCount + distanceCount];
+        int i = 0;
+        while (i < lengths.length) {
+            int symbol = decode(lengthCode);
+            if (symbol < 16) {
+                lengths[i++] = symbol;
+                continue;
+            }
+            int repeat;
+            int value = 0;
+            if (symbol == 16) {
+                if (i == 0) throw new ZipException("Təkrar üçün əvvəlki uzunluq yoxdur");
+                value = lengths[i - 1];
+                repeat = 3 + bits(2);
+            } else if (symbol == 17) {
+                repeat = 3 + bits(3);
+            } else {
+                repeat = 11 + bits(7);
+            }
+            if (i + repeat > lengths.length) throw new ZipException("Həddən artıq kod uzunluğu");
+            while (repeat-- > 0) {
+                lengths[i++] = value;
+            }
+        }
+
+        int[] literals = Arrays.copyOf(lengths, literalCount);
+        int[] distances = Arrays.copyOfRange(lengths, literalCount, lengths.length);
+        codes(new Huffman(literals, literalCount), new Huffman(distances, distanceCount));
+    }
+
+    private void codes(Huffman literals, Huffman distances) throws IOException {
+        while (true) {
+            int symbol = decode(literals);
+            if (symbol < 256) {
+                put((byte) symbol);
+                continue;
+            }
+            if (symbol == 256) return;
+
+            symbol -= 257;
+            if (symbol >= 29) throw new ZipException("Yanlış uzunluq simvolu");
+            int length = LENGTH_BASE[symbol] + bits(LENGTH_EXTRA[symbol]);
+            int distanceSymbol = decode(distances);
+            if (distanceSymbol >= 30) throw new ZipException("Yanlış məsafə simvolu");
+            int distance = DIST_BASE[distanceSymbol] + bits(DIST_EXTRA[distanceSymbol]);
+            if (distance > out - memberStart) throw new ZipException("Məsafə çıxışdan uzundur");
+
+            for (int k = 0; k < length; k++) {
+                put(window[(int) ((out - distance) & WINDOW_MASK)]);
+            }
+        }
+    }
+
+    private void put(byte b) {
+        window[(int) (out & WINDOW_MASK)] = b;
+        out++;
+    }
+
+    private int decode(Huffman huffman) throws IOException {
+        if (bitCount < MAX_BITS) fill();
+        int entry = huffman.fast[(int) (bitBuf & ((1 << FAST_BITS) - 1))];
+        if (entry >= 0 && (entry & 0xF) <= bitCount) {
+            int length = entry & 0xF;
+            bitBuf >>>= length;
+            bitCount -= length;
+            return entry >>> 4;
+        }
+
+        // uzun kodlar bit-bit oxunur
+        int code = 0;
+        int first = 0;
+        int index = 0;
+        for (int length = 1; length <= MAX_BITS; length++) {
+            code |= bits(1);
+            int count = huffman.counts[length];
+            if (code - count < first) {
+                return huffman.symbols[index + (code - first)];
+            }
+            index += count;
+            first += count;
+            first <<= 1;
+            code <<= 1;
+        }
+        throw new ZipException("Yanlış Huffman kodu");
+    }
+
+    private int bits(int n) throws IOException {
+        if (n == 0) return 0;
+        if (bitCount < n) {
+            fill();
+            if (bitCount < n) throw new EOFException("Arxiv yarımçıqdır");
+        }
+        int value = (int) (bitBuf & ((1L << n) - 1));
+        bitBuf >>>= n;
+        bitCount -= n;
+        return value;
+    }
+
+    private void alignToByte() {
+        int drop = bitCount & 7;
+        bitBuf >>>= drop;
+        bitCount -= drop;
+    }
+
+    private void fill() throws IOException {
+        while (bitCount <= 56) {
+            if (!input.hasRemaining()) {
+                if (inputEof || !refill()) return;
+            }
+            bitBuf |= (long) (input.get() & 0xFF) << bitCount;
+            bitCount += 8;
+        }
+    }
+
+    private boolean refill() throws IOException {
+        inputBase += input.limit();
+        input.clear();
+        int n = channel.read(input, inputBase);
+        input.flip();
+        if (n <= 0) {
+            inputEof = true;
+            return false;
+        }
+        query.onScanned(n);
+        return true;
+    }
+
+    /**
+     * Canonical Huffman code: per-length counts and symbols in code order (as in zlib's puff.c), plus a
+     * lookup table for codes of up to {@link #FAST_BITS} bits indexed by the bit-reversed code.
+     */
+    private static final class Huffman {
+        final int[] counts = new int[MAX_BITS + 1];
+        final int[] symbols;
+        final int[] fast = new int[1 << FAST_BITS];
+
+        Huffman(int[] lengths, int n) {
+            symbols = new int[n];
+            for (int i = 0; i < n; i++) {
+                counts[lengths[i]]++;
+            }
+            counts[0] = 0;
+
+            int[] offsets = new int[MAX_BITS + 2];
+            for (int length = 1; length <= MAX_BITS; length++) {
+                offsets[length + 1] = offsets[length] + counts[length];
+            }
+            for (int i = 0; i < n; i++) {
+                if (lengths[i] != 0) {
+                    symbols[offsets[lengths[i]]++] = i;
+                }
+            }
+
+            Arrays.fill(fast, -1);
+            int code = 0;
+            int index = 0;
+            for (int length = 1; length <= MAX_BITS; length++) {
+                for (int k = 0; k < counts[length]; k++, code++, index++) {
+                    if (length > FAST_BITS) continue;
+                    int reversed = Integer.reverse(code) >>> (32 - length);
+                    for (int fill = reversed; fill < fast.length; fill += 1 << length) {
+                        fast[fill] = (symbols[index] << 4) | length;
+                    }
+                }
+                code <<= 1;
+            }
+        }
+    }
+}
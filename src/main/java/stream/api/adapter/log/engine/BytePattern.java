@@ -0,0 +1,72 @@
+package stream.api.adapter.log.engine;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Boyer-Moore-Horspool search of a UTF-8 encoded literal directly in file bytes.
+ */
+public final class BytePattern {
+
+    private final byte[] needle;
+    private final int[] shift = new int[256];
+
+    public BytePattern(String literal) {
+        this.needle = literal.getBytes(StandardCharsets.UTF_8);
+        if (needle.length == 0) {
+            throw new IllegalArgumentException("Boş axtarış sətri");
+        }
+        Arrays.fill(shift, needle.length);
+        for (int i = 0; i < needle.length - 1; i++) {
+            shift[needle[i] & 0xFF] = needle.length - 1 - i;
+        }
+    }
+
+    public int length() {
+        return needle.length;
+    }
+
+    byte[] bytes() {
+        return needle;
+    }
+
+    /**
+     * @return first index in [from, to) where the whole pattern fits, or -1
+     */
+    public int indexOf(ByteBuffer buf, int from, int to) {
+        int last = needle.length - 1;
+        byte tail = needle[last];
+        int i = from;
+        while (i <= to - needle.length) {
+            byte b = buf.get(i + last);
+            if (b == tail) {
+                int j = last - 1;
+                while (j >= 0 && buf.get(i + j) == needle[j]) {
+                    j--;
+                }
+                if (j < 0) return i;
+            }
+            i += shift[b & 0xFF];
+        }
+        return -1;
+    }
+
+    public int indexOf(byte[] buf, int from, int to) {
+        int last = needle.length - 1;
+        byte tail = needle[last];
+        int i = from;
+        while (i <= to - needle.length) {
+            byte b = buf[i + last];
+            if (b == tail) {
+                int j = last - 1;
+                while (j >= 0 && buf[i + j] == needle[j]) {
+                    j--;
+                }
+                if (j < 0) return i;
+            }
+            i += shift[b & 0xFF];
+        }
+        return -1;
+    }
+}
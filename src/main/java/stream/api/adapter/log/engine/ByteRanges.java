@@ -0,0 +1,120 @@
+package stream.api.adapter.log.engine;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+/**
+ * Sorted, non-touching byte ranges [start, end) of a file, read as one stream of {@link #length()} bytes.
+ * Positions given to {@link #slice} count within that stream, which is what an HTTP Range refers to.
+ */
+public final class ByteRanges {
+
+    public static final ByteRanges EMPTY = new ByteRanges(new long[0], 0);
+
+    // start0, end0, start1, end1, ...
+    private final long[] bounds;
+    private final long length;
+
+    private ByteRanges(long[] bounds, long length) {
+        this.bounds = bounds;
+        this.length = length;
+    }
+
+    public static ByteRanges of(long start, long end) {
+        return end > start ? new ByteRanges(new long[]{start, end}, end - start) : EMPTY;
+    }
+
+    public int count() {
+        return bounds.length / 2;
+    }
+
+    public long start(int i) {
+        return bounds[2 * i];
+    }
+
+    public long end(int i) {
+        return bounds[2 * i + 1];
+    }
+
+    public long length() {
+        return length;
+    }
+
+    /**
+     * The bytes at stream positions [from, to).
+     */
+    public ByteRanges slice(long from, long to) {
+        Builder builder = new Builder();
+        long position = 0;
+        for (int i = 0; i < count() && position < to; i++) {
+            long size = end(i) - start(i);
+            long skip = Math.max(0, from - position);
+            long take = Math.min(size, to - position);
+            if (skip < take) {
+                builder.add(start(i) + skip, start(i) + take);
+            }
+            position += size;
+        }
+        return builder.build();
+    }
+
+    /**
+     * Copies every range with {@link FileChannel#transferTo}, which loops until each range is sent.
+     */
+    public void transferTo(FileChannel channel, WritableByteChannel target) throws IOException {
+        for (int i = 0; i < count(); i++) {
+            long position = start(i);
+            long end = end(i);
+            while (position < end) {
+                long n = channel.transferTo(position, end - position, target);
+                if (n <= 0) {
+                    throw new IOException("Fayl gözlənilmədən qısaldı");
+                }
+                position += n;
+            }
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof ByteRanges other && Arrays.equals(bounds, other.bounds);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(bounds);
+    }
+
+    /**
+     * Collects ranges in file order; a range touching or overlapping the previous one extends it.
+     */
+    public static final class Builder {
+        private long[] bounds = new long[16];
+        private int used;
+        private long length;
+
+        public Builder add(long start, long end) {
+            if (end <= start) return this;
+            if (used > 0 && start <= bounds[used - 1]) {
+                if (end > bounds[used - 1]) {
+                    length += end - bounds[used - 1];
+                    bounds[used - 1] = end;
+                }
+                return this;
+            }
+            if (used == bounds.length) {
+                bounds = Arrays.copyOf(bounds, used * 2);
+            }
+            bounds[used++] = start;
+            bounds[used++] = end;
+            length += end - start;
+            return this;
+        }
+
+        public ByteRanges build() {
+            return used == 0 ? EMPTY : new ByteRanges(Arrays.copyOf(bounds, used), length);
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package stream.api.adapter.log.engine;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Context of a page of matches read straight from the file: every entry on a matched thread within
+ * ±60s of one of that thread's matches, in file order. Reading starts at the first entry of the window
+ * (found by reading backwards from the first match) and stops once the last window has closed.
+ * <p>
+ * {@link #ranges} finds the byte ranges of the same entries instead of emitting them.
+ * <p>
+ * {@link #streamNewestFirst} emits the same entries last to first, each entry still with its own lines in order.
+ */
+public class ContextWindow implements LineVisitor {
+
+    public static final long WINDOW_MILLIS = 60_000L;
+
+    private final LineSink sink;
+    private final LogHeader header = new LogHeader();
+    private final Map<Integer, long[]> matchTimes = new HashMap<>();
+    private final long[] threadlessOffsets;
+    private final long firstOffset;
+    private final long startMillis;
+    private final long endMillis;
+
+    private boolean emitting;
+
+    /**
+     * For {@link #ranges} only.
+     */
+    public ContextWindow(MatchList page) {
+        this(page, null);
+    }
+
+    public ContextWindow(MatchList page, LineSink sink) {
+        this.sink = sink;
+        this.firstOffset = page.size() > 0 ? page.offset(0) : 0;
+
+        Map<Integer, long[]> times = new HashMap<>();
+        long[] threadless = new long[page.size()];
+        int threadlessCount = 0;
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < page.size(); i++) {
+            min = Math.min(min, page.millis(i));
+            max = Math.max(max, page.millis(i));
+            if (page.thread(i) == LogHeaders.NO_THREAD) {
+                // thread-i olmayan uyğunluq üçün yalnız onun öz sətri göstərilir
+                threadless[threadlessCount++] = page.offset(i);
+                continue;
+            }
+            long[] list = times.get(page.thread(i));
+            list = list == null ? new long[1] : Arrays.copyOf(list, list.length + 1);
+            list[list.length - 1] = page.millis(i);
+            times.put(page.thread(i), list);
+        }
+        times.forEach((thread, list) -> {
+            Arrays.sort(list);
+            matchTimes.put(thread, list);
+        });
+        this.threadlessOffsets = Arrays.copyOf(threadless, threadlessCount);
+        this.startMillis = min - WINDOW_MILLIS;
+        this.endMillis = max + WINDOW_MILLIS;
+    }
+
+    public void stream(FileChannel channel, QueryContext query) throws IOException {
+        if (matchTimes.isEmpty() && threadlessOffsets.length == 0) return;
+        LineReader.read(channel, startOffset(channel, query), channel.size(), true, 1 << 20, query, this);
+    }
+
+    /**
+     * Byte ranges of the entries {@link #stream} would emit, up to the last complete line; an entry runs
+     * from its header line to the next header line.
+     */
+    public ByteRanges ranges(FileChannel channel, QueryContext query) throws IOException {
+        if (matchTimes.isEmpty() && threadlessOffsets.length == 0) return ByteRanges.EMPTY;
+
+        long end = ReverseLineReader.completeEnd(channel, channel.size());
+        ByteRanges.Builder ranges = new ByteRanges.Builder();
+        LogHeader entry = new LogHeader();
+        // açıq aralığın başlanğıcı, -1 aralıq yoxdur; sonuncu element oxumanın dayandığı yer
+        long[] state = {-1, end};
+        long from = startOffset(channel, query);
+        LineReader.read(channel, from, end, false, 1 << 20, query, (offset, buf, start, length) -> {
+            if (!LogHeaders.parse(buf, start, length, entry)) return true;
+            boolean inside = entry.getMillis() <= endMillis && (inWindow(entry.getThread(), entry.getMillis())
+                    || Arrays.binarySearch(threadlessOffsets, offset) >= 0);
+            if (inside && state[0] < 0) {
+                state[0] = offset;
+            } else if (!inside && state[0] >= 0) {
+                ranges.add(state[0], offset);
+                state[0] = -1;
+            }
+            if (entry.getMillis() > endMillis) {
+                state[1] = offset;
+                return false;
+            }
+            return true;
+        });
+        if (state[0] >= 0) {
+            ranges.add(state[0], state[1]);
+        }
+        return ranges.build();
+    }
+
+    /**
+     * Reads backwards from the end of the last window; the continuation lines of an entry are held until
+     * its header line tells whether the entry belongs to a window.
+     */
+    public void streamNewestFirst(FileChannel channel, QueryContext query) throws IOException {
+        if (matchTimes.isEmpty() && threadlessOffsets.length == 0) return;
+
+        long size = channel.size();
+        long complete = ReverseLineReader.completeEnd(channel, size);
+        long end = TimeSeek.offsetOf(channel, endMillis + 1, complete, query);
+        Entry entry = new Entry();
+        ReverseLineReader.read(channel, 0, end == complete ? size : end, query, (offset, buf, start, length) -> {
+            if (!LogHeaders.parse(buf, start, length, header)) {
+                entry.add(buf, start, length);
+                return true;
+            }
+            if (header.getMillis() < startMillis) return false;
+            if (header.getMillis() <= endMillis && (inWindow(header.getThread(), header.getMillis())
+                    || Arrays.binarySearch(threadlessOffsets, offset) >= 0)) {
+                sink.line(buf, start, length);
+                entry.emit(sink);
+            }
+            entry.clear();
+            return true;
+        });
+    }
+
+    @Override
+    public boolean visit(long offset, byte[] buf, int start, int length) {
+        // timestamp-ı olmayan sətirlər (stack trace və s.) əvvəlki sətrin thread/vaxtına aiddir
+        if (LogHeaders.parse(buf, start, length, header)) {
+            if (header.getMillis() > endMillis) return false;
+            emitting = inWindow(header.getThread(), header.getMillis())
+                    || Arrays.binarySearch(threadlessOffsets, offset) >= 0;
+        }
+        if (emitting) {
+            sink.line(buf, start, length);
+        }
+        return true;
+    }
+
+    private long startOffset(FileChannel channel, QueryContext query) throws IOException {
+        LogHeader before = new LogHeader();
+        long[] start = {firstOffset};
+        ReverseLineReader.read(channel, 0, firstOffset, query, (offset, buf, s, length) -> {
+            if (!LogHeaders.parse(buf, s, length, before)) return true;
+            if (before.getMillis() < startMillis) return false;
+            start[0] = offset;
+            return true;
+        });
+        return start[0];
+    }
+
+    private boolean inWindow(int thread, long millis) {
+        long[] times = matchTimes.get(thread);
+        if (times == null) return false;
+
+        int i = Arrays.binarySearch(times, millis);
+        if (i >= 0) return true;
+        int next = -i - 1;
+        return (next < times.length && times[next] - millis <= WINDOW_MILLIS)
+                || (next > 0 && millis - times[next - 1] <= WINDOW_MILLIS);
+    }
+
+    /**
+     * Continuation lines of one entry, collected last to first.
+     */
+    private static final class Entry {
+        private byte[] bytes = new byte[4096];
+        private int[] ends = new int[16];
+        private int used;
+        private int lines;
+
+        void add(byte[] buf, int start, int length) {
+            if (used + length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(used + length, bytes.length * 2));
+            }
+            if (lines == ends.length) {
+                ends = Arrays.copyOf(ends, lines * 2);
+            }
+            System.arraycopy(buf, start, bytes, used, length);
+            used += length;
+            ends[lines++] = used;
+        }
+
+        void emit(LineSink sink) {
+            for (int i = lines - 1; i >= 0; i--) {
+                int start = i == 0 ? 0 : ends[i - 1];
+                sink.line(bytes, start, ends[i] - start);
+            }
+        }
+
+        void clear() {
+            used = 0;
+            lines = 0;
+        }
+    }
+}
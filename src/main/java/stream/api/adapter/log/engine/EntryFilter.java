@@ -0,0 +1,34 @@
+package stream.api.adapter.log.engine;
+
+/**
+ * Structured filter on entry headers: time range, thread id ({@link LogHeaders#NO_THREAD} for any) and
+ * level such as "ERR" ({@code null} for any).
+ */
+public record EntryFilter(TimeRange range, int thread, String level) {
+
+    public static EntryFilter of(TimeRange range, String thread, String level) {
+        return new EntryFilter(range, parseThread(thread), level == null || level.isBlank() ? null : level.trim());
+    }
+
+    public boolean hasThread() {
+        return thread != LogHeaders.NO_THREAD;
+    }
+
+    public boolean matches(long millis, int thread, String level) {
+        return millis >= range.from() && millis <= range.to()
+                && (!hasThread() || this.thread == thread)
+                && (this.level == null || this.level.equals(level));
+    }
+
+    /**
+     * Thread given as "T012" or "012", leading zeros included.
+     */
+    private static int parseThread(String thread) {
+        if (thread == null || thread.isBlank()) return LogHeaders.NO_THREAD;
+        String id = thread.trim();
+        if (id.startsWith("T")) id = id.substring(1);
+        int key = LogHeaders.threadId(id);
+        if (key == LogHeaders.NO_THREAD) throw new RuntimeException("Thread yanlışdır: " + thread);
+        return key;
+    }
+}
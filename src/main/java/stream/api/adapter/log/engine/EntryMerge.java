@@ -0,0 +1,216 @@
+package stream.api.adapter.log.engine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Merges the line streams of several sources into one, entry by entry in time order, every line prefixed
+ * with its source name. Each source is read on its own thread into a queue of at most {@code capacity}
+ * entries, so a fast source waits for the merge instead of piling up in memory, and a source that sends
+ * nothing for {@code idleMillis} is dropped instead of holding up the others.
+ */
+public final class EntryMerge {
+
+    private static final long POLL_MILLIS = 100;
+
+    /**
+     * Writes the lines of one source; runs on its own thread.
+     */
+    @FunctionalInterface
+    public interface Body {
+        void stream(LineSink sink) throws Exception;
+    }
+
+    /**
+     * @param closer unblocks a {@code body} stuck in I/O when the merge stops early; may be {@code null}
+     */
+    public record Source(String name, Body body, Closeable closer) {
+    }
+
+    private EntryMerge() {
+    }
+
+    /**
+     * @return names of the sources that failed or went idle; their lines up to then are in the output,
+     * followed by a line saying where they stopped
+     */
+    public static List<String> merge(List<Source> sources, ExecutorService executor, int capacity,
+                                     long idleMillis, boolean newestFirst, QueryContext query, LineSink out) {
+        List<Feed> feeds = new ArrayList<>();
+        for (Source source : sources) {
+            Feed feed = new Feed(source, capacity, newestFirst, out);
+            feeds.add(feed);
+            feed.task = executor.submit(feed::run);
+        }
+
+        Comparator<Feed> byTime = Comparator.comparingLong(feed -> feed.head.millis);
+        PriorityQueue<Feed> heads = new PriorityQueue<>(newestFirst ? byTime.reversed() : byTime);
+        List<String> failed = new ArrayList<>();
+        try {
+            for (Feed feed : feeds) {
+                advance(feed, heads, failed, idleMillis, query, out);
+            }
+            while (!heads.isEmpty()) {
+                Feed feed = heads.poll();
+                for (byte[] line : feed.head.lines) {
+                    feed.prefixed.line(line, 0, line.length);
+                }
+                advance(feed, heads, failed, idleMillis, query, out);
+            }
+        } finally {
+            for (Feed feed : feeds) {
+                feed.stop();
+            }
+        }
+        return failed;
+    }
+
+    /**
+     * Takes the next entry of {@code feed} and puts the feed back among the heads, unless it ended.
+     */
+    private static void advance(Feed feed, PriorityQueue<Feed> heads, List<String> failed, long idleMillis,
+                                QueryContext query, LineSink out) {
+        Entry next = feed.next(idleMillis, query);
+        if (next != Entry.END) {
+            feed.head = next;
+            heads.add(feed);
+            return;
+        }
+        if (feed.failure != null) {
+            failed.add(feed.source.name());
+            byte[] note = ("[" + feed.source.name() + "] Axın yarımçıq qaldı: " + feed.failure)
+                    .getBytes(StandardCharsets.UTF_8);
+            out.line(note, 0, note.length);
+        }
+    }
+
+    /**
+     * Lines of one entry: the header line and its continuation lines.
+     */
+    private record Entry(long millis, byte[][] lines) {
+        static final Entry END = new Entry(0, new byte[0][]);
+    }
+
+    private static final class Feed {
+        private final Source source;
+        private final BlockingQueue<Entry> queue;
+        private final LineSink prefixed;
+        private final LogHeader header = new LogHeader();
+        private Future<?> task;
+        private Entry head;
+        private volatile String failure;
+        private volatile boolean ended;
+
+        // yığılan entry, yalnız oxuyan thread istifadə edir
+        private long millis;
+        private final List<byte[]> lines = new ArrayList<>();
+
+        Feed(Source source, int capacity, boolean newestFirst, LineSink out) {
+            this.source = source;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            // header-siz başlayan sətirlər dərhal göndərilir
+            this.millis = newestFirst ? Long.MAX_VALUE : Long.MIN_VALUE;
+            this.prefixed = prefixed(source.name(), out);
+        }
+
+        void run() {
+            try {
+                source.body().stream(this::line);
+                flush();
+            } catch (Exception e) {
+                if (!ended) {
+                    failure = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+                }
+            } finally {
+                // merge dayandırılıbsa END gözlənilmir
+                if (!ended && !queue.offer(Entry.END)) {
+                    try {
+                        queue.put(Entry.END);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        }
+
+        private void line(byte[] buf, int start, int length) {
+            if (LogHeaders.parse(buf, start, length, header)) {
+                flush();
+                millis = header.getMillis();
+            }
+            lines.add(Arrays.copyOfRange(buf, start, start + length));
+        }
+
+        private void flush() {
+            if (lines.isEmpty()) return;
+            Entry entry = new Entry(millis, lines.toArray(byte[][]::new));
+            lines.clear();
+            try {
+                queue.put(entry);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new QueryCancelledException("Sorğu ləğv edildi");
+            }
+        }
+
+        /**
+         * The next entry, or {@link Entry#END} when the source ended, failed or stayed silent too long.
+         */
+        Entry next(long idleMillis, QueryContext query) {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(idleMillis);
+            try {
+                while (true) {
+                    query.check();
+                    Entry entry = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                    if (entry != null) return entry;
+                    if (System.nanoTime() - deadline > 0) {
+                        failure = "cavab " + idleMillis + " ms gəlmədi";
+                        stop();
+                        return Entry.END;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new QueryCancelledException("Sorğu ləğv edildi");
+            }
+        }
+
+        void stop() {
+            if (ended) return;
+            ended = true;
+            task.cancel(true);
+            if (source.closer() != null) {
+                try {
+                    source.closer().close();
+                } catch (IOException e) {
+                    // bağlanmayan mənbə onsuz da dayandırılıb
+                }
+            }
+        }
+
+        private static LineSink prefixed(String name, LineSink out) {
+            byte[] prefix = ("[" + name + "] ").getBytes(StandardCharsets.UTF_8);
+            byte[][] scratch = {new byte[1024]};
+            return (buf, start, length) -> {
+                int needed = prefix.length + length;
+                if (scratch[0].length < needed) {
+                    scratch[0] = new byte[Math.max(needed, scratch[0].length * 2)];
+                }
+                System.arraycopy(prefix, 0, scratch[0], 0, prefix.length);
+                System.arraycopy(buf, start, scratch[0], prefix.length, length);
+                out.line(scratch[0], 0, needed);
+            };
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package stream.api.adapter.log.engine;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+
+/**
+ * Emits log entries (a header line plus its continuation lines) that start at the given offsets.
+ * Close offsets are read sequentially, distant ones are reached with a seek.
+ */
+public final class EntryReader implements LineVisitor {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long SEEK_GAP = 256 * 1024;
+
+    private final long[] offsets;
+    private final LineSink sink;
+    private int next;
+    private boolean inEntry;
+
+    private EntryReader(long[] offsets, LineSink sink) {
+        this.offsets = offsets;
+        this.sink = sink;
+    }
+
+    /**
+     * @param offsets sorted, distinct header line offsets
+     */
+    public static void read(FileChannel channel, long[] offsets, QueryContext query,
+                            LineSink sink) throws IOException {
+        EntryReader reader = new EntryReader(offsets, sink);
+        long size = channel.size();
+        while (reader.next < offsets.length) {
+            int before = reader.next;
+            reader.inEntry = false;
+            LineReader.read(channel, offsets[reader.next], size, true, BUFFER_SIZE, query, reader);
+            if (reader.next == before) {
+                reader.next++;
+            }
+        }
+    }
+
+    @Override
+    public boolean visit(long offset, byte[] buf, int start, int length) {
+        while (next < offsets.length && offsets[next] < offset) {
+            // indeks faylla uyğun gəlmir, həmin offset-i atlayırıq
+            next++;
+        }
+        if (next < offsets.length && offsets[next] == offset) {
+            next++;
+            inEntry = true;
+            sink.line(buf, start, length);
+            return true;
+        }
+        if (LogHeaders.isHeader(buf, start, length)) {
+            inEntry = false;
+            return next < offsets.length && offsets[next] - offset <= SEEK_GAP;
+        }
+        if (inEntry) {
+            sink.line(buf, start, length);
+        }
+        return true;
+    }
+}
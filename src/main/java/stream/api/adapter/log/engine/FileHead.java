@@ -0,0 +1,32 @@
+package stream.api.adapter.log.engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+
+/**
+ * CRC32 of the first bytes of a file. A rotated or rewritten file that has already grown past the
+ * indexed size keeps neither its size nor its head, so indexes compare the head before appending.
+ */
+public final class FileHead {
+
+    public static final int BYTES = 4096;
+
+    private FileHead() {
+    }
+
+    /**
+     * Hash of the first {@code min(BYTES, length)} bytes; an index passes the length it has read, so the
+     * hash of a small file does not change as the file grows.
+     */
+    public static long hash(FileChannel channel, long length) throws IOException {
+        ByteBuffer head = ByteBuffer.allocate((int) Math.min(BYTES, Math.min(length, channel.size())));
+        while (head.hasRemaining() && channel.read(head, head.position()) > 0) {
+            // baş hissəni tam oxuyuruq
+        }
+        CRC32 crc = new CRC32();
+        crc.update(head.flip());
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,262 @@
+package stream.api.adapter.log.engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Follows one file from its current end and fans every new line out to all subscribers.
+ * Wakes up on directory watch events and also polls with a backoff between 50ms and 1s,
+ * since watch events are not reliable on every file system.
+ * <p>
+ * The prefilter literals of all subscribers share one {@link MultiPattern}, so each line is scanned once
+ * whatever the number of subscribers, and only the subscribers whose literals it hits see it. The routing
+ * is rebuilt copy-on-write when a subscriber joins or leaves.
+ */
+public class FileTailer implements Runnable {
+
+    private static final long MIN_WAIT_MILLIS = 50;
+    private static final long MAX_WAIT_MILLIS = 1000;
+
+    private final Path path;
+    private final Consumer<FileTailer> onEmpty;
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final List<Subscription> routed = new ArrayList<>();
+
+    private volatile Routing routing = Routing.of(List.of());
+    private volatile boolean running = true;
+    private long position;
+    private Object fileKey;
+    private long lineNumber;
+
+    public FileTailer(Path path, Consumer<FileTailer> onEmpty) throws IOException {
+        this.path = path;
+        this.onEmpty = onEmpty;
+        this.position = Files.size(path);
+        this.fileKey = fileKey();
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * @param filter {@code null} to receive every line
+     */
+    public Subscription subscribe(LineFilter filter, TailListener listener) {
+        Subscription subscription = new Subscription(filter, listener);
+        subscriptions.add(subscription);
+        reroute();
+        return subscription;
+    }
+
+    public void unsubscribe(Subscription subscription) {
+        if (subscriptions.remove(subscription)) {
+            reroute();
+        }
+    }
+
+    private synchronized void reroute() {
+        routing = Routing.of(List.copyOf(subscriptions));
+    }
+
+    public boolean isEmpty() {
+        return subscriptions.isEmpty();
+    }
+
+    public int size() {
+        return subscriptions.size();
+    }
+
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public void run() {
+        try (WatchService watcher = openWatcher()) {
+            long wait = MIN_WAIT_MILLIS;
+            while (running) {
+                boolean read = readAppended();
+                wait = read ? MIN_WAIT_MILLIS : Math.min(wait * 2, MAX_WAIT_MILLIS);
+                if (!read) {
+                    await(watcher, wait);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            // tailer dayanır, abunəçilər bağlanır
+            subscriptions.forEach(s -> s.listener.onClose(e));
+            subscriptions.clear();
+            onEmpty.accept(this);
+        }
+    }
+
+    private boolean readAppended() throws IOException {
+        Object key;
+        try {
+            key = fileKey();
+        } catch (NoSuchFileException e) {
+            // rotasiya zamanı fayl qısa müddət mövcud olmaya bilər
+            return false;
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (!Objects.equals(key, fileKey) || size < position) {
+                // fayl dəyişdirilib və ya kəsilib, yenisini əvvəldən oxuyuruq
+                fileKey = key;
+                position = 0;
+            }
+            if (size == position) return false;
+
+            position = LineReader.read(channel, position, size, false, this::dispatch);
+            return true;
+        }
+    }
+
+    boolean dispatch(long offset, byte[] buf, int start, int length) {
+        routing.route(buf, start, length, ++lineNumber, routed);
+        boolean removed = false;
+        for (Subscription subscription : routed) {
+            if (!subscription.accepts(buf, start, length)) continue;
+            try {
+                subscription.listener.onLine(buf, start, length);
+            } catch (Exception e) {
+                subscriptions.remove(subscription);
+                subscription.listener.onClose(e);
+                removed = true;
+            }
+        }
+        routed.clear();
+        if (removed) {
+            reroute();
+            if (subscriptions.isEmpty()) onEmpty.accept(this);
+        }
+        return true;
+    }
+
+    private Object fileKey() throws IOException {
+        BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+        // Windows-da fileKey null olur, yaradılma vaxtı ilə əvəz edirik
+        return attrs.fileKey() != null ? attrs.fileKey() : attrs.creationTime();
+    }
+
+    private WatchService openWatcher() {
+        try {
+            WatchService watcher = path.getFileSystem().newWatchService();
+            path.toAbsolutePath().getParent().register(watcher,
+                    StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            return watcher;
+        } catch (IOException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+
+    private static void await(WatchService watcher, long millis) throws InterruptedException {
+        if (watcher == null) {
+            Thread.sleep(millis);
+            return;
+        }
+        WatchKey key = watcher.poll(millis, TimeUnit.MILLISECONDS);
+        if (key != null) {
+            key.pollEvents();
+            key.reset();
+        }
+    }
+
+    public static final class Subscription {
+        private final LineFilter filter;
+        private final TailListener listener;
+        // yalnız tailer thread-i dəyişir: bu sətrə artıq yönləndirilibsə təkrar əlavə olunmur
+        private long routedLine;
+
+        private Subscription(LineFilter filter, TailListener listener) {
+            this.filter = filter;
+            this.listener = listener;
+        }
+
+        public LineFilter getFilter() {
+            return filter;
+        }
+
+        /**
+         * Final check of a routed line; a literal filter was already decided by the automaton.
+         */
+        boolean accepts(byte[] buf, int start, int length) {
+            return filter == null || filter.isLiteral() || filter.matches(buf, start, length);
+        }
+    }
+
+    /**
+     * Snapshot of the subscribers: one automaton over the prefilter literals of all of them, the subscribers
+     * behind each literal, and those without a prefilter that see every line.
+     */
+    private static final class Routing {
+        private final MultiPattern pattern;
+        private final Subscription[][] byLiteral;
+        private final Subscription[] everyLine;
+
+        private Routing(MultiPattern pattern, Subscription[][] byLiteral, Subscription[] everyLine) {
+            this.pattern = pattern;
+            this.byLiteral = byLiteral;
+            this.everyLine = everyLine;
+        }
+
+        static Routing of(List<Subscription> subscriptions) {
+            Map<ByteBuffer, List<Subscription>> byLiteral = new LinkedHashMap<>();
+            List<Subscription> everyLine = new ArrayList<>();
+            for (Subscription subscription : subscriptions) {
+                BytePattern[] prefilter = subscription.filter == null ? null : subscription.filter.prefilter();
+                if (prefilter == null) {
+                    everyLine.add(subscription);
+                    continue;
+                }
+                for (BytePattern literal : prefilter) {
+                    byLiteral.computeIfAbsent(ByteBuffer.wrap(literal.bytes()), k -> new ArrayList<>()).add(subscription);
+                }
+            }
+
+            List<byte[]> literals = new ArrayList<>();
+            Subscription[][] routes = new Subscription[byLiteral.size()][];
+            for (Map.Entry<ByteBuffer, List<Subscription>> e : byLiteral.entrySet()) {
+                routes[literals.size()] = e.getValue().toArray(new Subscription[0]);
+                literals.add(e.getKey().array());
+            }
+            return new Routing(new MultiPattern(literals), routes, everyLine.toArray(new Subscription[0]));
+        }
+
+        /**
+         * Adds every subscriber the line may be for to {@code target}, each once.
+         */
+        void route(byte[] buf, int start, int length, long lineNumber, List<Subscription> target) {
+            Collections.addAll(target, everyLine);
+            if (byLiteral.length == 0) return;
+            pattern.match(buf, start, length, id -> {
+                for (Subscription subscription : byLiteral[id]) {
+                    if (subscription.routedLine == lineNumber) continue;
+                    subscription.routedLine = lineNumber;
+                    target.add(subscription);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package stream.api.adapter.log.engine;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Checkpoints of a gzip archive: every {@code interval} bytes of output (at the next deflate block
+ * boundary) and at every gzip member start, the compressed bit offset and the preceding 32KB of
+ * output. Decompression can resume at any checkpoint instead of at byte 0.
+ */
+public class GzipIndex {
+
+    private static final int MAGIC = 0x475A4958;
+    private static final int VERSION = 1;
+
+    private final long archiveSize;
+    private final long archiveModified;
+    private final long interval;
+    private final long size;
+    private final long[] outs;
+    private final long[] bitOffsets;
+    private final boolean[] members;
+    // pəncərələr yaddaşda da sıxılmış saxlanılır
+    private final byte[][] windows;
+
+    private GzipIndex(long archiveSize, long archiveModified, long interval, long size, long[] outs,
+                      long[] bitOffsets, boolean[] members, byte[][] windows) {
+        this.archiveSize = archiveSize;
+        this.archiveModified = archiveModified;
+        this.interval = interval;
+        this.size = size;
+        this.outs = outs;
+        this.bitOffsets = bitOffsets;
+        this.members = members;
+        this.windows = windows;
+    }
+
+    /**
+     * Inflates the whole archive once and records its checkpoints.
+     */
+    public static GzipIndex build(FileChannel archive, long archiveModified, long interval,
+                                  QueryContext query) throws IOException {
+        List<long[]> points = new ArrayList<>();
+        List<byte[]> windows = new ArrayList<>();
+        BitInflater inflater = new BitInflater(archive, query);
+        long size = inflater.run((out, bitOffset, member) -> {
+            long last = points.isEmpty() ? Long.MIN_VALUE : points.get(points.size() - 1)[0];
+            if (!member && out - last < interval) return;
+            points.add(new long[]{out, bitOffset, member ? 1 : 0});
+            windows.add(member ? new byte[0] : deflate(inflater.window()));
+        });
+
+        long[] outs = new long[points.size()];
+        long[] bitOffsets = new long[points.size()];
+        boolean[] members = new boolean[points.size()];
+        for (int i = 0; i < points.size(); i++) {
+            outs[i] = points.get(i)[0];
+            bitOffsets[i] = points.get(i)[1];
+            members[i] = points.get(i)[2] == 1;
+        }
+        return new GzipIndex(archive.size(), archiveModified, interval, size, outs, bitOffsets, members,
+                windows.toArray(new byte[0][]));
+    }
+
+    /**
+     * @return the saved index, or {@code null} when it is missing, unreadable or made for another archive
+     */
+    public static GzipIndex load(Path sidecar, long archiveSize, long archiveModified, long interval) {
+        if (!Files.exists(sidecar)) return null;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(sidecar)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) return null;
+            if (in.readLong() != archiveSize || in.readLong() != archiveModified || in.readLong() != interval) {
+                return null;
+            }
+            long size = in.readLong();
+            int count = in.readInt();
+            long[] outs = new long[count];
+            long[] bitOffsets = new long[count];
+            boolean[] members = new boolean[count];
+            byte[][] windows = new byte[count][];
+            for (int i = 0; i < count; i++) {
+                outs[i] = in.readLong();
+                bitOffsets[i] = in.readLong();
+                members[i] = in.readBoolean();
+                windows[i] = new byte[in.readInt()];
+                in.readFully(windows[i]);
+            }
+            return new GzipIndex(archiveSize, archiveModified, interval, size, outs, bitOffsets, members, windows);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    public void save(Path sidecar) throws IOException {
+        Path tmp = sidecar.resolveSibling(sidecar.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(archiveSize);
+            out.writeLong(archiveModified);
+            out.writeLong(interval);
+            out.writeLong(size);
+            out.writeInt(outs.length);
+            for (int i = 0; i < outs.length; i++) {
+                out.writeLong(outs[i]);
+                out.writeLong(bitOffsets[i]);
+                out.writeBoolean(members[i]);
+                out.writeInt(windows[i].length);
+                out.write(windows[i]);
+            }
+        }
+        Files.move(tmp, sidecar, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public boolean matches(long archiveSize, long archiveModified) {
+        return this.archiveSize == archiveSize && this.archiveModified == archiveModified;
+    }
+
+    /**
+     * Uncompressed size of the archive.
+     */
+    public long size() {
+        return size;
+    }
+
+    public long interval() {
+        return interval;
+    }
+
+    public int checkpoints() {
+        return outs.length;
+    }
+
+    /**
+     * Last checkpoint at or before uncompressed {@code position}.
+     */
+    int floor(long position) {
+        int i = Arrays.binarySearch(outs, position);
+        if (i < 0) return Math.max(0, -i - 2);
+        while (i + 1 < outs.length && outs[i + 1] == position) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * First gzip member start after checkpoint {@code i}, or -1.
+     */
+    int nextMember(int i) {
+        for (int j = i + 1; j < members.length; j++) {
+            if (members[j]) return j;
+        }
+        return -1;
+    }
+
+    long out(int i) {
+        return outs[i];
+    }
+
+    long bitOffset(int i) {
+        return bitOffsets[i];
+    }
+
+    byte[] window(int i) throws ZipException {
+        if (windows[i].length == 0) return windows[i];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(windows[i]);
+            byte[] window = new byte[BitInflater.WINDOW_SIZE];
+            int length = 0;
+            while (!inflater.finished() && length < window.length) {
+                int n = inflater.inflate(window, length, window.length - length);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+                length += n;
+            }
+            return Arrays.copyOf(window, length);
+        } catch (DataFormatException e) {
+            throw new ZipException(e.getMessage());
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static byte[] deflate(byte[] window) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(window);
+            deflater.finish();
+            byte[] buf = new byte[window.length + 64];
+            int length = 0;
+            while (!deflater.finished()) {
+                if (length == buf.length) buf = Arrays.copyOf(buf, buf.length * 2);
+                length += deflater.deflate(buf, length, buf.length - length);
+            }
+            return Arrays.copyOf(buf, length);
+        } finally {
+            deflater.end();
+        }
+    }
+}
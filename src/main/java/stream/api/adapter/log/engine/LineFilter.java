@@ -0,0 +1,353 @@
+package stream.api.adapter.log.engine;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Compiled line query: a plain literal, or a boolean expression such as
+ * {@code ERR AND (Pay OR GetBillList) AND NOT timeout} whose terms are words, "quoted literals" or
+ * /regexes/ (with an optional {@code i} flag). Adjacent terms are ANDed; NOT binds tighter than AND,
+ * AND tighter than OR. Every term is matched against a single line.
+ * <p>
+ * The planner reduces the expression to clauses of literals every matching line must contain. The clause
+ * whose shortest literal is longest becomes the prefilter: scanners run the byte search for its literals and
+ * only evaluate the full expression, regexes compiled once here, on the lines they hit.
+ */
+public final class LineFilter {
+
+    private static final int MAX_PREFILTER = 4;
+
+    private final String source;
+    private final boolean literal;
+    private final Node root;
+    private final List<List<byte[]>> clauses;
+    private final BytePattern[] prefilter;
+
+    private LineFilter(String source, boolean literal, Node root, List<List<String>> clauses) {
+        this.source = source;
+        this.literal = literal;
+        this.root = root;
+        this.clauses = clauses.stream()
+                .map(clause -> clause.stream().map(s -> s.getBytes(StandardCharsets.UTF_8)).toList())
+                .toList();
+
+        List<String> best = null;
+        for (List<String> clause : clauses) {
+            if (clause.size() > MAX_PREFILTER) continue;
+            if (best == null || shortest(clause) > shortest(best)
+                    || (shortest(clause) == shortest(best) && clause.size() < best.size())) {
+                best = clause;
+            }
+        }
+        this.prefilter = best == null ? null : best.stream().map(BytePattern::new).toArray(BytePattern[]::new);
+    }
+
+    private static int shortest(List<String> clause) {
+        return clause.stream().mapToInt(String::length).min().orElse(0);
+    }
+
+    /**
+     * Lines containing {@code data}.
+     */
+    public static LineFilter literal(String data) {
+        return new LineFilter(data, true, new Literal(new BytePattern(data)), List.of(List.of(data)));
+    }
+
+    /**
+     * Filter of a request: the boolean/regex {@code query} when it is given, otherwise the literal {@code data}.
+     */
+    public static LineFilter of(String data, String query) {
+        if (query != null && !query.isBlank()) return parse(query);
+        if (data == null || data.length() < 3) {
+            throw new RuntimeException("Axtardığınız datanın uzunluğu 4 simvoldan böyük olmalıdır");
+        }
+        return literal(data);
+    }
+
+    public static LineFilter parse(String query) {
+        Parser parser = new Parser(query);
+        Node root = parser.parse();
+        return new LineFilter(query.trim(), false, root, root.required());
+    }
+
+    public String source() {
+        return source;
+    }
+
+    public boolean isLiteral() {
+        return literal;
+    }
+
+    /**
+     * Literals every matching line contains at least one of, or {@code null} when every line has to be evaluated.
+     */
+    public BytePattern[] prefilter() {
+        return prefilter;
+    }
+
+    /**
+     * Every matching line contains at least one literal of each clause.
+     */
+    public List<List<byte[]>> clauses() {
+        return clauses;
+    }
+
+    public boolean matches(byte[] buf, int start, int length) {
+        if (prefilter != null && !containsAny(buf, start, length)) return false;
+        return literal || root.matches(new Line(buf, start, length));
+    }
+
+    private boolean containsAny(byte[] buf, int start, int length) {
+        for (BytePattern pattern : prefilter) {
+            if (pattern.indexOf(buf, start, start + length) >= 0) return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof LineFilter other && literal == other.literal && source.equals(other.source);
+    }
+
+    @Override
+    public int hashCode() {
+        return source.hashCode() * 31 + (literal ? 1 : 0);
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+
+    /**
+     * A candidate line; decoded to a string only when a regex asks for it.
+     */
+    private static final class Line {
+        private final byte[] buf;
+        private final int start;
+        private final int length;
+        private String text;
+
+        Line(byte[] buf, int start, int length) {
+            this.buf = buf;
+            this.start = start;
+            this.length = length;
+        }
+
+        String text() {
+            if (text == null) text = new String(buf, start, length, StandardCharsets.UTF_8);
+            return text;
+        }
+    }
+
+    private interface Node {
+        boolean matches(Line line);
+
+        List<List<String>> required();
+    }
+
+    private record Literal(BytePattern pattern) implements Node {
+        public boolean matches(Line line) {
+            return pattern.indexOf(line.buf, line.start, line.start + line.length) >= 0;
+        }
+
+        public List<List<String>> required() {
+            return List.of(List.of(new String(pattern.bytes(), StandardCharsets.UTF_8)));
+        }
+    }
+
+    private record Regex(Pattern pattern) implements Node {
+        public boolean matches(Line line) {
+            return pattern.matcher(line.text()).find();
+        }
+
+        public List<List<String>> required() {
+            if ((pattern.flags() & Pattern.CASE_INSENSITIVE) != 0) return List.of();
+            return RegexLiterals.required(pattern.pattern());
+        }
+    }
+
+    private record And(List<Node> nodes) implements Node {
+        public boolean matches(Line line) {
+            for (Node node : nodes) {
+                if (!node.matches(line)) return false;
+            }
+            return true;
+        }
+
+        public List<List<String>> required() {
+            List<List<String>> clauses = new ArrayList<>();
+            nodes.forEach(node -> clauses.addAll(node.required()));
+            return clauses;
+        }
+    }
+
+    private record Or(List<Node> nodes) implements Node {
+        public boolean matches(Line line) {
+            for (Node node : nodes) {
+                if (node.matches(line)) return true;
+            }
+            return false;
+        }
+
+        public List<List<String>> required() {
+            // hər alternativin ən dar şərtini birləşdiririk; biri heç nə tələb etmirsə, OR da etmir
+            List<String> clause = new ArrayList<>();
+            for (Node node : nodes) {
+                List<String> narrowest = null;
+                for (List<String> c : node.required()) {
+                    if (narrowest == null || c.size() < narrowest.size()) narrowest = c;
+                }
+                if (narrowest == null) return List.of();
+                clause.addAll(narrowest);
+            }
+            return List.of(clause);
+        }
+    }
+
+    private record Not(Node node) implements Node {
+        public boolean matches(Line line) {
+            return !node.matches(line);
+        }
+
+        public List<List<String>> required() {
+            return List.of();
+        }
+    }
+
+    /**
+     * Recursive descent over: or := and (OR and)*, and := unary ([AND] unary)*, unary := NOT unary | ( or ) | term.
+     */
+    private static final class Parser {
+        private final String query;
+        private int pos;
+
+        Parser(String query) {
+            this.query = query;
+        }
+
+        Node parse() {
+            if (query.isBlank()) throw error("sorğu boşdur");
+            Node node = or();
+            skipSpaces();
+            if (pos < query.length()) throw error("gözlənilməz '" + query.charAt(pos) + "'");
+            return node;
+        }
+
+        private Node or() {
+            List<Node> nodes = new ArrayList<>(List.of(and()));
+            while (keyword("OR")) {
+                nodes.add(and());
+            }
+            return nodes.size() == 1 ? nodes.get(0) : new Or(nodes);
+        }
+
+        private Node and() {
+            List<Node> nodes = new ArrayList<>(List.of(unary()));
+            while (true) {
+                if (keyword("AND")) {
+                    nodes.add(unary());
+                    continue;
+                }
+                skipSpaces();
+                if (pos >= query.length() || query.charAt(pos) == ')' || peekKeyword("OR")) break;
+                nodes.add(unary());
+            }
+            return nodes.size() == 1 ? nodes.get(0) : new And(nodes);
+        }
+
+        private Node unary() {
+            if (keyword("NOT")) return new Not(unary());
+            skipSpaces();
+            if (pos >= query.length()) throw error("ifadə gözlənilirdi");
+
+            char c = query.charAt(pos);
+            if (c == '(') {
+                pos++;
+                Node node = or();
+                skipSpaces();
+                if (pos >= query.length() || query.charAt(pos) != ')') throw error("')' gözlənilirdi");
+                pos++;
+                return node;
+            }
+            if (c == '"') return new Literal(new BytePattern(quoted('"', true)));
+            if (c == '/') return regex();
+            return new Literal(new BytePattern(word()));
+        }
+
+        private Node regex() {
+            String body = quoted('/', false);
+            int flags = 0;
+            if (pos < query.length() && query.charAt(pos) == 'i') {
+                flags = Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE;
+                pos++;
+            }
+            try {
+                return new Regex(Pattern.compile(body, flags));
+            } catch (PatternSyntaxException e) {
+                throw new RuntimeException("Regex yanlışdır: " + e.getDescription() + " (" + body + ")");
+            }
+        }
+
+        /**
+         * Text up to the closing {@code quote}; a backslash escapes the quote, and itself when {@code unescape} is set.
+         */
+        private String quoted(char quote, boolean unescape) {
+            StringBuilder text = new StringBuilder();
+            pos++;
+            while (pos < query.length()) {
+                char c = query.charAt(pos++);
+                if (c == quote) {
+                    if (text.isEmpty()) throw error("boş " + quote + quote);
+                    return text.toString();
+                }
+                if (c == '\\' && pos < query.length()) {
+                    char next = query.charAt(pos);
+                    if (next == quote || (unescape && next == '\\')) {
+                        text.append(next);
+                        pos++;
+                        continue;
+                    }
+                }
+                text.append(c);
+            }
+            throw error("bağlanmayan " + quote);
+        }
+
+        private String word() {
+            int start = pos;
+            while (pos < query.length() && !Character.isWhitespace(query.charAt(pos))
+                    && query.charAt(pos) != '(' && query.charAt(pos) != ')') {
+                pos++;
+            }
+            if (pos == start) throw error("gözlənilməz '" + query.charAt(pos) + "'");
+            return query.substring(start, pos);
+        }
+
+        private boolean keyword(String keyword) {
+            if (!peekKeyword(keyword)) return false;
+            pos += keyword.length();
+            return true;
+        }
+
+        private boolean peekKeyword(String keyword) {
+            skipSpaces();
+            int end = pos + keyword.length();
+            return query.startsWith(keyword, pos)
+                    && (end == query.length() || Character.isWhitespace(query.charAt(end)) || query.charAt(end) == '(');
+        }
+
+        private void skipSpaces() {
+            while (pos < query.length() && Character.isWhitespace(query.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private RuntimeException error(String message) {
+            return new RuntimeException("Sorğu yanlışdır (mövqe " + pos + "): " + message);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package stream.api.adapter.log.engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads '\n' separated lines from a file channel together with their byte offsets.
+ */
+public final class LineReader {
+
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private LineReader() {
+    }
+
+    /**
+     * Visits lines in [from, to). A trailing line without '\n' is only visited when {@code partialTail} is set.
+     *
+     * @return offset right after the last visited line
+     */
+    public static long read(FileChannel channel, long from, long to, boolean partialTail, LineVisitor visitor) throws IOException {
+        return read(channel, from, to, partialTail, BUFFER_SIZE, visitor);
+    }
+
+    public static long read(FileChannel channel, long from, long to, boolean partialTail, int bufferSize,
+                            LineVisitor visitor) throws IOException {
+        return read(channel, from, to, partialTail, bufferSize, QueryContext.NONE, visitor);
+    }
+
+    public static long read(FileChannel channel, long from, long to, boolean partialTail, int bufferSize,
+                            QueryContext query, LineVisitor visitor) throws IOException {
+        byte[] buf = new byte[(int) Math.min(bufferSize, Math.max(to - from, 16))];
+        long bufStart = from;
+        int filled = 0;
+        int start = 0;
+        int scan = 0;
+
+        while (true) {
+            long remaining = to - (bufStart + filled);
+            boolean eof = remaining <= 0;
+            if (!eof) {
+                ByteBuffer bb = ByteBuffer.wrap(buf, filled, (int) Math.min(buf.length - filled, remaining));
+                int n = channel.read(bb, bufStart + filled);
+                if (n < 0) {
+                    eof = true;
+                } else {
+                    filled += n;
+                    query.onScanned(n);
+                }
+            }
+
+            for (; scan < filled; scan++) {
+                if (buf[scan] != '\n') continue;
+                int end = scan > start && buf[scan - 1] == '\r' ? scan - 1 : scan;
+                if (!visitor.visit(bufStart + start, buf, start, end - start)) {
+                    return bufStart + scan + 1;
+                }
+                start = scan + 1;
+            }
+
+            if (eof) {
+                if (partialTail && start < filled) {
+                    visitor.visit(bufStart + start, buf, start, filled - start);
+                    return bufStart + filled;
+                }
+                return bufStart + start;
+            }
+
+            if (start == 0 && filled == buf.length) {
+                // sətir buferdən uzundur
+                byte[] bigger = new byte[buf.length * 2];
+                System.arraycopy(buf, 0, bigger, 0, filled);
+                buf = bigger;
+            } else if (start > 0) {
+                System.arraycopy(buf, start, buf, 0, filled - start);
+                bufStart += start;
+                filled -= start;
+                scan -= start;
+                start = 0;
+            }
+        }
+    }
+}
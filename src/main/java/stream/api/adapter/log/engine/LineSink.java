@@ -0,0 +1,10 @@
+package stream.api.adapter.log.engine;
+
+/**
+ * Receives output lines as raw bytes, without the line terminator.
+ */
+@FunctionalInterface
+public interface LineSink {
+
+    void line(byte[] buf, int start, int length);
+}
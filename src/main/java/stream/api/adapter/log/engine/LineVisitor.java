@@ -0,0 +1,10 @@
+package stream.api.adapter.log.engine;
+
+@FunctionalInterface
+public interface LineVisitor {
+
+    /**
+     * @return false to stop reading
+     */
+    boolean visit(long offset, byte[] buf, int start, int length);
+}
@@ -0,0 +1,29 @@
+package stream.api.adapter.log.engine;
+
+/**
+ * Parsed "yyyy-MM-dd HH:mm:ss.SSS [Tnnn]" line header. Meant to be reused: {@link LogHeaders#parse}
+ * overwrites the fields in place.
+ */
+public final class LogHeader {
+
+    long millis = LogHeaders.NO_TIME;
+    int thread = LogHeaders.NO_THREAD;
+
+    /**
+     * @return epoch millis of the timestamp, read as UTC
+     */
+    public long getMillis() {
+        return millis;
+    }
+
+    /**
+     * @return key of the thread id, leading zeros included; {@link LogHeaders#threadName} gives the id back
+     */
+    public int getThread() {
+        return thread;
+    }
+
+    public boolean hasThread() {
+        return thread != LogHeaders.NO_THREAD;
+    }
+}
@@ -0,0 +1,193 @@
+package stream.api.adapter.log.engine;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Header parsing for raw "yyyy-MM-dd HH:mm:ss.SSS [Tnnn] ..." lines. Digits are read at their fixed
+ * positions straight into epoch millis, nothing is allocated.
+ */
+public final class LogHeaders {
+
+    public static final int TIMESTAMP_LENGTH = 23;
+    public static final long NO_TIME = Long.MIN_VALUE;
+    public static final int NO_THREAD = -1;
+    public static final int MAX_THREAD_DIGITS = 9;
+
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    // THREAD_BASE[n]: n rəqəmli ilk id-nin açarı, "7" və "007" fərqli açar alır
+    private static final long[] THREAD_BASE = new long[MAX_THREAD_DIGITS + 2];
+
+    static {
+        long power = 1;
+        for (int n = 1; n <= MAX_THREAD_DIGITS; n++) {
+            THREAD_BASE[n + 1] = THREAD_BASE[n] + power * 10;
+            power *= 10;
+        }
+    }
+
+    private LogHeaders() {
+    }
+
+    public static boolean isHeader(byte[] buf, int start, int length) {
+        return length >= TIMESTAMP_LENGTH
+                && isDigit(buf[start])
+                && buf[start + 4] == '-'
+                && buf[start + 10] == ' '
+                && buf[start + 19] == '.';
+    }
+
+    public static boolean isHeader(ByteBuffer buf, int start, int length) {
+        return length >= TIMESTAMP_LENGTH
+                && isDigit(buf.get(start))
+                && buf.get(start + 4) == '-'
+                && buf.get(start + 10) == ' '
+                && buf.get(start + 19) == '.';
+    }
+
+    /**
+     * Fills {@code header} from the line.
+     *
+     * @return false, leaving {@code header} untouched, when the line does not start with a timestamp
+     */
+    public static boolean parse(byte[] buf, int start, int length, LogHeader header) {
+        if (!isHeader(buf, start, length)) return false;
+
+        int year = digits(buf, start, 4);
+        int month = digits(buf, start + 5, 2);
+        int day = digits(buf, start + 8, 2);
+        int hour = digits(buf, start + 11, 2);
+        int minute = digits(buf, start + 14, 2);
+        int second = digits(buf, start + 17, 2);
+        int millis = digits(buf, start + 20, 3);
+        if ((year | month | day | hour | minute | second | millis) < 0
+                || buf[start + 7] != '-' || buf[start + 13] != ':' || buf[start + 16] != ':') {
+            return false;
+        }
+
+        long time = toEpochMillis(year, month, day, hour, minute, second, millis);
+        if (time == NO_TIME) return false;
+
+        header.millis = time;
+        header.thread = thread(buf, start, length);
+        return true;
+    }
+
+    /**
+     * Same as the byte form, for short text such as user input; copies the line.
+     */
+    public static boolean parse(CharSequence line, LogHeader header) {
+        byte[] bytes = line.toString().getBytes(StandardCharsets.ISO_8859_1);
+        return parse(bytes, 0, bytes.length, header);
+    }
+
+    /**
+     * Parses a "yyyy-MM-dd HH:mm:ss[.SSS]" (or ISO "T" separated) time given by a user, read as UTC like
+     * the log timestamps.
+     *
+     * @return {@link #NO_TIME} when {@code text} is empty
+     */
+    public static long parseTime(String text) {
+        if (text == null || text.isBlank()) return NO_TIME;
+
+        StringBuilder line = new StringBuilder(text.trim());
+        if (line.length() > 10 && line.charAt(10) == 'T') {
+            line.setCharAt(10, ' ');
+        }
+        if (line.length() == 16) {
+            line.append(":00");
+        }
+        if (line.length() == 19) {
+            line.append(".000");
+        }
+        LogHeader header = new LogHeader();
+        if (line.length() != TIMESTAMP_LENGTH || !parse(line, header)) {
+            throw new RuntimeException("Vaxt formatı yanlışdır (yyyy-MM-dd HH:mm:ss): " + text);
+        }
+        return header.getMillis();
+    }
+
+    static long toEpochMillis(int year, int month, int day, int hour, int minute, int second, int millis) {
+        if (month < 1 || month > 12 || day < 1 || day > 31 || hour > 23 || minute > 59 || second > 59) {
+            return NO_TIME;
+        }
+        return daysFromCivil(year, month, day) * MILLIS_PER_DAY
+                + ((hour * 60L + minute) * 60L + second) * 1000L + millis;
+    }
+
+    /**
+     * Days since 1970-01-01 in the proleptic Gregorian calendar (H. Hinnant's days_from_civil).
+     */
+    private static long daysFromCivil(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = (y >= 0 ? y : y - 399) / 400;
+        int yoe = y - era * 400;
+        int doy = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        int doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+        return era * 146097L + doe - 719468;
+    }
+
+    /**
+     * Key of the thread id, such as "007", as {@link LogHeader#getThread} gives it for "[T007]".
+     *
+     * @return {@link #NO_THREAD} unless {@code id} is 1 to {@value #MAX_THREAD_DIGITS} digits
+     */
+    public static int threadId(String id) {
+        byte[] bytes = id.getBytes(StandardCharsets.ISO_8859_1);
+        return threadId(bytes, 0, bytes.length);
+    }
+
+    /**
+     * The thread as it is written in the log, e.g. "T007".
+     */
+    public static String threadName(int thread) {
+        for (int count = 1; thread >= 0 && count <= MAX_THREAD_DIGITS; count++) {
+            if (thread < THREAD_BASE[count + 1]) {
+                String digits = Long.toString(thread - THREAD_BASE[count]);
+                return "T" + "0".repeat(count - digits.length()) + digits;
+            }
+        }
+        throw new RuntimeException("Thread açarı yanlışdır: " + thread);
+    }
+
+    private static int thread(byte[] buf, int start, int length) {
+        int end = start + length;
+        for (int i = start + TIMESTAMP_LENGTH; i + 2 < end; i++) {
+            if (buf[i] != '[' || buf[i + 1] != 'T') continue;
+            int j = i + 2;
+            while (j < end && isDigit(buf[j])) j++;
+            if (j == end || buf[j] != ']') continue;
+            int id = threadId(buf, i + 2, j);
+            if (id != NO_THREAD) return id;
+        }
+        return NO_THREAD;
+    }
+
+    /**
+     * Ids of different length get different keys, so leading zeros are kept; a longer id than
+     * {@value #MAX_THREAD_DIGITS} digits is not taken for a thread instead of overflowing.
+     */
+    private static int threadId(byte[] buf, int start, int end) {
+        int count = end - start;
+        if (count < 1 || count > MAX_THREAD_DIGITS) return NO_THREAD;
+        int value = digits(buf, start, count);
+        return value < 0 ? NO_THREAD : (int) (THREAD_BASE[count] + value);
+    }
+
+    /**
+     * @return the value, or -1 when one of the characters is not a digit
+     */
+    private static int digits(byte[] buf, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int d = buf[i] - '0';
+            if (d < 0 || d > 9) return -1;
+            value = value * 10 + d;
+        }
+        return value;
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+}
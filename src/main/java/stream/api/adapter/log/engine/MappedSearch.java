@@ -0,0 +1,196 @@
+package stream.api.adapter.log.engine;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Searches a file through memory mapped windows. Only matching lines (and their headers) are copied
+ * out of the mapping; everything else is never decoded.
+ * <p>
+ * Each window except the last ends before the last header line in it, so the header of every
+ * continuation line is always in the same window as the line itself.
+ */
+public final class MappedSearch {
+
+    private static final long WINDOW_SIZE = 1L << 28;
+    private static final int SLICE_SIZE = 1 << 22;
+
+    private MappedSearch() {
+    }
+
+    /**
+     * Visits every line in [from, to) that {@code filter} matches, in file order. The mapping is searched
+     * for the filter's prefilter literal; a filter without one is evaluated line by line instead.
+     *
+     * @return offset right after the line the visitor stopped at, or {@code to}
+     */
+    public static long scan(FileChannel channel, long from, long to, LineFilter filter,
+                            MatchVisitor visitor) throws IOException {
+        return scan(channel, from, to, WINDOW_SIZE, filter, QueryContext.NONE, visitor);
+    }
+
+    public static long scan(FileChannel channel, long from, long to, LineFilter filter, QueryContext query,
+                            MatchVisitor visitor) throws IOException {
+        return scan(channel, from, to, WINDOW_SIZE, filter, query, visitor);
+    }
+
+    static long scan(FileChannel channel, long from, long to, long windowSize, LineFilter filter,
+                     QueryContext query, MatchVisitor visitor) throws IOException {
+        if (channel instanceof ArchiveChannel || filter.prefilter() == null) {
+            return StreamSearch.scan(channel, from, to, filter, query, visitor);
+        }
+        Hits hits = new Hits(filter.prefilter());
+        MatchedLine line = new MatchedLine();
+        long windowStart = from;
+
+        while (windowStart < to) {
+            int size = (int) Math.min(windowSize, to - windowStart);
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, size);
+            boolean last = windowStart + size >= to;
+            int limit = last ? size : lastEntryStart(buf, size);
+            hits.reset();
+
+            int pos = 0;
+            while (pos < limit) {
+                // limit-ləri yoxlamaq üçün pəncərəni hissə-hissə axtarırıq
+                int sliceEnd = (int) Math.min(limit, (long) pos + SLICE_SIZE);
+                int hit = hits.first(buf, pos, sliceEnd, limit);
+                if (hit < 0) {
+                    query.onScanned(sliceEnd - pos);
+                    pos = sliceEnd;
+                    continue;
+                }
+
+                int start = lineStart(buf, hit, 0);
+                int end = lineEnd(buf, hit, size);
+                query.onScanned(Math.min(end + 1, limit) - pos);
+                pos = end + 1;
+                fillLine(line, buf, windowStart, start, end);
+                // prefilter yalnız namizəd verir, tam ifadə sətrin özündə yoxlanılır
+                if (!filter.isLiteral() && !filter.matches(line.buf, 0, line.length)) continue;
+
+                fillHeader(line, buf, windowStart, start, end);
+                line.nextOffset = windowStart + Math.min(end + 1, size);
+                if (!visitor.match(line)) {
+                    return line.nextOffset;
+                }
+            }
+            windowStart += limit;
+        }
+        return to;
+    }
+
+    private static void fillLine(MatchedLine line, MappedByteBuffer buf, long windowStart, int start, int end) {
+        int length = trimCr(buf, start, end);
+        line.offset = windowStart + start;
+        line.buf = copy(buf, start, length, line.buf);
+        line.start = 0;
+        line.length = length;
+    }
+
+    private static void fillHeader(MatchedLine line, MappedByteBuffer buf, long windowStart, int start, int end) {
+        int header = start;
+        while (!LogHeaders.isHeader(buf, header, lineEnd(buf, header, end) - header)) {
+            if (header == 0) {
+                line.headerOffset = -1;
+                line.headerLength = 0;
+                return;
+            }
+            header = lineStart(buf, header - 1, 0);
+        }
+
+        int headerLength = trimCr(buf, header, lineEnd(buf, header, end));
+        line.headerOffset = windowStart + header;
+        line.headerBuf = copy(buf, header, headerLength, line.headerBuf);
+        line.headerStart = 0;
+        line.headerLength = headerLength;
+    }
+
+    private static byte[] copy(MappedByteBuffer buf, int start, int length, byte[] target) {
+        if (target.length < length) {
+            target = Arrays.copyOf(target, Math.max(length, target.length * 2));
+        }
+        buf.get(start, target, 0, length);
+        return target;
+    }
+
+    /**
+     * Start of the last header line that does not begin at 0, or of the last line when there is no such header.
+     */
+    private static int lastEntryStart(MappedByteBuffer buf, int size) {
+        int lastLine = -1;
+        int i = size - 1;
+        while (i > 0) {
+            int start = lineStart(buf, i, 0);
+            if (start == 0) break;
+            if (lastLine < 0 && start < size) {
+                lastLine = start;
+            }
+            if (LogHeaders.isHeader(buf, start, Math.min(size, start + LogHeaders.TIMESTAMP_LENGTH) - start)) {
+                return start;
+            }
+            i = start - 1;
+        }
+        return lastLine > 0 ? lastLine : size;
+    }
+
+    private static int lineStart(MappedByteBuffer buf, int pos, int min) {
+        while (pos > min && buf.get(pos - 1) != '\n') {
+            pos--;
+        }
+        return pos;
+    }
+
+    private static int lineEnd(MappedByteBuffer buf, int pos, int max) {
+        while (pos < max && buf.get(pos) != '\n') {
+            pos++;
+        }
+        return pos;
+    }
+
+    /**
+     * Next hit of each prefilter literal in the current window, kept so that a frequent literal does not make
+     * a rare one search the same bytes again.
+     */
+    private static final class Hits {
+        private final BytePattern[] patterns;
+        // bilinən uyğunluq, yoxdursa -1; onda searched-ə qədər heç biri başlamır
+        private final int[] at;
+        private final int[] searched;
+
+        Hits(BytePattern[] patterns) {
+            this.patterns = patterns;
+            this.at = new int[patterns.length];
+            this.searched = new int[patterns.length];
+        }
+
+        void reset() {
+            Arrays.fill(at, -1);
+            Arrays.fill(searched, 0);
+        }
+
+        /**
+         * @return the first hit of any literal starting in [pos, sliceEnd), or -1
+         */
+        int first(MappedByteBuffer buf, int pos, int sliceEnd, int limit) {
+            int first = -1;
+            for (int i = 0; i < patterns.length; i++) {
+                if (at[i] < pos) {
+                    int from = at[i] < 0 ? Math.max(pos, searched[i]) : pos;
+                    if (from < sliceEnd) {
+                        at[i] = patterns[i].indexOf(buf, from, Math.min(limit, sliceEnd + patterns[i].length() - 1));
+                        if (at[i] < 0) searched[i] = sliceEnd;
+                    }
+                }
+                if (at[i] >= pos && (first < 0 || at[i] < first)) first = at[i];
+            }
+            return first;
+        }
+    }
+
+    private static int trimCr(MappedByteBuffer buf, int start, int end) {
+        return end > start && buf.get(end - 1) == '\r' ? end - start - 1 : end - start;
+    }
+}
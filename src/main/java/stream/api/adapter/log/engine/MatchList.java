@@ -0,0 +1,150 @@
+package stream.api.adapter.log.engine;
+
+import java.util.Arrays;
+
+/**
+ * Matches of one query in file order: header offset, time and thread of each entry with a matching line,
+ * plus the offset right after its first matching line. An entry is collected once, however many of its
+ * lines match, as {@link ReverseSearch} reports it. Collection stops once {@code limit} matches are in.
+ */
+public class MatchList implements MatchVisitor {
+
+    private final LogHeader header = new LogHeader();
+
+    private long skipBefore;
+    // resume-dan əvvəl yığılmış son yazı (məs. əvvəlki səhifənin sonuncusu)
+    private long collectedEntry = -1;
+    private int limit = Integer.MAX_VALUE;
+    private TimeRange range = TimeRange.ALL;
+
+    private int size;
+    private long[] offsets;
+    private long[] nextOffsets;
+    private long[] millis;
+    private int[] threads;
+
+    public MatchList() {
+        this(16);
+    }
+
+    private MatchList(int capacity) {
+        offsets = new long[capacity];
+        nextOffsets = new long[capacity];
+        millis = new long[capacity];
+        threads = new int[capacity];
+    }
+
+    /**
+     * Continues collecting: lines before {@code skipBefore} are ignored, collection stops at {@code limit} matches.
+     */
+    public MatchList resume(long skipBefore, int limit) {
+        this.skipBefore = skipBefore;
+        this.limit = limit;
+        return this;
+    }
+
+    /**
+     * Treats the entry whose header is at {@code headerOffset} as already collected, e.g. the last entry
+     * of the previous page; -1 for none.
+     */
+    public MatchList after(long headerOffset) {
+        this.collectedEntry = headerOffset;
+        return this;
+    }
+
+    /**
+     * Only keeps matches whose entry time is within {@code range}.
+     */
+    public MatchList within(TimeRange range) {
+        this.range = range;
+        return this;
+    }
+
+    @Override
+    public boolean match(MatchedLine line) {
+        if (line.getOffset() < skipBefore || line.getHeaderOffset() < 0) return true;
+        // eyni yazının sonrakı sətirləri: resume və pəncərə sərhədlərindən sonra da son yazı ilə müqayisə olunur
+        if (line.getHeaderOffset() == lastEntry()) return true;
+
+        LogHeaders.parse(line.getHeaderBuf(), line.getHeaderStart(), line.getHeaderLength(), header);
+        if (header.getMillis() < range.from() || header.getMillis() > range.to()) return true;
+        add(line.getHeaderOffset(), line.getNextOffset(), header.getMillis(), header.getThread());
+        return size < limit;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long offset(int i) {
+        return offsets[i];
+    }
+
+    public long nextOffset(int i) {
+        return nextOffsets[i];
+    }
+
+    public long millis(int i) {
+        return millis[i];
+    }
+
+    public int thread(int i) {
+        return threads[i];
+    }
+
+    private long lastEntry() {
+        return size > 0 ? offsets[size - 1] : collectedEntry;
+    }
+
+    public long lastMillis() {
+        long max = LogHeaders.NO_TIME;
+        for (int i = 0; i < size; i++) {
+            max = Math.max(max, millis[i]);
+        }
+        return max;
+    }
+
+    /**
+     * Drops everything after the first {@code size} matches.
+     */
+    public void truncate(int size) {
+        this.size = Math.min(this.size, size);
+    }
+
+    /**
+     * Copy of matches [from, to).
+     */
+    public MatchList slice(int from, int to) {
+        to = Math.min(to, size);
+        from = Math.min(from, to);
+        MatchList slice = new MatchList(Math.max(to - from, 1));
+        System.arraycopy(offsets, from, slice.offsets, 0, to - from);
+        System.arraycopy(nextOffsets, from, slice.nextOffsets, 0, to - from);
+        System.arraycopy(millis, from, slice.millis, 0, to - from);
+        System.arraycopy(threads, from, slice.threads, 0, to - from);
+        slice.size = to - from;
+        return slice;
+    }
+
+    /**
+     * Approximate heap size in bytes.
+     */
+    public long weight() {
+        return 64 + offsets.length * 28L;
+    }
+
+    private void add(long offset, long next, long time, int thread) {
+        if (size == offsets.length) {
+            int capacity = size * 2;
+            offsets = Arrays.copyOf(offsets, capacity);
+            nextOffsets = Arrays.copyOf(nextOffsets, capacity);
+            millis = Arrays.copyOf(millis, capacity);
+            threads = Arrays.copyOf(threads, capacity);
+        }
+        offsets[size] = offset;
+        nextOffsets[size] = next;
+        millis[size] = time;
+        threads[size] = thread;
+        size++;
+    }
+}
@@ -0,0 +1,10 @@
+package stream.api.adapter.log.engine;
+
+@FunctionalInterface
+public interface MatchVisitor {
+
+    /**
+     * @return false to stop searching
+     */
+    boolean match(MatchedLine line);
+}
@@ -0,0 +1,67 @@
+package stream.api.adapter.log.engine;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A matching line and the header line of the entry it belongs to. The instance and its
+ * buffers are reused for every match, copy what has to outlive the callback.
+ */
+public final class MatchedLine {
+
+    long offset;
+    long nextOffset;
+    byte[] buf = new byte[256];
+    int start;
+    int length;
+
+    long headerOffset = -1;
+    byte[] headerBuf = new byte[256];
+    int headerStart;
+    int headerLength;
+
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * @return offset right after the line terminator
+     */
+    public long getNextOffset() {
+        return nextOffset;
+    }
+
+    public byte[] getBuf() {
+        return buf;
+    }
+
+    public int getStart() {
+        return start;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * @return offset of the header line, -1 when the line has no header above it
+     */
+    public long getHeaderOffset() {
+        return headerOffset;
+    }
+
+    public byte[] getHeaderBuf() {
+        return headerBuf;
+    }
+
+    public int getHeaderStart() {
+        return headerStart;
+    }
+
+    public int getHeaderLength() {
+        return headerLength;
+    }
+
+    public String text() {
+        return new String(buf, start, length, StandardCharsets.UTF_8);
+    }
+}
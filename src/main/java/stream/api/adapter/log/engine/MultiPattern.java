@@ -0,0 +1,122 @@
+package stream.api.adapter.log.engine;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * Aho-Corasick automaton over bytes: finds which of many literals occur in a line in a single pass,
+ * however many literals there are. Immutable once built, so it can be shared and swapped without locking.
+ * Transitions are a full table over byte classes; bytes that occur in no literal share one class.
+ */
+public final class MultiPattern {
+
+    private final int[] classes = new int[256];
+    private final int classCount;
+    private final int literals;
+    // vəziyyət * classCount + sinif -> növbəti vəziyyət
+    private final int[] next;
+    // vəziyyətdə bitən literallar: outIds[outStart[s] .. outStart[s + 1])
+    private final int[] outStart;
+    private final int[] outIds;
+
+    public MultiPattern(List<byte[]> literals) {
+        this.literals = literals.size();
+        int count = 1;
+        int states = 1;
+        for (byte[] literal : literals) {
+            states += literal.length;
+            for (byte b : literal) {
+                if (classes[b & 0xFF] == 0) classes[b & 0xFF] = count++;
+            }
+        }
+        this.classCount = count;
+
+        // trie: -1 hələ keçid yoxdur
+        int[] table = new int[states * classCount];
+        Arrays.fill(table, -1);
+        int[][] outputs = new int[states][];
+        int used = 1;
+        for (int id = 0; id < literals.size(); id++) {
+            int state = 0;
+            for (byte b : literals.get(id)) {
+                int slot = state * classCount + classes[b & 0xFF];
+                if (table[slot] < 0) table[slot] = used++;
+                state = table[slot];
+            }
+            outputs[state] = append(outputs[state], id);
+        }
+
+        // failure keçidləri BFS ilə; çatışmayan keçidlər failure vəziyyətinin keçidi ilə doldurulur
+        int[] fail = new int[used];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int c = 0; c < classCount; c++) {
+            int child = table[c];
+            if (child < 0) {
+                table[c] = 0;
+            } else {
+                queue.add(child);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            outputs[state] = merge(outputs[state], outputs[fail[state]]);
+            for (int c = 0; c < classCount; c++) {
+                int slot = state * classCount + c;
+                int fallback = table[fail[state] * classCount + c];
+                if (table[slot] < 0) {
+                    table[slot] = fallback;
+                } else {
+                    fail[table[slot]] = fallback;
+                    queue.add(table[slot]);
+                }
+            }
+        }
+
+        this.next = Arrays.copyOf(table, used * classCount);
+        this.outStart = new int[used + 1];
+        int total = 0;
+        for (int s = 0; s < used; s++) {
+            outStart[s] = total;
+            total += outputs[s] == null ? 0 : outputs[s].length;
+        }
+        outStart[used] = total;
+        this.outIds = new int[total];
+        for (int s = 0; s < used; s++) {
+            if (outputs[s] != null) System.arraycopy(outputs[s], 0, outIds, outStart[s], outputs[s].length);
+        }
+    }
+
+    public int size() {
+        return literals;
+    }
+
+    /**
+     * Calls {@code hit} with the index of every literal found in the line, once per occurrence.
+     */
+    public void match(byte[] buf, int start, int length, IntConsumer hit) {
+        int state = 0;
+        for (int i = start, end = start + length; i < end; i++) {
+            state = next[state * classCount + classes[buf[i] & 0xFF]];
+            for (int o = outStart[state], last = outStart[state + 1]; o < last; o++) {
+                hit.accept(outIds[o]);
+            }
+        }
+    }
+
+    private static int[] append(int[] ids, int id) {
+        if (ids == null) return new int[]{id};
+        int[] grown = Arrays.copyOf(ids, ids.length + 1);
+        grown[ids.length] = id;
+        return grown;
+    }
+
+    private static int[] merge(int[] own, int[] inherited) {
+        if (inherited == null) return own;
+        if (own == null) return inherited;
+        int[] merged = Arrays.copyOf(own, own.length + inherited.length);
+        System.arraycopy(inherited, 0, merged, own.length, inherited.length);
+        return merged;
+    }
+}
@@ -0,0 +1,28 @@
+package stream.api.adapter.log.engine;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/**
+ * Opaque resume token: the byte offset to continue scanning from and the ordinal of the next match.
+ */
+public record PageCursor(long offset, int ordinal) {
+
+    public String encode() {
+        ByteBuffer buf = ByteBuffer.allocate(12).putLong(offset).putInt(ordinal);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buf.array());
+    }
+
+    public static PageCursor decode(String token) {
+        try {
+            ByteBuffer buf = ByteBuffer.wrap(Base64.getUrlDecoder().decode(token));
+            PageCursor cursor = new PageCursor(buf.getLong(), buf.getInt());
+            if (cursor.offset < 0 || cursor.ordinal < 0 || buf.hasRemaining()) {
+                throw new IllegalArgumentException();
+            }
+            return cursor;
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Yanlış cursor: " + token);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package stream.api.adapter.log.engine;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Splits a file into entry aligned byte ranges and searches them on a fork/join pool.
+ * Range results are handed to the visitor strictly in file order from the calling thread,
+ * and no more than parallelism + 1 ranges are in flight, so an early stop wastes little work.
+ */
+public final class ParallelSearch {
+
+    private static final long MIN_RANGE = 4L << 20;
+    private static final long MAX_RANGE = 32L << 20;
+    private static final int ALIGN_BUFFER = 64 * 1024;
+
+    private final ForkJoinPool pool;
+
+    public ParallelSearch(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Same contract as {@link MappedSearch#scan(FileChannel, long, long, LineFilter, MatchVisitor)}.
+     */
+    public long scan(FileChannel channel, long from, long to, LineFilter filter,
+                     MatchVisitor visitor) throws IOException {
+        return scan(channel, from, to, filter, QueryContext.NONE, visitor);
+    }
+
+    public long scan(FileChannel channel, long from, long to, LineFilter filter, QueryContext query,
+                     MatchVisitor visitor) throws IOException {
+        // arxivlər ardıcıl açılır, hissələrə bölmək fayda vermir
+        if (channel instanceof ArchiveChannel) {
+            return StreamSearch.scan(channel, from, to, filter, query, visitor);
+        }
+        long[] bounds = split(channel, from, to);
+        int ranges = bounds.length - 1;
+        if (ranges <= 1) {
+            return MappedSearch.scan(channel, from, to, filter, query, visitor);
+        }
+
+        int lookahead = pool.getParallelism() + 1;
+        ArrayDeque<ForkJoinTask<RangeMatches>> inFlight = new ArrayDeque<>();
+        int submitted = 0;
+        try {
+            for (int i = 0; i < ranges; i++) {
+                while (submitted < ranges && submitted - i < lookahead) {
+                    long start = bounds[submitted];
+                    long end = bounds[submitted + 1];
+                    inFlight.addLast(pool.submit(() -> RangeMatches.collect(channel, start, end, filter, query)));
+                    submitted++;
+                }
+                RangeMatches matches = await(inFlight.pollFirst());
+                query.check();
+                long stoppedAt = matches.replay(visitor);
+                if (stoppedAt >= 0) return stoppedAt;
+            }
+            return to;
+        } finally {
+            inFlight.forEach(task -> task.cancel(true));
+        }
+    }
+
+    long[] split(FileChannel channel, long from, long to) throws IOException {
+        long rangeSize = Math.max(MIN_RANGE, Math.min(MAX_RANGE, (to - from) / (pool.getParallelism() * 4L)));
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(from);
+        long pos = from;
+        while (to - pos > rangeSize) {
+            long aligned = entryStartAfter(channel, pos + rangeSize, to);
+            if (aligned >= to) break;
+            bounds.add(aligned);
+            pos = aligned;
+        }
+        bounds.add(to);
+        return bounds.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static long entryStartAfter(FileChannel channel, long pos, long to) throws IOException {
+        long[] found = {to};
+        LineReader.read(channel, pos, to, false, ALIGN_BUFFER, (offset, buf, start, length) -> {
+            // ilk sətir yarımçıq ola bilər
+            if (offset == pos || !LogHeaders.isHeader(buf, start, length)) return true;
+            found[0] = offset;
+            return false;
+        });
+        return found[0];
+    }
+
+    private static RangeMatches await(ForkJoinTask<RangeMatches> task) throws IOException {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Axtarış dayandırıldı");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) throw io;
+            if (cause instanceof UncheckedIOException io) throw io.getCause();
+            if (cause instanceof RuntimeException re) throw re;
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * Copies of the matches of one range, kept in a single byte arena.
+     */
+    private static final class RangeMatches implements MatchVisitor {
+        private byte[] arena = new byte[4096];
+        private int used;
+        private int count;
+        private long[] offsets = new long[16];
+        private long[] nextOffsets = new long[16];
+        private long[] headerOffsets = new long[16];
+        private int[] starts = new int[16];
+        private int[] lengths = new int[16];
+        private int[] headerStarts = new int[16];
+        private int[] headerLengths = new int[16];
+
+        static RangeMatches collect(FileChannel channel, long from, long to, LineFilter filter,
+                                    QueryContext query) throws IOException {
+            RangeMatches matches = new RangeMatches();
+            MappedSearch.scan(channel, from, to, filter, query, matches);
+            return matches;
+        }
+
+        @Override
+        public boolean match(MatchedLine line) {
+            if (count == offsets.length) {
+                grow();
+            }
+            offsets[count] = line.getOffset();
+            nextOffsets[count] = line.getNextOffset();
+            headerOffsets[count] = line.getHeaderOffset();
+            starts[count] = append(line.getBuf(), line.getStart(), line.getLength());
+            lengths[count] = line.getLength();
+            headerStarts[count] = append(line.getHeaderBuf(), line.getHeaderStart(), line.getHeaderLength());
+            headerLengths[count] = line.getHeaderLength();
+            count++;
+            return true;
+        }
+
+        /**
+         * @return offset after the line the visitor stopped at, or -1 when it wants more
+         */
+        long replay(MatchVisitor visitor) {
+            MatchedLine line = new MatchedLine();
+            line.buf = arena;
+            line.headerBuf = arena;
+            for (int i = 0; i < count; i++) {
+                line.offset = offsets[i];
+                line.nextOffset = nextOffsets[i];
+                line.start = starts[i];
+                line.length = lengths[i];
+                line.headerOffset = headerOffsets[i];
+                line.headerStart = headerStarts[i];
+                line.headerLength = headerLengths[i];
+                if (!visitor.match(line)) return line.nextOffset;
+            }
+            return -1;
+        }
+
+        private int append(byte[] src, int start, int length) {
+            if (used + length > arena.length) {
+                arena = Arrays.copyOf(arena, Math.max(used + length, arena.length * 2));
+            }
+            System.arraycopy(src, start, arena, used, length);
+            used += length;
+            return used - length;
+        }
+
+        private void grow() {
+            int size = offsets.length * 2;
+            offsets = Arrays.copyOf(offsets, size);
+            nextOffsets = Arrays.copyOf(nextOffsets, size);
+            headerOffsets = Arrays.copyOf(headerOffsets, size);
+            starts = Arrays.copyOf(starts, size);
+            lengths = Arrays.copyOf(lengths, size);
+            headerStarts = Arrays.copyOf(headerStarts, size);
+            headerLengths = Arrays.copyOf(headerLengths, size);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package stream.api.adapter.log.engine;
+
+public class QueryCancelledException extends RuntimeException {
+
+    public QueryCancelledException(String message) {
+        super(message);
+    }
+}
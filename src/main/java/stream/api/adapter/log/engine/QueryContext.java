@@ -0,0 +1,110 @@
+package stream.api.adapter.log.engine;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cancellation flag, deadline and scanned-bytes budget of one query. Scanners report the bytes
+ * they consume, which is also where a cancelled or expired query gets stopped.
+ */
+public class QueryContext {
+
+    /**
+     * For background and unbounded reads: never cancelled, counts nothing and keeps no profile, so the
+     * callers that share it do not contend on one counter.
+     */
+    public static final QueryContext NONE = new Unbounded();
+
+    private final long timeoutMillis;
+    private final long deadlineNanos;
+    private final long maxBytes;
+    private final AtomicLong scannedBytes = new AtomicLong();
+    private final QueryProfile profile = new QueryProfile();
+    private volatile boolean cancelled;
+
+    /**
+     * @param timeoutMillis 0 for no deadline
+     * @param maxBytes      0 for no limit
+     */
+    public QueryContext(long timeoutMillis, long maxBytes) {
+        this.timeoutMillis = timeoutMillis;
+        this.deadlineNanos = System.nanoTime() + timeoutMillis * 1_000_000L;
+        this.maxBytes = maxBytes;
+    }
+
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    public long getScannedBytes() {
+        return scannedBytes.get();
+    }
+
+    public QueryProfile getProfile() {
+        return profile;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public void check() {
+        if (cancelled) {
+            throw new QueryCancelledException("Sorğu ləğv edildi");
+        }
+        if (timeoutMillis > 0 && System.nanoTime() - deadlineNanos > 0) {
+            cancelled = true;
+            throw new QueryCancelledException("Sorğunun vaxtı bitdi (" + timeoutMillis + " ms)");
+        }
+    }
+
+    public void onScanned(long bytes) {
+        long total = scannedBytes.addAndGet(bytes);
+        if (maxBytes > 0 && total > maxBytes) {
+            cancelled = true;
+            throw new QueryCancelledException("Skan limiti aşıldı (" + maxBytes + " bayt)");
+        }
+        check();
+    }
+
+    private static final class Unbounded extends QueryContext {
+
+        Unbounded() {
+            super(0, 0);
+        }
+
+        @Override
+        public long getScannedBytes() {
+            return 0;
+        }
+
+        /**
+         * A fresh profile per call: what is recorded on it is dropped.
+         */
+        @Override
+        public QueryProfile getProfile() {
+            return new QueryProfile();
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public void cancel() {
+            // paylaşılan kontekst ləğv edilmir
+        }
+
+        @Override
+        public void check() {
+        }
+
+        @Override
+        public void onScanned(long bytes) {
+        }
+    }
+}
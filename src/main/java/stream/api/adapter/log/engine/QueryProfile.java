@@ -0,0 +1,81 @@
+package stream.api.adapter.log.engine;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Where the time of one query went: nanos per phase, matches found and lines/bytes sent. The emit phase is
+ * recorded by the writer, possibly on its flush thread, so every counter is thread safe.
+ */
+public final class QueryProfile {
+
+    public enum Phase {
+        MATCH, CONTEXT, EMIT
+    }
+
+    private final long startNanos = System.nanoTime();
+    private final AtomicLongArray nanos = new AtomicLongArray(Phase.values().length);
+    private final LongAdder linesOut = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
+    private volatile long matches;
+    private volatile String label = "";
+
+    public void record(Phase phase, long elapsedNanos) {
+        nanos.addAndGet(phase.ordinal(), elapsedNanos);
+    }
+
+    public long getNanos(Phase phase) {
+        return nanos.get(phase.ordinal());
+    }
+
+    public void onLine(int bytes) {
+        linesOut.increment();
+        bytesOut.add(bytes);
+    }
+
+    public long getLinesOut() {
+        return linesOut.sum();
+    }
+
+    public long getBytesOut() {
+        return bytesOut.sum();
+    }
+
+    public long getMatches() {
+        return matches;
+    }
+
+    public void setMatches(long matches) {
+        this.matches = matches;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public void setLabel(String label) {
+        this.label = label;
+    }
+
+    public long getElapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    /**
+     * One line summary, e.g. "total=5120ms match=4800ms context=290ms emit=30ms scanned=2147483648 matches=12 lines=840".
+     */
+    public String summary(long scannedBytes) {
+        return "total=" + millis(getElapsedNanos())
+                + " match=" + millis(getNanos(Phase.MATCH))
+                + " context=" + millis(getNanos(Phase.CONTEXT))
+                + " emit=" + millis(getNanos(Phase.EMIT))
+                + " scanned=" + scannedBytes
+                + " matches=" + matches
+                + " lines=" + linesOut.sum()
+                + " bytes=" + bytesOut.sum();
+    }
+
+    private static String millis(long nanos) {
+        return nanos / 1_000_000 + "ms";
+    }
+}
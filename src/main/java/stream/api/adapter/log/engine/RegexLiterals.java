@@ -0,0 +1,201 @@
+package stream.api.adapter.log.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Conservative extraction of the literals every match of a regex must contain. Anything the scan does not
+ * fully understand (groups, classes, escapes like \d or \x41) only ends the current literal, so the result
+ * may miss literals but never claims one that is not required. Only an escaped symbol such as \. counts as
+ * literal text; every other escape is skipped whole.
+ */
+final class RegexLiterals {
+
+    private RegexLiterals() {
+    }
+
+    /**
+     * @return required clauses: every line the regex matches contains at least one literal of each clause
+     */
+    static List<List<String>> required(String regex) {
+        List<String> branches = split(regex);
+        if (branches == null) return List.of();
+        if (branches.size() == 1) {
+            List<List<String>> clauses = new ArrayList<>();
+            for (String run : runs(branches.get(0))) {
+                clauses.add(List.of(run));
+            }
+            return clauses;
+        }
+
+        // alternativlərin hər birindən ən uzun literal götürülür, biri olmasa heç nə tələb olunmur
+        List<String> clause = new ArrayList<>();
+        for (String branch : branches) {
+            String longest = null;
+            for (String run : runs(branch)) {
+                if (longest == null || run.length() > longest.length()) longest = run;
+            }
+            if (longest == null) return List.of();
+            clause.add(longest);
+        }
+        return List.of(clause);
+    }
+
+    /**
+     * Top level alternatives, or {@code null} when the regex turns on inline flags.
+     */
+    private static List<String> split(String regex) {
+        List<String> branches = new ArrayList<>();
+        int depth = 0;
+        int start = 0;
+        for (int i = 0; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                i = escapeEnd(regex, i);
+            } else if (c == '[') {
+                i = classEnd(regex, i);
+            } else if (c == '(') {
+                if (regex.startsWith("(?", i) && i + 2 < regex.length() && Character.isLetter(regex.charAt(i + 2))) {
+                    return null;
+                }
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (c == '|' && depth == 0) {
+                branches.add(regex.substring(start, i));
+                start = i + 1;
+            }
+        }
+        branches.add(regex.substring(start));
+        return branches;
+    }
+
+    /**
+     * Literal runs of a branch without top level alternation.
+     */
+    private static List<String> runs(String branch) {
+        List<String> runs = new ArrayList<>();
+        StringBuilder run = new StringBuilder();
+        for (int i = 0; i < branch.length(); i++) {
+            char c = branch.charAt(i);
+            switch (c) {
+                case '\\' -> {
+                    int end = escapeEnd(branch, i);
+                    // yalnız \. kimi simvol escape-i literaldır, qalanı literalı bitirir
+                    if (end == i + 1 && !Character.isLetterOrDigit(branch.charAt(end))) {
+                        run.append(branch.charAt(end));
+                    } else {
+                        flush(run, runs);
+                    }
+                    i = end;
+                }
+                case '[' -> {
+                    i = classEnd(branch, i);
+                    flush(run, runs);
+                }
+                case '(' -> {
+                    i = groupEnd(branch, i);
+                    flush(run, runs);
+                }
+                case '*', '?' -> {
+                    dropLast(run);
+                    flush(run, runs);
+                }
+                case '{' -> {
+                    if (branch.startsWith("{0", i)) dropLast(run);
+                    int close = branch.indexOf('}', i);
+                    i = close < 0 ? branch.length() : close;
+                    flush(run, runs);
+                }
+                case '+', '.', '^', '$' -> flush(run, runs);
+                default -> run.append(c);
+            }
+        }
+        flush(run, runs);
+        return runs;
+    }
+
+    private static void dropLast(StringBuilder run) {
+        int length = run.length();
+        if (length == 0) return;
+        boolean pair = length > 1 && Character.isLowSurrogate(run.charAt(length - 1));
+        run.setLength(length - (pair ? 2 : 1));
+    }
+
+    private static void flush(StringBuilder run, List<String> runs) {
+        if (run.length() > 0) runs.add(run.toString());
+        run.setLength(0);
+    }
+
+    private static int classEnd(String regex, int open) {
+        int i = open + 1;
+        if (i < regex.length() && regex.charAt(i) == '^') i++;
+        if (i < regex.length() && regex.charAt(i) == ']') i++;
+        for (; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (c == '\\') i = escapeEnd(regex, i);
+            else if (c == ']') return i;
+        }
+        return regex.length();
+    }
+
+    private static int groupEnd(String regex, int open) {
+        int depth = 0;
+        for (int i = open; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                i = escapeEnd(regex, i);
+            } else if (c == '[') {
+                i = classEnd(regex, i);
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')' && --depth == 0) {
+                return i;
+            }
+        }
+        return regex.length();
+    }
+
+    /**
+     * Index of the last character of the escape at {@code backslash}. Escapes longer than one character
+     * (\xhh, \x{h..h}, unicode and octal escapes, \cX, \k&lt;name&gt;, \p{..}, \N{..}, back references,
+     * \Q..\E) are taken whole.
+     */
+    private static int escapeEnd(String regex, int backslash) {
+        int last = regex.length() - 1;
+        int i = backslash + 1;
+        if (i > last) return last;
+        char c = regex.charAt(i);
+        return switch (c) {
+            case 'x' -> i < last && regex.charAt(i + 1) == '{' ? closing(regex, i + 1, '}') : Math.min(i + 2, last);
+            case 'u' -> Math.min(i + 4, last);
+            case 'c' -> Math.min(i + 1, last);
+            case 'k' -> closing(regex, i + 1, '>');
+            case 'p', 'P', 'N' -> i < last && regex.charAt(i + 1) == '{'
+                    ? closing(regex, i + 1, '}')
+                    : Math.min(i + 1, last);
+            case 'Q' -> {
+                int end = regex.indexOf("\\E", i + 1);
+                yield end < 0 ? last : end + 1;
+            }
+            case '0' -> {
+                // \0n, \0nn, \0mnn: üç rəqəmə qədər
+                int j = i + 1;
+                while (j <= last && j <= i + 3 && regex.charAt(j) >= '0' && regex.charAt(j) <= '7') j++;
+                yield j - 1;
+            }
+            default -> {
+                if (c < '1' || c > '9') yield i;
+                // back reference: ardınca gələn rəqəmlər də ona aid ola bilər
+                int j = i + 1;
+                while (j <= last && Character.isDigit(regex.charAt(j))) j++;
+                yield j - 1;
+            }
+        };
+    }
+
+    private static int closing(String regex, int from, char close) {
+        int end = regex.indexOf(close, from);
+        return end < 0 ? regex.length() - 1 : end;
+    }
+}
@@ -0,0 +1,110 @@
+package stream.api.adapter.log.engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads lines backwards, from the end of a byte range towards its start, in large blocks.
+ */
+public final class ReverseLineReader {
+
+    private static final int BLOCK_SIZE = 1 << 20;
+
+    private ReverseLineReader() {
+    }
+
+    /**
+     * Visits the lines of [from, to) last to first. {@code to} is treated as a line end; an empty line
+     * right before it (a trailing '\n') is skipped.
+     *
+     * @return offset of the line the visitor stopped at, or {@code from}
+     */
+    public static long read(FileChannel channel, long from, long to, QueryContext query,
+                            LineVisitor visitor) throws IOException {
+        return read(channel, from, to, BLOCK_SIZE, query, visitor);
+    }
+
+    public static long read(FileChannel channel, long from, long to, int blockSize, QueryContext query,
+                            LineVisitor visitor) throws IOException {
+        byte[] buf = new byte[(int) Math.min(blockSize, Math.max(to - from, 16))];
+        long bufStart = to;
+        long lineEnd = to;
+        boolean first = true;
+
+        while (true) {
+            int i = (int) (lineEnd - bufStart) - 1;
+            while (i >= 0 && buf[i] != '\n') {
+                i--;
+            }
+
+            if (i >= 0 || bufStart == from) {
+                long lineStart = bufStart + i + 1;
+                boolean trailing = first && lineStart == to;
+                first = false;
+                if (!trailing) {
+                    int length = (int) (lineEnd - lineStart);
+                    if (length > 0 && buf[i + length] == '\r') {
+                        length--;
+                    }
+                    if (!visitor.visit(lineStart, buf, i + 1, length)) return lineStart;
+                }
+                if (i < 0) return from;
+                lineEnd = bufStart + i;
+                continue;
+            }
+
+            int keep = (int) (lineEnd - bufStart);
+            int readLength = (int) Math.min(blockSize, bufStart - from);
+            if (keep + readLength > buf.length) {
+                byte[] bigger = new byte[keep + readLength];
+                System.arraycopy(buf, 0, bigger, readLength, keep);
+                buf = bigger;
+            } else {
+                System.arraycopy(buf, 0, buf, readLength, keep);
+            }
+
+            long readStart = bufStart - readLength;
+            ByteBuffer bb = ByteBuffer.wrap(buf, 0, readLength);
+            while (bb.hasRemaining()) {
+                if (channel.read(bb, readStart + bb.position()) < 0) {
+                    throw new IOException("Fayl oxunarkən qısaldı");
+                }
+            }
+            query.onScanned(readLength);
+            bufStart = readStart;
+        }
+    }
+
+    /**
+     * Start of the last header line that begins before {@code pos}, looking back at most {@code maxBytes}.
+     *
+     * @return the offset, or -1 when there is none
+     */
+    public static long headerBefore(FileChannel channel, long pos, long maxBytes) throws IOException {
+        long[] found = {-1};
+        read(channel, Math.max(0, pos - maxBytes), pos, 64 * 1024, QueryContext.NONE, (offset, buf, start, length) -> {
+            if (!LogHeaders.isHeader(buf, start, length)) return true;
+            found[0] = offset;
+            return false;
+        });
+        return found[0];
+    }
+
+    /**
+     * @return offset right after the last '\n' before {@code size}, 0 when there is none
+     */
+    public static long completeEnd(FileChannel channel, long size) throws IOException {
+        if (size == 0) return 0;
+        ByteBuffer last = ByteBuffer.allocate(1);
+        channel.read(last, size - 1);
+        if (last.get(0) == '\n') return size;
+
+        long[] partial = {0};
+        read(channel, 0, size, 64 * 1024, QueryContext.NONE, (offset, buf, start, length) -> {
+            partial[0] = offset;
+            return false;
+        });
+        return partial[0];
+    }
+}
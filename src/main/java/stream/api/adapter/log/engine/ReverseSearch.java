@@ -0,0 +1,51 @@
+package stream.api.adapter.log.engine;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+
+/**
+ * Newest-first search: reads a byte range backwards in large blocks and reports matching entries last
+ * to first. Continuation lines come before their header in this direction, so a hit on one is held until
+ * the entry's header line is reached; an entry is reported once, however many of its lines match.
+ */
+public final class ReverseSearch {
+
+    private ReverseSearch() {
+    }
+
+    /**
+     * Visits every entry in [from, to) with a line {@code filter} matches, last to first. The visited
+     * line is the entry's header; its next offset is the end of the entry.
+     *
+     * @return offset of the entry the visitor stopped at, or {@code from}
+     */
+    public static long scan(FileChannel channel, long from, long to, LineFilter filter, QueryContext query,
+                            MatchVisitor visitor) throws IOException {
+        MatchedLine line = new MatchedLine();
+        long[] entryEnd = {to};
+        boolean[] hit = {false};
+
+        return ReverseLineReader.read(channel, from, to, query, (offset, buf, start, length) -> {
+            hit[0] |= filter.matches(buf, start, length);
+            if (!LogHeaders.isHeader(buf, start, length)) return true;
+
+            boolean matched = hit[0];
+            long end = entryEnd[0];
+            hit[0] = false;
+            entryEnd[0] = offset;
+            if (!matched) return true;
+
+            // sətir reader-in buferindədir, callback bitənə qədər kopyalamağa ehtiyac yoxdur
+            line.offset = offset;
+            line.nextOffset = end;
+            line.buf = buf;
+            line.start = start;
+            line.length = length;
+            line.headerOffset = offset;
+            line.headerBuf = buf;
+            line.headerStart = start;
+            line.headerLength = length;
+            return visitor.match(line);
+        });
+    }
+}
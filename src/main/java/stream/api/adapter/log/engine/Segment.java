@@ -0,0 +1,209 @@
+package stream.api.adapter.log.engine;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Immutable, memory mapped column file of the entries in one byte range of a log: entry time, header line
+ * offset, dictionary encoded thread and level. The text stays in the log and is reached through the offsets.
+ * Filters run as loops over the mapped columns; nothing is copied onto the heap.
+ */
+public final class Segment {
+
+    private static final int MAGIC = 0x53454731;
+    private static final int VERSION = 3;
+    static final byte NO_LEVEL = -1;
+
+    private final long headHash;
+    private final long fromOffset;
+    private final long toOffset;
+    private final long minMillis;
+    private final long maxMillis;
+    private final int count;
+    private final int[] threadIds;
+    private final String[] levelNames;
+    private final LongBuffer millis;
+    private final LongBuffer offsets;
+    private final IntBuffer threads;
+    private final ByteBuffer levels;
+
+    private Segment(long headHash, long fromOffset, long toOffset, long minMillis, long maxMillis, int count, int[] threadIds,
+                    String[] levelNames, LongBuffer millis, LongBuffer offsets, IntBuffer threads, ByteBuffer levels) {
+        this.headHash = headHash;
+        this.fromOffset = fromOffset;
+        this.toOffset = toOffset;
+        this.minMillis = minMillis;
+        this.maxMillis = maxMillis;
+        this.count = count;
+        this.threadIds = threadIds;
+        this.levelNames = levelNames;
+        this.millis = millis;
+        this.offsets = offsets;
+        this.threads = threads;
+        this.levels = levels;
+    }
+
+    /**
+     * {@link FileHead} hash of the log the segment was cut from.
+     */
+    public long getHeadHash() {
+        return headHash;
+    }
+
+    /**
+     * Start of the covered byte range of the log.
+     */
+    public long getFromOffset() {
+        return fromOffset;
+    }
+
+    /**
+     * End of the covered byte range: the offset of the first entry of the next segment.
+     */
+    public long getToOffset() {
+        return toOffset;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Header offsets of the entries {@code filter} accepts, in file order.
+     */
+    public void select(EntryFilter filter, LongConsumer offset) {
+        if (count == 0 || maxMillis < filter.range().from() || minMillis > filter.range().to()) return;
+
+        // dictionary-də olmayan thread/səviyyə bu seqmentdə heç bir yazıya uyğun gəlmir
+        int thread = -1;
+        if (filter.hasThread()) {
+            thread = Arrays.binarySearch(threadIds, filter.thread());
+            if (thread < 0) return;
+        }
+        byte level = NO_LEVEL;
+        if (filter.level() != null) {
+            level = (byte) Arrays.asList(levelNames).indexOf(filter.level());
+            if (level < 0) return;
+        }
+
+        long from = filter.range().from();
+        long to = filter.range().to();
+        for (int i = 0; i < count; i++) {
+            long time = millis.get(i);
+            if (time < from || time > to) continue;
+            if (thread >= 0 && threads.get(i) != thread) continue;
+            if (level >= 0 && levels.get(i) != level) continue;
+            offset.accept(offsets.get(i));
+        }
+    }
+
+    /**
+     * Writes a segment of {@code count} entries covering [fromOffset, toOffset). {@code threads} and
+     * {@code levels} hold the thread id and the index into {@code levelNames} of each entry, or -1 for none.
+     * {@code headHash} ties the segment to the log it was cut from.
+     */
+    static void write(Path file, long headHash, long fromOffset, long toOffset, int count, long[] millis, long[] offsets,
+                      int[] threads, byte[] levels, String[] levelNames) throws IOException {
+        int[] threadIds = Arrays.stream(threads, 0, count).filter(t -> t != LogHeaders.NO_THREAD)
+                .distinct().sorted().toArray();
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            min = Math.min(min, millis[i]);
+            max = Math.max(max, millis[i]);
+        }
+
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(headHash);
+            out.writeLong(fromOffset);
+            out.writeLong(toOffset);
+            out.writeLong(min);
+            out.writeLong(max);
+            out.writeInt(count);
+            out.writeInt(threadIds.length);
+            for (int id : threadIds) {
+                out.writeInt(id);
+            }
+            out.writeInt(levelNames.length);
+            for (String name : levelNames) {
+                byte[] bytes = name.getBytes(StandardCharsets.US_ASCII);
+                out.writeByte(bytes.length);
+                out.write(bytes);
+            }
+            // long sütunlar 8 bayta düzlənir
+            while (out.size() % Long.BYTES != 0) {
+                out.writeByte(0);
+            }
+            for (int i = 0; i < count; i++) {
+                out.writeLong(millis[i]);
+            }
+            for (int i = 0; i < count; i++) {
+                out.writeLong(offsets[i]);
+            }
+            for (int i = 0; i < count; i++) {
+                out.writeInt(threads[i] == LogHeaders.NO_THREAD ? -1 : Arrays.binarySearch(threadIds, threads[i]));
+            }
+            out.write(levels, 0, count);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Maps a segment written by {@link #write}.
+     *
+     * @throws IOException when the file is not a complete segment
+     */
+    static Segment open(Path file) throws IOException {
+        MappedByteBuffer buf;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        try {
+            if (buf.getInt() != MAGIC || buf.getInt() != VERSION) throw new IOException("Seqment deyil: " + file);
+            long headHash = buf.getLong();
+            long fromOffset = buf.getLong();
+            long toOffset = buf.getLong();
+            long min = buf.getLong();
+            long max = buf.getLong();
+            int count = buf.getInt();
+            int[] threadIds = new int[buf.getInt()];
+            for (int i = 0; i < threadIds.length; i++) {
+                threadIds[i] = buf.getInt();
+            }
+            String[] levelNames = new String[buf.getInt()];
+            for (int i = 0; i < levelNames.length; i++) {
+                byte[] name = new byte[buf.get()];
+                buf.get(name);
+                levelNames[i] = new String(name, StandardCharsets.US_ASCII);
+            }
+
+            int pos = (buf.position() + Long.BYTES - 1) / Long.BYTES * Long.BYTES;
+            int longs = count * Long.BYTES;
+            int ints = count * Integer.BYTES;
+            if (buf.capacity() != pos + 2 * longs + ints + count) throw new IOException("Seqment natamamdır: " + file);
+            return new Segment(headHash, fromOffset, toOffset, min, max, count, threadIds, levelNames,
+                    buf.slice(pos, longs).asLongBuffer(),
+                    buf.slice(pos + longs, longs).asLongBuffer(),
+                    buf.slice(pos + 2 * longs, ints).asIntBuffer(),
+                    buf.slice(pos + 2 * longs + ints, count));
+        } catch (RuntimeException e) {
+            throw new IOException("Seqment oxunmadı: " + file, e);
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package stream.api.adapter.log.engine;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Columnar copy of a log's entry headers, kept in a directory of immutable {@link Segment} files of
+ * {@value #SEGMENT_ENTRIES} entries each. Only complete segments are written; the open tail of the file
+ * is read as text. A file that became shorter, or whose head is not the one the segments were cut from,
+ * starts a new generation of segments.
+ */
+public class SegmentStore {
+
+    private static final int SEGMENT_ENTRIES = 64 * 1024;
+    private static final String SUFFIX = ".seg";
+
+    private final Path dir;
+    // yalnız update dəyişdirir, oxuyanlar hazır siyahını götürür
+    private volatile List<Segment> segments = List.of();
+    private int generation;
+    private long seenSize = -1;
+
+    private SegmentStore(Path dir) {
+        this.dir = dir;
+    }
+
+    public long getIndexedBytes() {
+        List<Segment> current = segments;
+        return current.isEmpty() ? 0 : current.get(current.size() - 1).getToOffset();
+    }
+
+    /**
+     * Writes the segments completed since the last call.
+     *
+     * @return true when something changed
+     */
+    public synchronized boolean update(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size == seenSize) return false;
+        seenSize = size;
+        // seqment bağlananda fayl həmişə FileHead.BYTES-dan uzundur, hash tam baş hissədən alınır
+        long headHash = FileHead.hash(channel, size);
+        List<Segment> current = segments;
+        boolean reset = size < getIndexedBytes()
+                || (!current.isEmpty() && current.get(0).getHeadHash() != headHash);
+        if (reset) {
+            reset();
+        }
+
+        Builder builder = new Builder(getIndexedBytes(), headHash);
+        try {
+            LineReader.read(channel, builder.segmentStart, size, false, builder);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return reset || builder.written > 0;
+    }
+
+    /**
+     * Header offsets of the entries {@code filter} accepts, in file order: the segments answer from their
+     * columns, the rest of the file is read.
+     */
+    public long[] select(FileChannel channel, EntryFilter filter, QueryContext query) throws IOException {
+        List<Segment> current = segments;
+        LongStream.Builder offsets = LongStream.builder();
+        for (Segment segment : current) {
+            query.check();
+            segment.select(filter, offsets);
+        }
+        long from = current.isEmpty() ? 0 : current.get(current.size() - 1).getToOffset();
+        scan(channel, from, channel.size(), filter, query, offsets);
+        return offsets.build().toArray();
+    }
+
+    /**
+     * Reads [from, to) as text and reports the header offsets of the entries {@code filter} accepts.
+     */
+    public static void scan(FileChannel channel, long from, long to, EntryFilter filter, QueryContext query,
+                            LongConsumer offsets) throws IOException {
+        LogHeader header = new LogHeader();
+        LineReader.read(channel, from, to, true, 1 << 20, query, (offset, buf, start, length) -> {
+            if (!LogHeaders.parse(buf, start, length, header)) return true;
+            String level = filter.level() == null ? null : ActivityStats.level(buf, start, length);
+            if (filter.matches(header.getMillis(), header.getThread(), level)) {
+                offsets.accept(offset);
+            }
+            return true;
+        });
+    }
+
+    /**
+     * Opens the segments of the newest generation in {@code dir}; segments after a missing or broken one
+     * are dropped and written again.
+     */
+    public static SegmentStore load(Path dir) {
+        SegmentStore store = new SegmentStore(dir);
+        if (!Files.isDirectory(dir)) return store;
+
+        List<Path> files;
+        try (Stream<Path> list = Files.list(dir)) {
+            files = list.filter(p -> p.getFileName().toString().endsWith(SUFFIX)).toList();
+        } catch (IOException e) {
+            return store;
+        }
+        store.generation = files.stream().mapToInt(SegmentStore::generationOf).max().orElse(0);
+
+        List<Segment> segments = new ArrayList<>();
+        for (Path file : files.stream().filter(p -> generationOf(p) == store.generation)
+                .sorted(Comparator.comparing(p -> p.getFileName().toString())).toList()) {
+            try {
+                Segment segment = Segment.open(file);
+                long expected = segments.isEmpty() ? 0 : segments.get(segments.size() - 1).getToOffset();
+                if (segment.getFromOffset() != expected) break;
+                if (!segments.isEmpty() && segment.getHeadHash() != segments.get(0).getHeadHash()) break;
+                segments.add(segment);
+            } catch (IOException e) {
+                break;
+            }
+        }
+        store.segments = List.copyOf(segments);
+        store.deleteOlderGenerations(files);
+        return store;
+    }
+
+    private void reset() {
+        generation++;
+        segments = List.of();
+        try (Stream<Path> list = Files.list(dir)) {
+            deleteOlderGenerations(list.toList());
+        } catch (IOException e) {
+            // köhnə seqmentlər növbəti load zamanı silinir
+        }
+    }
+
+    private void deleteOlderGenerations(List<Path> files) {
+        for (Path file : files) {
+            if (!file.getFileName().toString().endsWith(SUFFIX) || generationOf(file) >= generation) continue;
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                // Windows-da map olunmuş fayl silinmir, sonra yenidən cəhd edilir
+            }
+        }
+    }
+
+    private void add(Segment segment) {
+        List<Segment> grown = new ArrayList<>(segments);
+        grown.add(segment);
+        segments = List.copyOf(grown);
+    }
+
+    private Path segmentFile(int index) {
+        return dir.resolve(String.format("%d-%08d%s", generation, index, SUFFIX));
+    }
+
+    private static int generationOf(Path file) {
+        String name = file.getFileName().toString();
+        int dash = name.indexOf('-');
+        try {
+            return dash < 0 ? -1 : Integer.parseInt(name.substring(0, dash));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private final class Builder implements LineVisitor {
+        private final LogHeader header = new LogHeader();
+        private final long[] millis = new long[SEGMENT_ENTRIES];
+        private final long[] offsets = new long[SEGMENT_ENTRIES];
+        private final int[] threads = new int[SEGMENT_ENTRIES];
+        private final byte[] levels = new byte[SEGMENT_ENTRIES];
+        private final List<String> levelNames = new ArrayList<>();
+        private final Map<String, Byte> levelCodes = new HashMap<>();
+        private final long headHash;
+        private long segmentStart;
+        private int count;
+        private int written;
+
+        Builder(long segmentStart, long headHash) {
+            this.segmentStart = segmentStart;
+            this.headHash = headHash;
+        }
+
+        @Override
+        public boolean visit(long offset, byte[] buf, int start, int length) {
+            if (!LogHeaders.parse(buf, start, length, header)) return true;
+            // seqment yalnız növbəti yazının header-i gələndə bağlanır, sonuncu yazı tam olsun deyə
+            if (count == SEGMENT_ENTRIES) {
+                close(offset);
+            }
+
+            millis[count] = header.getMillis();
+            offsets[count] = offset;
+            threads[count] = header.getThread();
+            levels[count] = levelCode(ActivityStats.level(buf, start, length));
+            count++;
+            return true;
+        }
+
+        private byte levelCode(String level) {
+            if (level == null) return Segment.NO_LEVEL;
+            Byte code = levelCodes.get(level);
+            if (code == null) {
+                // 127-dən çox səviyyə adı olmur; olarsa qalanları səviyyəsiz sayılır
+                if (levelNames.size() == Byte.MAX_VALUE) return Segment.NO_LEVEL;
+                code = (byte) levelNames.size();
+                levelNames.add(level);
+                levelCodes.put(level, code);
+            }
+            return code;
+        }
+
+        private void close(long end) {
+            try {
+                Files.createDirectories(dir);
+                Path file = segmentFile(segments.size());
+                Segment.write(file, headHash, segmentStart, end, count, millis, offsets, threads, levels,
+                        levelNames.toArray(String[]::new));
+                add(Segment.open(file));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            segmentStart = end;
+            count = 0;
+            levelNames.clear();
+            levelCodes.clear();
+            written++;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package stream.api.adapter.log.engine;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Sequential, line by line search for channels that cannot be memory mapped (archives) and for filters
+ * without a prefilter literal. Same contract as {@link MappedSearch}; the last header line seen is kept so
+ * continuation lines get their entry's header.
+ */
+public final class StreamSearch {
+
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private StreamSearch() {
+    }
+
+    public static long scan(FileChannel channel, long from, long to, LineFilter filter, QueryContext query,
+                            MatchVisitor visitor) throws IOException {
+        MatchedLine line = new MatchedLine();
+        long[] stoppedAt = {-1};
+
+        LineReader.read(channel, from, to, true, BUFFER_SIZE, query, (offset, buf, start, length) -> {
+            if (LogHeaders.isHeader(buf, start, length)) {
+                line.headerOffset = offset;
+                line.headerBuf = copy(buf, start, length, line.headerBuf);
+                line.headerStart = 0;
+                line.headerLength = length;
+            }
+            if (!filter.matches(buf, start, length)) return true;
+
+            int terminator = start + length < buf.length && buf[start + length] == '\r' ? 2 : 1;
+            line.offset = offset;
+            line.nextOffset = Math.min(to, offset + length + terminator);
+            line.buf = copy(buf, start, length, line.buf);
+            line.start = 0;
+            line.length = length;
+            if (visitor.match(line)) return true;
+            stoppedAt[0] = line.nextOffset;
+            return false;
+        });
+        return stoppedAt[0] >= 0 ? stoppedAt[0] : to;
+    }
+
+    private static byte[] copy(byte[] src, int start, int length, byte[] target) {
+        if (target.length < length) {
+            target = Arrays.copyOf(target, Math.max(length, target.length * 2));
+        }
+        System.arraycopy(src, start, target, 0, length);
+        return target;
+    }
+}
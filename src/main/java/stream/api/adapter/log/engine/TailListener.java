@@ -0,0 +1,18 @@
+package stream.api.adapter.log.engine;
+
+import java.io.IOException;
+
+@FunctionalInterface
+public interface TailListener {
+
+    /**
+     * The bytes of the line, without its terminator; only valid during the call.
+     */
+    void onLine(byte[] buf, int start, int length) throws IOException;
+
+    /**
+     * Called once when the tailer drops the subscription because of an error.
+     */
+    default void onClose(Exception e) {
+    }
+}
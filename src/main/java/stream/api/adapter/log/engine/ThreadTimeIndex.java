@@ -0,0 +1,226 @@
+package stream.api.adapter.log.engine;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per file index of (epoch-millis, byte offset) entries for every header line, grouped by thread id.
+ * Entries of one thread are in file order, which is also time order for that thread.
+ */
+public class ThreadTimeIndex {
+
+    private static final int MAGIC = 0x54494458;
+    private static final int VERSION = 3;
+    private static final int BATCH_SIZE = 64 * 1024;
+
+    private final Map<Integer, Postings> threads = new HashMap<>();
+    private volatile long indexedBytes;
+    private volatile long headHash;
+    private volatile long lastMillis = LogHeaders.NO_TIME;
+
+    public long getIndexedBytes() {
+        return indexedBytes;
+    }
+
+    public long getLastMillis() {
+        return lastMillis;
+    }
+
+    /**
+     * True when every line up to {@code millis} is already in the index.
+     */
+    public boolean covers(long millis) {
+        return lastMillis != LogHeaders.NO_TIME && lastMillis > millis;
+    }
+
+    /**
+     * Indexes the lines appended since the last call. A file that became shorter, or whose head changed,
+     * is re-indexed from scratch.
+     *
+     * @return true when something changed
+     */
+    public boolean update(FileChannel channel) throws IOException {
+        long size = channel.size();
+        boolean reset = !matches(channel);
+        if (reset) {
+            reset();
+        }
+        long indexed = indexedBytes;
+        if (size == indexed) return reset;
+
+        Batch batch = new Batch();
+        long end = LineReader.read(channel, indexed, size, false, batch);
+        batch.flush(end);
+        if (indexed < FileHead.BYTES) {
+            // baş hissə hələ tam indekslənməyib, hash-i oxunan hissəyə görə yenilənir
+            headHash = FileHead.hash(channel, end);
+        }
+        return true;
+    }
+
+    /**
+     * False when the file is shorter than the index or its head is not the one the index was built on.
+     */
+    private boolean matches(FileChannel channel) throws IOException {
+        long indexed = indexedBytes;
+        if (channel.size() < indexed) return false;
+        return indexed == 0 || FileHead.hash(channel, indexed) == headHash;
+    }
+
+    /**
+     * Offsets of header lines of {@code thread} whose time is within [from, to], in file order.
+     */
+    public synchronized long[] lookup(int thread, long from, long to) {
+        Postings postings = threads.get(thread);
+        if (postings == null) return new long[0];
+
+        int i = postings.lowerBound(from);
+        int j = i;
+        while (j < postings.size && postings.millis[j] <= to) {
+            j++;
+        }
+        return Arrays.copyOfRange(postings.offsets, i, j);
+    }
+
+    public synchronized void save(Path sidecar) throws IOException {
+        Path tmp = sidecar.resolveSibling(sidecar.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(indexedBytes);
+            out.writeLong(headHash);
+            out.writeLong(lastMillis);
+            out.writeInt(threads.size());
+            for (Map.Entry<Integer, Postings> e : threads.entrySet()) {
+                Postings p = e.getValue();
+                out.writeInt(e.getKey());
+                out.writeInt(p.size);
+                for (int i = 0; i < p.size; i++) {
+                    out.writeLong(p.millis[i]);
+                    out.writeLong(p.offsets[i]);
+                }
+            }
+        }
+        Files.move(tmp, sidecar, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @param channel the indexed file, to check that the sidecar was built on it
+     * @return the saved index, or an empty one when the sidecar is missing, unreadable or belongs to an
+     * earlier file of the same name
+     */
+    public static ThreadTimeIndex load(Path sidecar, FileChannel channel) {
+        ThreadTimeIndex index = new ThreadTimeIndex();
+        if (!Files.exists(sidecar)) return index;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(sidecar)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) return new ThreadTimeIndex();
+            index.indexedBytes = in.readLong();
+            index.headHash = in.readLong();
+            index.lastMillis = in.readLong();
+            int threadCount = in.readInt();
+            for (int t = 0; t < threadCount; t++) {
+                int thread = in.readInt();
+                int size = in.readInt();
+                Postings p = new Postings(size);
+                for (int i = 0; i < size; i++) {
+                    p.add(in.readLong(), in.readLong());
+                }
+                index.threads.put(thread, p);
+            }
+            return index.matches(channel) ? index : new ThreadTimeIndex();
+        } catch (IOException e) {
+            return new ThreadTimeIndex();
+        }
+    }
+
+    private synchronized void reset() {
+        threads.clear();
+        indexedBytes = 0;
+        headHash = 0;
+        lastMillis = LogHeaders.NO_TIME;
+    }
+
+    private synchronized void append(int[] ids, long[] millis, long[] offsets, int count, long end, long maxMillis) {
+        for (int i = 0; i < count; i++) {
+            threads.computeIfAbsent(ids[i], k -> new Postings(64)).add(millis[i], offsets[i]);
+        }
+        indexedBytes = end;
+        if (maxMillis > lastMillis) {
+            lastMillis = maxMillis;
+        }
+    }
+
+    private final class Batch implements LineVisitor {
+        private final LogHeader header = new LogHeader();
+        private final int[] ids = new int[BATCH_SIZE];
+        private final long[] millis = new long[BATCH_SIZE];
+        private final long[] offsets = new long[BATCH_SIZE];
+        private int count;
+        private long maxMillis = LogHeaders.NO_TIME;
+
+        @Override
+        public boolean visit(long offset, byte[] buf, int start, int length) {
+            if (count == BATCH_SIZE) {
+                flush(offset);
+            }
+            if (!LogHeaders.parse(buf, start, length, header)) return true;
+
+            maxMillis = Math.max(maxMillis, header.getMillis());
+            if (!header.hasThread()) return true;
+
+            ids[count] = header.getThread();
+            millis[count] = header.getMillis();
+            offsets[count] = offset;
+            count++;
+            return true;
+        }
+
+        void flush(long end) {
+            append(ids, millis, offsets, count, end, maxMillis);
+            count = 0;
+        }
+    }
+
+    private static final class Postings {
+        private long[] millis;
+        private long[] offsets;
+        private int size;
+
+        Postings(int capacity) {
+            millis = new long[Math.max(capacity, 16)];
+            offsets = new long[millis.length];
+        }
+
+        void add(long time, long offset) {
+            if (size == millis.length) {
+                millis = Arrays.copyOf(millis, size * 2);
+                offsets = Arrays.copyOf(offsets, size * 2);
+            }
+            millis[size] = time;
+            offsets[size] = offset;
+            size++;
+        }
+
+        int lowerBound(long time) {
+            int lo = 0;
+            int hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (millis[mid] < time) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+    }
+}
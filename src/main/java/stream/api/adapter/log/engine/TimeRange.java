@@ -0,0 +1,62 @@
+package stream.api.adapter.log.engine;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+
+/**
+ * Inclusive [from, to] range of epoch millis.
+ */
+public record TimeRange(long from, long to) {
+
+    public static final TimeRange ALL = new TimeRange(Long.MIN_VALUE, Long.MAX_VALUE);
+
+    private static final long PROBE_BYTES = 1 << 20;
+
+    /**
+     * Range from optional user given bounds, see {@link LogHeaders#parseTime}.
+     */
+    public static TimeRange of(String from, String to) {
+        long start = LogHeaders.parseTime(from);
+        long end = LogHeaders.parseTime(to);
+        TimeRange range = new TimeRange(start == LogHeaders.NO_TIME ? Long.MIN_VALUE : start,
+                end == LogHeaders.NO_TIME ? Long.MAX_VALUE : end);
+        if (range.from > range.to) {
+            throw new RuntimeException("Başlanğıc vaxtı bitmə vaxtından sonra ola bilməz");
+        }
+        return range;
+    }
+
+    /**
+     * Times of the first and the last header line of the file, or {@link #ALL} when either is not
+     * found near its end of the file.
+     */
+    public static TimeRange ofFile(FileChannel channel, QueryContext query) throws IOException {
+        long size = channel.size();
+        LogHeader header = new LogHeader();
+        long[] range = {LogHeaders.NO_TIME, LogHeaders.NO_TIME};
+
+        LineReader.read(channel, 0, Math.min(size, PROBE_BYTES), false, 64 * 1024, query,
+                (offset, buf, start, length) -> {
+                    if (!LogHeaders.parse(buf, start, length, header)) return true;
+                    range[0] = header.getMillis();
+                    return false;
+                });
+        ReverseLineReader.read(channel, Math.max(0, size - PROBE_BYTES), size, 64 * 1024, query,
+                (offset, buf, start, length) -> {
+                    if (!LogHeaders.parse(buf, start, length, header)) return true;
+                    range[1] = header.getMillis();
+                    return false;
+                });
+
+        if (range[0] == LogHeaders.NO_TIME || range[1] == LogHeaders.NO_TIME) return ALL;
+        return new TimeRange(Math.min(range[0], range[1]), Math.max(range[0], range[1]));
+    }
+
+    public boolean isAll() {
+        return from == Long.MIN_VALUE && to == Long.MAX_VALUE;
+    }
+
+    public boolean overlaps(TimeRange other) {
+        return from <= other.to && other.from <= to;
+    }
+}
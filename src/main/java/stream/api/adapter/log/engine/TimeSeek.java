@@ -0,0 +1,87 @@
+package stream.api.adapter.log.engine;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+
+/**
+ * Binary search over byte offsets of a timestamp ordered log file. A probe lands anywhere in the file,
+ * skips the partial line it landed in and any continuation lines, and reads the time of the next header
+ * line. Once the range is small it is finished with a short forward read.
+ */
+public final class TimeSeek {
+
+    private static final long LINEAR_BYTES = 64 * 1024;
+    private static final int PROBE_BUFFER = 16 * 1024;
+
+    private TimeSeek() {
+    }
+
+    /**
+     * Byte range holding the entries whose header time is within {@code range}: from the first header at
+     * or after {@code range.from()} to the first header after {@code range.to()}.
+     */
+    public static long[] slice(FileChannel channel, TimeRange range, QueryContext query) throws IOException {
+        long end = ReverseLineReader.completeEnd(channel, channel.size());
+        long from = range.from() == Long.MIN_VALUE ? 0 : offsetOf(channel, range.from(), end, query);
+        long to = range.to() == Long.MAX_VALUE ? end : offsetOf(channel, range.to() + 1, end, query);
+        return new long[]{from, Math.max(from, to)};
+    }
+
+    /**
+     * Offset of the first header line with time {@code >= millis}, or {@code end} when there is none.
+     */
+    public static long offsetOf(FileChannel channel, long millis, long end, QueryContext query) throws IOException {
+        LogHeader header = new LogHeader();
+        long lo = 0;
+        long hi = end;
+        // invariant: cavab [lo, hi] aralığındadır və lo sətir başlanğıcıdır
+        while (hi - lo > LINEAR_BYTES) {
+            query.check();
+            long mid = (lo + hi) >>> 1;
+            long[] probe = headerAtOrAfter(channel, mid, hi, header, query);
+            if (probe == null) {
+                hi = mid;
+            } else if (header.getMillis() < millis) {
+                lo = probe[1];
+            } else {
+                hi = probe[0];
+            }
+        }
+        return firstAtOrAfter(channel, lo, end, millis, header, query);
+    }
+
+    /**
+     * First header line starting in [pos, limit), skipping the line {@code pos} falls into.
+     *
+     * @return its offset and the offset after it, or {@code null}
+     */
+    private static long[] headerAtOrAfter(FileChannel channel, long pos, long limit, LogHeader header,
+                                          QueryContext query) throws IOException {
+        long[] found = {-1, -1};
+        boolean[] first = {true};
+        // pos-1-dən oxuyuruq: ilk sətir yarımçıqdır, pos sətir başıdırsa boş sətirdir
+        long stop = LineReader.read(channel, pos - 1, limit, false, PROBE_BUFFER, query, (offset, buf, s, length) -> {
+            if (first[0]) {
+                first[0] = false;
+                return true;
+            }
+            if (!LogHeaders.parse(buf, s, length, header)) return true;
+            found[0] = offset;
+            return false;
+        });
+        if (found[0] < 0) return null;
+        found[1] = stop;
+        return found;
+    }
+
+    private static long firstAtOrAfter(FileChannel channel, long from, long end, long millis, LogHeader header,
+                                       QueryContext query) throws IOException {
+        long[] found = {end};
+        LineReader.read(channel, from, end, false, PROBE_BUFFER, query, (offset, buf, s, length) -> {
+            if (!LogHeaders.parse(buf, s, length, header) || header.getMillis() < millis) return true;
+            found[0] = offset;
+            return false;
+        });
+        return found[0];
+    }
+}
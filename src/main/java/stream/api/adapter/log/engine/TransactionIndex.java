@@ -0,0 +1,339 @@
+package stream.api.adapter.log.engine;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Transaction spans of one file: every "REQ:" line paired with the next "RES:" line of the same thread,
+ * plus the continuation lines of that thread in between. Spans are indexed by the values that follow
+ * "Serial:" / "Result:" and "id:" in their lines. Built in one forward pass and extended incrementally.
+ * One caller at a time reads the file, outside the monitor the lookups take; the others wait for it
+ * within their own query limits.
+ */
+public class TransactionIndex {
+
+    private static final BytePattern REQ = new BytePattern("REQ:");
+    private static final BytePattern RES = new BytePattern("RES:");
+    private static final BytePattern[] VALUE_MARKERS = {
+            new BytePattern("Serial:"), new BytePattern("serial:"), new BytePattern("Result:")
+    };
+    private static final BytePattern ID_MARKER = new BytePattern("id:");
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final long WAIT_POLL_MILLIS = 100;
+
+    private final Map<String, Refs> byValue = new HashMap<>();
+    private final Map<String, Refs> byId = new HashMap<>();
+    private final Map<Integer, String> firstIds = new HashMap<>();
+    private final List<String> operations = new ArrayList<>();
+    private final Map<String, Integer> operationIds = new HashMap<>();
+
+    private long[] starts = new long[1024];
+    private long[] ends = new long[1024];
+    private long[] millis = new long[1024];
+    private int[] threads = new int[1024];
+    private int[] ops = new int[1024];
+    private int count;
+
+    // keçən update-dən qalan vəziyyət: açıq span-lar və son header-in thread-i
+    private final Map<Integer, Integer> open = new HashMap<>();
+    private final Pass pass = new Pass();
+    private final ReentrantLock updating = new ReentrantLock();
+    private int currentThread = LogHeaders.NO_THREAD;
+    private int closing = -1;
+    private long indexedBytes;
+    private long headHash;
+
+    public synchronized long getIndexedBytes() {
+        return indexedBytes;
+    }
+
+    /**
+     * Reads the lines appended since the last call, within the deadline and scan budget of {@code query}.
+     * A file that became shorter, or whose head changed, is re-indexed from scratch. A cancelled read
+     * keeps the lines it got through; the next call goes on from there.
+     */
+    public void update(FileChannel channel, QueryContext query) throws IOException {
+        try {
+            // başqa sorğu artıq oxuyur: öz limitimiz daxilində gözləyirik
+            while (!updating.tryLock(WAIT_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                query.check();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Tranzaksiya indeksi gözlənilərkən dayandırıldı");
+        }
+        try {
+            long size = channel.size();
+            long indexed;
+            synchronized (this) {
+                if (size < indexedBytes || (indexedBytes > 0 && FileHead.hash(channel, indexedBytes) != headHash)) {
+                    reset();
+                }
+                indexed = indexedBytes;
+            }
+            if (size == indexed) return;
+            pass.end = indexed;
+            try {
+                LineReader.read(channel, indexed, size, false, BUFFER_SIZE, query, pass);
+            } finally {
+                synchronized (this) {
+                    indexedBytes = pass.end;
+                    if (indexed < FileHead.BYTES) {
+                        headHash = FileHead.hash(channel, indexedBytes);
+                    }
+                }
+            }
+        } finally {
+            updating.unlock();
+        }
+    }
+
+    /**
+     * Spans having {@code value} after "Serial:" or "Result:", in file order.
+     */
+    public synchronized int[] byValue(String value) {
+        Refs refs = byValue.get(value);
+        return refs == null ? new int[0] : refs.toArray();
+    }
+
+    /**
+     * Spans having {@code id} after "id:", in file order.
+     */
+    public synchronized int[] byId(String id) {
+        Refs refs = byId.get(id);
+        return refs == null ? new int[0] : refs.toArray();
+    }
+
+    public synchronized int size() {
+        return count;
+    }
+
+    public synchronized String operation(int span) {
+        return operations.get(ops[span]);
+    }
+
+    public synchronized int thread(int span) {
+        return threads[span];
+    }
+
+    public synchronized long millis(int span) {
+        return millis[span];
+    }
+
+    /**
+     * @return the first "id:" value seen in the span, or {@code null}
+     */
+    public synchronized String firstId(int span) {
+        return firstIds.get(span);
+    }
+
+    /**
+     * Lines of the span: the lines of its thread from the REQ line through the RES line, each with its
+     * continuation lines.
+     */
+    public List<String> lines(FileChannel channel, int span, QueryContext query) throws IOException {
+        long from;
+        long to;
+        int thread;
+        synchronized (this) {
+            from = starts[span];
+            to = ends[span];
+            thread = threads[span];
+        }
+
+        List<String> lines = new ArrayList<>();
+        LogHeader header = new LogHeader();
+        boolean[] emitting = {false};
+        LineReader.read(channel, from, to, true, 64 * 1024, query, (offset, buf, start, length) -> {
+            if (LogHeaders.parse(buf, start, length, header)) {
+                emitting[0] = header.getThread() == thread;
+            }
+            if (emitting[0]) {
+                // span-ın sonu "\r\n"-in ortasına düşə bilər
+                int n = length > 0 && buf[start + length - 1] == '\r' ? length - 1 : length;
+                lines.add(new String(buf, start, n, StandardCharsets.UTF_8));
+            }
+            return true;
+        });
+        return lines;
+    }
+
+    private void reset() {
+        byValue.clear();
+        byId.clear();
+        firstIds.clear();
+        open.clear();
+        count = 0;
+        currentThread = LogHeaders.NO_THREAD;
+        closing = -1;
+        indexedBytes = 0;
+        headHash = 0;
+    }
+
+    private int addSpan(long offset, long end, long time, int thread, String operation) {
+        if (count == starts.length) {
+            int capacity = count * 2;
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            millis = Arrays.copyOf(millis, capacity);
+            threads = Arrays.copyOf(threads, capacity);
+            ops = Arrays.copyOf(ops, capacity);
+        }
+        Integer op = operationIds.get(operation);
+        if (op == null) {
+            op = operations.size();
+            operations.add(operation);
+            operationIds.put(operation, op);
+        }
+        starts[count] = offset;
+        ends[count] = end;
+        millis[count] = time;
+        threads[count] = thread;
+        ops[count] = op;
+        return count++;
+    }
+
+    private void indexValues(int span, byte[] buf, int start, int end) {
+        for (BytePattern marker : VALUE_MARKERS) {
+            String value = valueAfter(marker, buf, start, end);
+            if (value != null) {
+                byValue.computeIfAbsent(value, k -> new Refs()).add(span);
+            }
+        }
+        String id = valueAfter(ID_MARKER, buf, start, end);
+        if (id != null) {
+            byId.computeIfAbsent(id, k -> new Refs()).add(span);
+            firstIds.putIfAbsent(span, id);
+        }
+    }
+
+    /**
+     * Value after the first {@code marker} that starts a word, up to the next space, ',', ';' or bracket.
+     */
+    private static String valueAfter(BytePattern marker, byte[] buf, int start, int end) {
+        int at = marker.indexOf(buf, start, end);
+        // "orderId:" və ya "paid:" kimi sözlərin içindəki marker nəzərə alınmır
+        while (at > start && isWordByte(buf[at - 1])) {
+            at = marker.indexOf(buf, at + 1, end);
+        }
+        if (at < 0) return null;
+
+        int from = at + marker.length();
+        while (from < end && buf[from] == ' ') {
+            from++;
+        }
+        int to = from;
+        while (to < end && !isValueEnd(buf[to])) {
+            to++;
+        }
+        return to > from ? new String(buf, from, to - from, StandardCharsets.UTF_8) : null;
+    }
+
+    static String operationAfter(int at, byte[] buf, int end) {
+        int from = at + REQ.length();
+        while (from < end && buf[from] == ' ') {
+            from++;
+        }
+        int to = from;
+        while (to < end && isWordByte(buf[to])) {
+            to++;
+        }
+        return new String(buf, from, to - from, StandardCharsets.US_ASCII);
+    }
+
+    private static boolean isWordByte(byte b) {
+        return (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z') || (b >= '0' && b <= '9') || b == '_';
+    }
+
+    private static boolean isValueEnd(byte b) {
+        return b == ' ' || b == ',' || b == ';' || b == ']' || b == ')' || b == '}' || b == '"' || b == '\t';
+    }
+
+    /**
+     * Applies one line under the monitor, so lookups only wait for a line, never for the whole read.
+     */
+    private final class Pass implements LineVisitor {
+        private final LogHeader header = new LogHeader();
+        // sonuncu tam işlənmiş sətrin sonu
+        private long end;
+
+        @Override
+        public boolean visit(long offset, byte[] buf, int start, int length) {
+            synchronized (TransactionIndex.this) {
+                visitLocked(offset, buf, start, length);
+                // sətir "\r\n" ilə bitə bilər
+                this.end = offset + length + (buf[start + length] == '\r' ? 2 : 1);
+            }
+            return true;
+        }
+
+        private void visitLocked(long offset, byte[] buf, int start, int length) {
+            int end = start + length;
+            long lineEnd = offset + length + 1;
+
+            if (LogHeaders.parse(buf, start, length, header)) {
+                currentThread = header.getThread();
+                closing = -1;
+                if (!header.hasThread()) return;
+
+                int body = start + LogHeaders.TIMESTAMP_LENGTH;
+                int at = REQ.indexOf(buf, body, end);
+                if (at >= 0) {
+                    // eyni thread-də RES gəlmədən yeni REQ: köhnə span açıq qalır
+                    int span = addSpan(offset, lineEnd, header.getMillis(), currentThread,
+                            operationAfter(at, buf, end));
+                    open.put(currentThread, span);
+                    indexValues(span, buf, body, end);
+                    return;
+                }
+
+                Integer span = open.get(currentThread);
+                if (span == null) return;
+                ends[span] = lineEnd;
+                indexValues(span, buf, body, end);
+                if (RES.indexOf(buf, body, end) >= 0) {
+                    open.remove(currentThread);
+                    closing = span;
+                }
+                return;
+            }
+
+            // davam sətri (stack trace və s.) son header-in span-ına aiddir
+            int span = closing;
+            if (span < 0 && currentThread != LogHeaders.NO_THREAD) {
+                Integer openSpan = open.get(currentThread);
+                span = openSpan == null ? -1 : openSpan;
+            }
+            if (span >= 0) {
+                ends[span] = lineEnd;
+                indexValues(span, buf, start, end);
+            }
+        }
+    }
+
+    private static final class Refs {
+        private int[] spans = new int[2];
+        private int size;
+
+        void add(int span) {
+            if (size > 0 && spans[size - 1] == span) return;
+            if (size == spans.length) {
+                spans = Arrays.copyOf(spans, size * 2);
+            }
+            spans[size++] = span;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(spans, size);
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package stream.api.adapter.log.engine;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Block-skip index for substring search. The file is cut into entry aligned blocks of about 1MB and
+ * every block keeps a bloom filter of the byte trigrams of its lines. A literal can only occur in a block
+ * whose filter has all of its trigrams, so the other blocks are never read. 6-grams go into the same
+ * filter: digit-only ids use up every trigram of a block, their 6-grams still tell blocks apart.
+ * Only complete blocks are indexed; the open tail of the file is always searched.
+ */
+public class TrigramIndex {
+
+    private static final int MAGIC = 0x54524758;
+    private static final int VERSION = 1;
+    private static final long BLOCK_SIZE = 1 << 20;
+    private static final int FILTER_SHIFT = 18;
+    private static final int FILTER_BITS = 1 << FILTER_SHIFT;
+    private static final long TRIGRAM_MASK = 0xFFFFFFL;
+    private static final long LONG_GRAM_MASK = 0xFFFFFFFFFFFFL;
+    private static final long LONG_GRAM_TAG = 1L << 48;
+    private static final int FILTER_WORDS = FILTER_BITS / 64;
+
+    // blok i = [bounds[i], bounds[i + 1])
+    private long[] bounds = new long[17];
+    private long[][] filters = new long[16][];
+    private int blocks;
+    private long headHash;
+
+    public synchronized long getIndexedBytes() {
+        return bounds[blocks];
+    }
+
+    /**
+     * Indexes the blocks completed since the last call. A file that became shorter, or whose head
+     * changed, is re-indexed from scratch.
+     *
+     * @return true when something changed
+     */
+    public boolean update(FileChannel channel) throws IOException {
+        long size = channel.size();
+        boolean reset = !matches(channel);
+        long indexed = getIndexedBytes();
+        if (reset) {
+            reset();
+            indexed = 0;
+        }
+        if (size - indexed < BLOCK_SIZE) return reset;
+
+        if (indexed == 0) {
+            headHash = FileHead.hash(channel, channel.size());
+        }
+        Builder builder = new Builder(indexed);
+        LineReader.read(channel, indexed, size, false, builder);
+        return reset || builder.closed > 0;
+    }
+
+    /**
+     * True when the indexed blocks are still the start of the file behind {@code channel}.
+     */
+    private synchronized boolean matches(FileChannel channel) throws IOException {
+        long indexed = bounds[blocks];
+        if (channel.size() < indexed) return false;
+        return indexed == 0 || FileHead.hash(channel, indexed) == headHash;
+    }
+
+    /**
+     * Parts of [from, to) that can hold a line {@code filter} matches, as consecutive (start, end) pairs in
+     * file order: blocks that may contain a literal of every clause of the filter. Neighbouring candidate
+     * blocks are merged into one part. The whole range is returned while the index belongs to an older
+     * version of the file (rotated or truncated since the last refresh).
+     */
+    public synchronized long[] candidates(FileChannel channel, LineFilter filter, long from, long to)
+            throws IOException {
+        int[][][] clauses = bits(filter.clauses());
+        if (clauses.length == 0 || blocks == 0 || !matches(channel)) return new long[]{from, to};
+
+        long[] runs = new long[8];
+        int count = 0;
+        int first = Math.max(0, upperBound(from) - 1);
+        for (int i = first; i < blocks && bounds[i] < to; i++) {
+            if (!mayContain(filters[i], clauses)) continue;
+            long start = Math.max(from, bounds[i]);
+            long end = Math.min(to, bounds[i + 1]);
+            if (count > 0 && runs[count - 1] == start) {
+                runs[count - 1] = end;
+                continue;
+            }
+            if (count == runs.length) {
+                runs = Arrays.copyOf(runs, count * 2);
+            }
+            runs[count++] = start;
+            runs[count++] = end;
+        }
+
+        // indekslənməmiş quyruq həmişə axtarılır
+        long tail = Math.max(from, bounds[blocks]);
+        if (tail < to) {
+            if (count > 0 && runs[count - 1] == tail) {
+                runs[count - 1] = to;
+            } else {
+                runs = Arrays.copyOf(runs, count + 2);
+                runs[count++] = tail;
+                runs[count++] = to;
+            }
+        }
+        return Arrays.copyOf(runs, count);
+    }
+
+    public synchronized void save(Path sidecar) throws IOException {
+        Path tmp = sidecar.resolveSibling(sidecar.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(FILTER_BITS);
+            out.writeLong(headHash);
+            out.writeInt(blocks);
+            for (int i = 0; i <= blocks; i++) {
+                out.writeLong(bounds[i]);
+            }
+            for (int i = 0; i < blocks; i++) {
+                for (long word : filters[i]) {
+                    out.writeLong(word);
+                }
+            }
+        }
+        Files.move(tmp, sidecar, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @return the saved index, or an empty one when the sidecar is missing, unreadable or of an older
+     * version of the file
+     */
+    public static TrigramIndex load(Path sidecar, FileChannel channel) {
+        TrigramIndex index = new TrigramIndex();
+        if (!Files.exists(sidecar)) return index;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(sidecar)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || in.readInt() != FILTER_BITS) {
+                return new TrigramIndex();
+            }
+            index.headHash = in.readLong();
+            int blocks = in.readInt();
+            long[] bounds = new long[blocks + 1];
+            for (int i = 0; i <= blocks; i++) {
+                bounds[i] = in.readLong();
+            }
+            for (int i = 0; i < blocks; i++) {
+                long[] filter = new long[FILTER_WORDS];
+                for (int w = 0; w < FILTER_WORDS; w++) {
+                    filter[w] = in.readLong();
+                }
+                index.append(bounds[i], filter, bounds[i + 1]);
+            }
+            return index.matches(channel) ? index : new TrigramIndex();
+        } catch (IOException e) {
+            return new TrigramIndex();
+        }
+    }
+
+    private synchronized void reset() {
+        bounds = new long[17];
+        filters = new long[16][];
+        blocks = 0;
+        headHash = 0;
+    }
+
+    private synchronized void append(long start, long[] filter, long end) {
+        if (blocks == filters.length) {
+            filters = Arrays.copyOf(filters, blocks * 2);
+            bounds = Arrays.copyOf(bounds, blocks * 2 + 1);
+        }
+        bounds[blocks] = start;
+        filters[blocks] = filter;
+        bounds[++blocks] = end;
+    }
+
+    /**
+     * Index of the first block starting after {@code offset}.
+     */
+    private int upperBound(long offset) {
+        int lo = 0;
+        int hi = blocks;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (bounds[mid] <= offset) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * Filter bit positions of the grams of {@code literal}: every trigram, and every 6-gram when it is long enough.
+     */
+    private static int[] bits(byte[] literal) {
+        if (literal.length < 3) return new int[0];
+        int[] bits = new int[literal.length - 2 + Math.max(0, literal.length - 5)];
+        int count = 0;
+        long window = 0;
+        for (int i = 0; i < literal.length; i++) {
+            window = (window << 8) | (literal[i] & 0xFF);
+            if (i >= 2) bits[count++] = bit(window & TRIGRAM_MASK);
+            if (i >= 5) bits[count++] = bit((window & LONG_GRAM_MASK) | LONG_GRAM_TAG);
+        }
+        return bits;
+    }
+
+    private static int bit(long gram) {
+        return (int) ((gram * 0x9E3779B97F4A7C15L) >>> (64 - FILTER_SHIFT));
+    }
+
+    /**
+     * Bits of each literal of each clause. Clauses with a literal too short to check are left out.
+     */
+    private static int[][][] bits(List<List<byte[]>> clauses) {
+        List<int[][]> checked = new ArrayList<>();
+        for (List<byte[]> clause : clauses) {
+            int[][] literals = new int[clause.size()][];
+            boolean checkable = true;
+            for (int i = 0; i < literals.length && checkable; i++) {
+                literals[i] = bits(clause.get(i));
+                checkable = literals[i].length > 0;
+            }
+            if (checkable) checked.add(literals);
+        }
+        return checked.toArray(new int[0][][]);
+    }
+
+    private static boolean mayContain(long[] filter, int[][][] clauses) {
+        for (int[][] clause : clauses) {
+            boolean any = false;
+            for (int i = 0; i < clause.length && !any; i++) {
+                any = mayContain(filter, clause[i]);
+            }
+            if (!any) return false;
+        }
+        return true;
+    }
+
+    private static boolean mayContain(long[] filter, int[] bits) {
+        for (int bit : bits) {
+            if ((filter[bit >>> 6] & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Hashes lines into the filter of the open block and closes it at the first header line past
+     * {@link #BLOCK_SIZE}. The block still open at the end is dropped and re-read next time.
+     */
+    private final class Builder implements LineVisitor {
+        private long blockStart;
+        private long[] filter = new long[FILTER_WORDS];
+        private int closed;
+
+        Builder(long blockStart) {
+            this.blockStart = blockStart;
+        }
+
+        private void set(int bit) {
+            filter[bit >>> 6] |= 1L << bit;
+        }
+
+        @Override
+        public boolean visit(long offset, byte[] buf, int start, int length) {
+            if (offset - blockStart >= BLOCK_SIZE && LogHeaders.isHeader(buf, start, length)) {
+                append(blockStart, filter, offset);
+                closed++;
+                blockStart = offset;
+                filter = new long[FILTER_WORDS];
+            }
+            long window = 0;
+            for (int i = 0; i < length; i++) {
+                window = (window << 8) | (buf[start + i] & 0xFF);
+                if (i >= 2) set(bit(window & TRIGRAM_MASK));
+                if (i >= 5) set(bit((window & LONG_GRAM_MASK) | LONG_GRAM_TAG));
+            }
+            return true;
+        }
+    }
+}
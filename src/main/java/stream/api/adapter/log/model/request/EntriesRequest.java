@@ -0,0 +1,23 @@
+package stream.api.adapter.log.model.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+@Data
+@AllArgsConstructor
+@ToString
+@EqualsAndHashCode
+public class EntriesRequest {
+
+    String file;
+    String from;
+    String to;
+    // "T12" və ya "12"
+    String thread;
+    // "ERR", "INF", ...
+    String level;
+    int page;
+    int size;
+}
@@ -13,6 +13,12 @@ public class LogsRequest {
 
     String file;
     String uniqueData;
+    // boolean/regex sorğu, verilərsə uniqueData əvəzinə işlədilir
+    String query;
     int page;
     int size;
+    String cursor;
+    String from;
+    String to;
+    boolean newestFirst;
 }
@@ -0,0 +1,24 @@
+package stream.api.adapter.log.model.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@ToString
+@EqualsAndHashCode
+public class MultiLogsRequest {
+
+    List<String> files;
+    String glob;
+    String uniqueData;
+    String query;
+    int page;
+    int size;
+    String from;
+    String to;
+}
@@ -0,0 +1,15 @@
+package stream.api.adapter.log.model.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.nio.file.Path;
+
+@Data
+@Builder
+public class EntryPage {
+    private Path path;
+    // səhifədəki yazıların header offset-ləri, fayl sırası ilə
+    private long[] offsets;
+    private long total;
+}
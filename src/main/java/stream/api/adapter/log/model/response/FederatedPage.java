@@ -0,0 +1,18 @@
+package stream.api.adapter.log.model.response;
+
+import lombok.Builder;
+import lombok.Data;
+import stream.api.adapter.log.engine.EntryMerge;
+
+import java.util.List;
+
+@Data
+@Builder
+public class FederatedPage {
+    // cavab verən node-lar, body-ləri hələ oxunmayıb
+    private List<EntryMerge.Source> sources;
+    private List<String> failedNodes;
+    private long total;
+    private boolean totalExact;
+    private boolean newestFirst;
+}
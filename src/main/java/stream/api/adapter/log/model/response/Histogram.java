@@ -0,0 +1,17 @@
+package stream.api.adapter.log.model.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class Histogram {
+    private String by;
+    // ilk sütunun başlanğıcı (epoch millis, UTC) və sütunun dəqiqə ilə eni
+    private long start;
+    private int step;
+    private int[] total;
+    private List<HistogramSeries> series;
+}
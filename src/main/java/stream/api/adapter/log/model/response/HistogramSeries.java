@@ -0,0 +1,12 @@
+package stream.api.adapter.log.model.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class HistogramSeries {
+    private String key;
+    private long total;
+    private int[] counts;
+}
@@ -0,0 +1,14 @@
+package stream.api.adapter.log.model.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class LogResponse {
+    private List<String> register;
+    private List<String> pay;
+    private List<String> billList;
+}
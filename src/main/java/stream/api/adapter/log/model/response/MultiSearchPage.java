@@ -0,0 +1,20 @@
+package stream.api.adapter.log.model.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.nio.file.Path;
+import java.util.List;
+
+@Data
+@Builder
+public class MultiSearchPage {
+    private List<String> files;
+    private List<Path> paths;
+    // səhifədəki uyğunluqlar vaxt sırası ilə: fayl indeksi və entry offset-i
+    private int[] fileIndexes;
+    private long[] offsets;
+    private long total;
+    private boolean totalExact;
+    private int skippedFiles;
+}
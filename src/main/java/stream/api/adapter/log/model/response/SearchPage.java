@@ -0,0 +1,24 @@
+package stream.api.adapter.log.model.response;
+
+import lombok.Builder;
+import lombok.Data;
+import stream.api.adapter.log.engine.LineFilter;
+import stream.api.adapter.log.engine.MatchList;
+import stream.api.adapter.log.engine.TimeRange;
+
+import java.nio.file.Path;
+
+@Data
+@Builder
+public class SearchPage {
+    private Path path;
+    private LineFilter filter;
+    private TimeRange range;
+    private boolean newestFirst;
+    private int start;
+    private int size;
+    private MatchList matches;
+    private long total;
+    private boolean totalExact;
+    private String nextCursor;
+}
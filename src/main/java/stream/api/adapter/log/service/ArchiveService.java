@@ -0,0 +1,134 @@
+package stream.api.adapter.log.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import stream.api.adapter.log.engine.ArchiveChannel;
+import stream.api.adapter.log.engine.ArchiveStats;
+import stream.api.adapter.log.engine.GzipIndex;
+import stream.api.adapter.log.engine.QueryContext;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Opens gzip archives as channels over their uncompressed content. The checkpoint index of an archive
+ * is built on first use and kept next to it in a {@code .gzidx} sidecar.
+ */
+@Slf4j
+@Service
+public class ArchiveService {
+
+    public static final String GZIP_SUFFIX = ".gz";
+
+    private static final String SIDECAR_SUFFIX = ".gzidx";
+    private static final long WAIT_POLL_MILLIS = 100;
+
+    private final long checkpointInterval;
+    private final ArchiveStats gzipStats = new ArchiveStats("gzip");
+    private final Map<Path, CompletableFuture<GzipIndex>> indexes = new ConcurrentHashMap<>();
+
+    public ArchiveService(@Value("${log.archive.checkpoint-mb:4}") long checkpointMegabytes) {
+        this.checkpointInterval = checkpointMegabytes << 20;
+    }
+
+    public boolean isArchive(Path path) {
+        return path.getFileName().toString().endsWith(GZIP_SUFFIX);
+    }
+
+    public FileChannel open(Path path, QueryContext query) throws IOException {
+        FileChannel archive = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new ArchiveChannel(archive, index(path, archive, query), gzipStats);
+        } catch (IOException | RuntimeException e) {
+            archive.close();
+            throw e;
+        }
+    }
+
+    public List<ArchiveStats> stats() {
+        return List.of(gzipStats);
+    }
+
+    /**
+     * The archive's index, built by the first caller that needs it while callers for the same archive wait
+     * for it; other archives are indexed at the same time. A build stopped by its caller's query is left
+     * to the next caller.
+     */
+    private GzipIndex index(Path path, FileChannel archive, QueryContext query) throws IOException {
+        long size = archive.size();
+        long modified = Files.getLastModifiedTime(path).toMillis();
+        while (true) {
+            CompletableFuture<GzipIndex> current = indexes.get(path);
+            if (current != null) {
+                GzipIndex index = await(current, query);
+                if (index != null && index.matches(size, modified)) return index;
+                // köhnə və ya alınmayan indeks: növbəti cəhd yenisini qurur
+                indexes.remove(path, current);
+                continue;
+            }
+
+            CompletableFuture<GzipIndex> building = new CompletableFuture<>();
+            if (indexes.putIfAbsent(path, building) != null) continue;
+            try {
+                GzipIndex index = loadOrBuild(path, archive, size, modified, query);
+                building.complete(index);
+                return index;
+            } catch (IOException | RuntimeException e) {
+                indexes.remove(path, building);
+                building.completeExceptionally(e);
+                throw e;
+            }
+        }
+    }
+
+    private GzipIndex loadOrBuild(Path path, FileChannel archive, long size, long modified,
+                                  QueryContext query) throws IOException {
+        Path sidecar = path.resolveSibling(path.getFileName() + SIDECAR_SUFFIX);
+        GzipIndex index = GzipIndex.load(sidecar, size, modified, checkpointInterval);
+        if (index != null) return index;
+
+        long started = System.currentTimeMillis();
+        index = GzipIndex.build(archive, modified, checkpointInterval, query);
+        log.info("Arxiv indeksləndi: {} ({} checkpoint, {} ms)", path, index.checkpoints(),
+                System.currentTimeMillis() - started);
+        try {
+            index.save(sidecar);
+        } catch (IOException e) {
+            log.warn("Arxiv indeksi yazılmadı: {}", sidecar, e);
+        }
+        return index;
+    }
+
+    /**
+     * Waits for another caller's build, still honouring this caller's query.
+     *
+     * @return the index, or {@code null} when that build failed
+     */
+    private static GzipIndex await(CompletableFuture<GzipIndex> future, QueryContext query) throws IOException {
+        while (true) {
+            try {
+                return future.get(WAIT_POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // indeks hələ qurulur
+                query.check();
+            } catch (ExecutionException e) {
+                return null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Arxiv indeksi gözlənilərkən dayandırıldı");
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package stream.api.adapter.log.service;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Writes the chunks {@link EmitterWriter} sends and hands their buffer back to the pool once written.
+ * A chunk sent before the emitter is initialized is kept by the emitter and written later, so the
+ * buffer is only reused after that.
+ */
+@Component
+public class ChunkConverter extends AbstractHttpMessageConverter<ResponseWriters.Chunk> {
+
+    public ChunkConverter() {
+        super(MediaType.ALL);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return ResponseWriters.Chunk.class == clazz;
+    }
+
+    @Override
+    protected ResponseWriters.Chunk readInternal(Class<? extends ResponseWriters.Chunk> clazz,
+                                                 HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Cavab hissəsi oxuna bilməz", inputMessage);
+    }
+
+    @Override
+    protected Long getContentLength(ResponseWriters.Chunk chunk, MediaType contentType) {
+        return (long) chunk.length();
+    }
+
+    @Override
+    protected void writeInternal(ResponseWriters.Chunk chunk, HttpOutputMessage outputMessage) throws IOException {
+        try {
+            outputMessage.getBody().write(chunk.bytes(), 0, chunk.length());
+        } finally {
+            chunk.release();
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package stream.api.adapter.log.service;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import stream.api.adapter.log.engine.LineSink;
+import stream.api.adapter.log.engine.QueryProfile;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Batches lines into one pooled buffer and sends it to the emitter as a single chunk once it is
+ * full or its oldest line has waited {@code flushMillis}. With gzip on, the chunks are one gzip
+ * stream, sync-flushed at every send so the client can inflate what it has received so far.
+ * Each chunk goes to the emitter in its pooled buffer, without a copy, and the writer goes on with
+ * another buffer from the pool.
+ * <p>
+ * {@link ResponseBodyEmitter#send} writes on the calling thread, so a slow client blocks the
+ * producer instead of lines piling up in memory. The timed flush runs on a thread shared by every
+ * writer, so it only takes a writer that is idle and skips one that is busy writing or sending.
+ */
+public class EmitterWriter implements LineSink, AutoCloseable {
+
+    private static final byte NEWLINE = '\n';
+
+    private final ResponseBodyEmitter emitter;
+    private final ResponseWriters pool;
+    private final Chunks chunks = new Chunks();
+    private final OutputStream out;
+    private final GzipStream gzip;
+    private final long flushNanos;
+    private final ScheduledFuture<?> timer;
+    private final QueryProfile profile;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private byte[] buffer;
+    private int used;
+    private long pendingSince;
+    private boolean dirty;
+    private boolean closed;
+
+    EmitterWriter(ResponseBodyEmitter emitter, ResponseWriters pool, boolean gzip,
+                  ScheduledExecutorService scheduler, long flushMillis, QueryProfile profile) {
+        this.emitter = emitter;
+        this.pool = pool;
+        this.profile = profile;
+        this.buffer = pool.acquire();
+        this.flushNanos = TimeUnit.MILLISECONDS.toNanos(flushMillis);
+        try {
+            this.gzip = gzip ? new GzipStream(chunks) : null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.out = gzip ? this.gzip : chunks;
+        this.timer = scheduler.scheduleWithFixedDelay(this::flushIfStale, flushMillis, flushMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void line(byte[] buf, int start, int length) {
+        lock.lock();
+        try {
+            if (closed) return;
+            if (!dirty) pendingSince = System.nanoTime();
+            dirty = true;
+            out.write(buf, start, length);
+            out.write(NEWLINE);
+            profile.onLine(length + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void line(String line) {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        line(bytes, 0, bytes.length);
+    }
+
+    public void flush() {
+        lock.lock();
+        try {
+            flushLocked();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flushLocked() {
+        if (closed || !dirty) return;
+        try {
+            out.flush();
+            chunks.send();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        dirty = false;
+    }
+
+    /**
+     * Sends what is left (and the gzip trailer) and returns the buffer to the pool. Does not
+     * complete the emitter.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) return;
+            timer.cancel(false);
+            try {
+                out.close();
+                chunks.send();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                closed = true;
+                endDeflater();
+                pool.release(this, buffer);
+                buffer = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Bytes waiting in the buffer for the next send.
+     */
+    int pendingBytes() {
+        // gauge üçün oxunur, kilid lazım deyil
+        return used;
+    }
+
+    /**
+     * Drops the buffer without sending anything, e.g. after the client went away.
+     */
+    public void discard() {
+        lock.lock();
+        try {
+            discardLocked();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void discardLocked() {
+        if (closed) return;
+        timer.cancel(false);
+        closed = true;
+        endDeflater();
+        pool.release(this, buffer);
+        buffer = null;
+    }
+
+    /**
+     * Frees zlib's native memory now instead of when the stream is garbage collected.
+     */
+    private void endDeflater() {
+        if (gzip != null) gzip.end();
+    }
+
+    private void flushIfStale() {
+        // məşğul writer gözlənilmir: sahibi onsuz da göndərəcək, növbəti tick-də yenə baxılır
+        if (!lock.tryLock()) return;
+        try {
+            if (!closed && dirty && System.nanoTime() - pendingSince >= flushNanos) {
+                flushLocked();
+            }
+        } catch (UncheckedIOException e) {
+            // müştəri bağlanıb: yazmağı dayandırırıq, emitter-in öz callback-ləri təmizləyəcək
+            discardLocked();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Collects the (possibly compressed) bytes in the buffer and sends them when it fills up. */
+    private final class Chunks extends OutputStream {
+
+        @Override
+        public void write(int b) throws IOException {
+            if (used == buffer.length) send();
+            buffer[used++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (used == buffer.length) send();
+                int n = Math.min(len, buffer.length - used);
+                System.arraycopy(b, off, buffer, used, n);
+                used += n;
+                off += n;
+                len -= n;
+            }
+        }
+
+        void send() throws IOException {
+            if (used == 0) return;
+            // buffer kopyalanmır: ChunkConverter yazandan sonra pool-a qaytarır, writer isə yenisini götürür
+            ResponseWriters.Chunk chunk = new ResponseWriters.Chunk(buffer, used, pool);
+            buffer = pool.acquire();
+            used = 0;
+            long start = System.nanoTime();
+            emitter.send(chunk, MediaType.TEXT_PLAIN);
+            profile.record(QueryProfile.Phase.EMIT, System.nanoTime() - start);
+        }
+    }
+
+    /** Gzip stream whose deflater can be ended without writing the trailer. */
+    private static final class GzipStream extends GZIPOutputStream {
+
+        GzipStream(OutputStream out) throws IOException {
+            super(out, 8192, true);
+        }
+
+        void end() {
+            def.end();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package stream.api.adapter.log.service;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+import stream.api.adapter.log.engine.ByteRanges;
+import stream.api.adapter.log.engine.ContextWindow;
+import stream.api.adapter.log.engine.FileHead;
+import stream.api.adapter.log.engine.QueryContext;
+import stream.api.adapter.log.engine.TimeRange;
+import stream.api.adapter.log.engine.TimeSeek;
+import stream.api.adapter.log.model.request.LogsRequest;
+import stream.api.adapter.log.model.response.SearchPage;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Raw slices of a log file for download: the byte ranges of a page of matches with their thread context,
+ * or of a time range, copied from the file as they are instead of line by line. Plain exports can be
+ * resumed with an HTTP Range; gzip exports are compressed on the fly and always sent whole.
+ */
+@Service
+@RequiredArgsConstructor
+public class ExportService {
+
+    static final long[] UNSATISFIABLE = new long[0];
+
+    // Tomcat faylı özü göndərir (sendfile), bayt JVM-dən keçmir
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final LogFileService files;
+    private final LogReaderService reader;
+
+    public void export(LogsRequest req, boolean gzip, HttpServletRequest request,
+                       HttpServletResponse response) throws IOException {
+        Path path = files.resolve(req.getFile());
+        QueryContext query = reader.newQuery();
+        try (FileChannel channel = files.open(path, query)) {
+            ByteRanges ranges = ranges(req, channel, query);
+            String etag = etag(path, channel, ranges, gzip);
+            String name = path.getFileName().toString().replaceAll("[^\\w.-]", "_") + "-export.log";
+            response.setHeader(HttpHeaders.ETAG, etag);
+
+            if (gzip) {
+                response.setContentType("application/gzip");
+                response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + name + ".gz\"");
+                try (OutputStream out = new GZIPOutputStream(response.getOutputStream(), 64 * 1024)) {
+                    ranges.transferTo(channel, Channels.newChannel(out));
+                }
+                return;
+            }
+
+            response.setContentType("text/plain;charset=UTF-8");
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + name + "\"");
+            response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+            long[] range = requestedRange(request.getHeader(HttpHeaders.RANGE), request.getHeader(HttpHeaders.IF_RANGE),
+                    etag, ranges.length());
+            if (range == UNSATISFIABLE) {
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + ranges.length());
+                return;
+            }
+            ByteRanges body = ranges;
+            if (range != null) {
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE,
+                        "bytes " + range[0] + "-" + (range[1] - 1) + "/" + ranges.length());
+                body = ranges.slice(range[0], range[1]);
+            }
+            response.setContentLengthLong(body.length());
+            if (body.count() == 1 && !files.isArchive(path) && sendfile(request, path, body)) return;
+            body.transferTo(channel, Channels.newChannel(response.getOutputStream()));
+        }
+    }
+
+    /**
+     * Context ranges of the request's page of matches when it has a filter, otherwise its time range.
+     */
+    private ByteRanges ranges(LogsRequest req, FileChannel channel, QueryContext query) throws IOException {
+        boolean filtered = (req.getQuery() != null && !req.getQuery().isBlank())
+                || (req.getUniqueData() != null && !req.getUniqueData().isBlank());
+        if (!filtered) {
+            long[] slice = TimeSeek.slice(channel, TimeRange.of(req.getFrom(), req.getTo()), query);
+            return ByteRanges.of(slice[0], slice[1]);
+        }
+        SearchPage page = reader.findPage(req, query);
+        return new ContextWindow(page.getMatches()).ranges(channel, query);
+    }
+
+    /**
+     * Stays the same while lines are only appended after the exported ranges, so a download of the active
+     * file can be resumed; changes when the file is rotated or rewritten (head CRC) or the ranges move.
+     * The gzip representation has its own tag.
+     */
+    private static String etag(Path path, FileChannel channel, ByteRanges ranges, boolean gzip) throws IOException {
+        long end = ranges.count() == 0 ? 0 : ranges.end(ranges.count() - 1);
+        return "\"" + Integer.toHexString(path.hashCode())
+                + "-" + Long.toHexString(FileHead.hash(channel, end))
+                + "-" + Integer.toHexString(ranges.hashCode())
+                + "-" + Long.toHexString(ranges.length())
+                + (gzip ? "-gz" : "") + "\"";
+    }
+
+    /**
+     * Hands a single range of a plain file to the container, when it can send files itself.
+     */
+    private static boolean sendfile(HttpServletRequest request, Path path, ByteRanges body) {
+        if (!Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) return false;
+        request.setAttribute(SENDFILE_FILENAME, path.toAbsolutePath().toString());
+        request.setAttribute(SENDFILE_START, body.start(0));
+        request.setAttribute(SENDFILE_END, body.end(0));
+        return true;
+    }
+
+    /**
+     * @return [from, to) of a single "bytes=" range, {@code null} to send everything (no range, several
+     * ranges, a malformed one such as an end before the start, or a stale If-Range), or {@link #UNSATISFIABLE}
+     */
+    static long[] requestedRange(String range, String ifRange, String etag, long length) {
+        if (range == null || !range.startsWith("bytes=") || range.indexOf(',') >= 0) return null;
+        if (ifRange != null && !ifRange.equals(etag)) return null;
+
+        String spec = range.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) return null;
+        try {
+            long from;
+            long to;
+            if (dash == 0) {
+                // "bytes=-500": son 500 bayt
+                long suffix = Long.parseLong(spec.substring(1));
+                if (suffix == 0) return UNSATISFIABLE;
+                from = Math.max(0, length - suffix);
+                to = length;
+            } else {
+                from = Long.parseLong(spec.substring(0, dash));
+                if (dash == spec.length() - 1) {
+                    to = length;
+                } else {
+                    long last = Long.parseLong(spec.substring(dash + 1));
+                    // sonu başlanğıcdan əvvəl olan aralıq yanlışdır, header nəzərə alınmır (RFC 9110)
+                    if (last < from) return null;
+                    to = Math.min(length, last + 1);
+                }
+            }
+            if (from >= length) return UNSATISFIABLE;
+            return new long[]{from, to};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
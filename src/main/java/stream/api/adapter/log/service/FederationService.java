@@ -0,0 +1,240 @@
+package stream.api.adapter.log.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import stream.api.adapter.log.controller.LogController;
+import stream.api.adapter.log.engine.EntryMerge;
+import stream.api.adapter.log.engine.LineFilter;
+import stream.api.adapter.log.engine.LineSink;
+import stream.api.adapter.log.engine.QueryContext;
+import stream.api.adapter.log.model.request.LogsRequest;
+import stream.api.adapter.log.model.response.FederatedPage;
+import stream.api.adapter.log.model.response.SearchPage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Runs one {@link LogsRequest} on every configured log-view node at once (this node included, unless
+ * disabled) and merges their answers by entry time. Each node gets the same page, so a page holds up to
+ * {@code size} matches per node. Nodes that fail or time out are left out and reported.
+ */
+@Slf4j
+@Service
+public class FederationService {
+
+    private static final String STREAM_PATH = "/api/filter/file-stream";
+
+    private final LogReaderService reader;
+    private final ObjectMapper mapper;
+    private final ExecutorService executor;
+    private final HttpClient client;
+    private final List<URI> peers;
+    private final boolean includeLocal;
+    private final String localName;
+    private final long timeoutMillis;
+    private final int bufferEntries;
+
+    public FederationService(LogReaderService reader, ObjectMapper mapper,
+                             @Qualifier("federationExecutor") ExecutorService executor,
+                             @Value("${log.federation.peers:}") String peers,
+                             @Value("${log.federation.local:true}") boolean includeLocal,
+                             @Value("${log.federation.name:local}") String localName,
+                             @Value("${log.federation.timeout-ms:30000}") long timeoutMillis,
+                             @Value("${log.federation.buffer-entries:256}") int bufferEntries) {
+        this.reader = reader;
+        this.mapper = mapper;
+        this.executor = executor;
+        this.peers = Arrays.stream(peers.split(","))
+                .map(String::trim)
+                .filter(peer -> !peer.isEmpty())
+                // base URL-in path-i saxlanılır (proxy arxasında /logs kimi)
+                .map(peer -> URI.create((peer.endsWith("/") ? peer.substring(0, peer.length() - 1) : peer)
+                        + STREAM_PATH))
+                .toList();
+        this.includeLocal = includeLocal;
+        this.localName = localName;
+        this.timeoutMillis = timeoutMillis;
+        this.bufferEntries = bufferEntries;
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(timeoutMillis))
+                .build();
+    }
+
+    /**
+     * Match pass on every node in parallel: waits for each node's headers, at most the peer timeout, so
+     * the slowest node sets the time.
+     */
+    public FederatedPage findPage(LogsRequest req, QueryContext query) {
+        if (req.getCursor() != null && !req.getCursor().isBlank()) {
+            throw new RuntimeException("Federativ axtarışda kursor dəstəklənmir, page istifadə edin");
+        }
+        if (peers.isEmpty() && !includeLocal) {
+            throw new RuntimeException("Federasiya üçün node konfiqurasiya olunmayıb");
+        }
+        // filtr səhvi node-lara getmədən qaytarılır
+        LineFilter.of(req.getUniqueData(), req.getQuery());
+
+        byte[] body;
+        try {
+            body = mapper.writeValueAsBytes(req);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException(e);
+        }
+
+        List<CompletableFuture<HttpResponse<InputStream>>> requests = new ArrayList<>();
+        for (URI peer : peers) {
+            HttpRequest request = HttpRequest.newBuilder(peer)
+                    .timeout(Duration.ofMillis(timeoutMillis))
+                    .header("Content-Type", "application/json")
+                    .header("Accept-Encoding", "gzip")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                    .build();
+            requests.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream()));
+        }
+        CompletableFuture<SearchPage> local = includeLocal
+                ? CompletableFuture.supplyAsync(() -> reader.findPage(req, query), executor)
+                : null;
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        List<EntryMerge.Source> sources = new ArrayList<>();
+        List<String> failed = new ArrayList<>();
+        long total = 0;
+        boolean exact = true;
+        try {
+            if (local != null) {
+                try {
+                    SearchPage page = await(local, deadline);
+                    sources.add(new EntryMerge.Source(localName, sink -> reader.streamPage(page, query, sink), null));
+                    total += page.getTotal();
+                    exact &= page.isTotalExact();
+                } catch (ExecutionException | TimeoutException e) {
+                    fail(localName, e, failed);
+                }
+            }
+            for (int i = 0; i < peers.size(); i++) {
+                String name = nodeName(peers.get(i));
+                try {
+                    HttpResponse<InputStream> response = await(requests.get(i), deadline);
+                    if (response.statusCode() != 200) {
+                        response.body().close();
+                        throw new ExecutionException(new IOException("HTTP " + response.statusCode()));
+                    }
+                    InputStream in = response.body();
+                    boolean gzip = response.headers().firstValue("Content-Encoding")
+                            .filter(encoding -> encoding.equalsIgnoreCase("gzip")).isPresent();
+                    sources.add(new EntryMerge.Source(name,
+                            sink -> readLines(gzip ? new GZIPInputStream(in, 64 * 1024) : in, sink), in));
+
+                    String count = response.headers().firstValue(LogController.TOTAL_COUNT).orElse(null);
+                    String estimate = response.headers().firstValue(LogController.TOTAL_ESTIMATE).orElse("0");
+                    total += Long.parseLong(count != null ? count : estimate);
+                    exact &= count != null;
+                } catch (ExecutionException | TimeoutException | IOException | NumberFormatException e) {
+                    fail(name, e, failed);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            sources.forEach(FederationService::closeQuietly);
+            throw new RuntimeException(e);
+        } finally {
+            requests.forEach(request -> request.cancel(true));
+        }
+
+        return FederatedPage.builder()
+                .sources(sources)
+                .failedNodes(failed)
+                .total(total)
+                .totalExact(exact && failed.isEmpty())
+                .newestFirst(req.isNewestFirst())
+                .build();
+    }
+
+    /**
+     * Streams the nodes' entries merged by time, each line prefixed with its node name.
+     */
+    public void streamPage(FederatedPage page, QueryContext query, LineSink sink) {
+        List<String> broken = EntryMerge.merge(page.getSources(), executor, bufferEntries, timeoutMillis,
+                page.isNewestFirst(), query, sink);
+        if (!broken.isEmpty()) {
+            log.warn("Federativ axtarışda node-ların axını yarımçıq qaldı: {}", broken);
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future, long deadline)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+    }
+
+    private static void fail(String name, Exception e, List<String> failed) {
+        Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+        log.warn("Node cavab vermədi: {} ({})", name,
+                e instanceof TimeoutException ? "vaxt bitdi" : cause.getMessage());
+        failed.add(name);
+    }
+
+    /**
+     * "host:port", followed by the base path when the node is not at the root.
+     */
+    private static String nodeName(URI peer) {
+        String path = peer.getRawPath();
+        return peer.getRawAuthority() + path.substring(0, path.length() - STREAM_PATH.length());
+    }
+
+    /**
+     * Splits the stream at '\n', dropping a trailing '\r'.
+     */
+    private static void readLines(InputStream in, LineSink sink) throws IOException {
+        try (in) {
+            byte[] buf = new byte[64 * 1024];
+            byte[] line = new byte[1024];
+            int length = 0;
+            int n;
+            while ((n = in.read(buf)) > 0) {
+                for (int i = 0; i < n; i++) {
+                    byte b = buf[i];
+                    if (b == '\n') {
+                        sink.line(line, 0, length > 0 && line[length - 1] == '\r' ? length - 1 : length);
+                        length = 0;
+                        continue;
+                    }
+                    if (length == line.length) {
+                        line = Arrays.copyOf(line, line.length * 2);
+                    }
+                    line[length++] = b;
+                }
+            }
+            if (length > 0) {
+                sink.line(line, 0, length);
+            }
+        }
+    }
+
+    private static void closeQuietly(EntryMerge.Source source) {
+        if (source.closer() == null) return;
+        try {
+            source.closer().close();
+        } catch (IOException e) {
+            log.debug("Node axını bağlanmadı: {}", source.name(), e);
+        }
+    }
+}
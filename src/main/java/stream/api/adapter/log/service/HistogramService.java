@@ -0,0 +1,83 @@
+package stream.api.adapter.log.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import stream.api.adapter.log.engine.ActivityStats;
+import stream.api.adapter.log.engine.TimeRange;
+import stream.api.adapter.log.model.response.Histogram;
+import stream.api.adapter.log.model.response.HistogramSeries;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Error rates and activity per level, operation or thread, read from the counters {@link LogIndexService}
+ * keeps for every file instead of scanning the log.
+ */
+@Service
+@RequiredArgsConstructor
+public class HistogramService {
+
+    private static final long MILLIS_PER_MINUTE = 60_000L;
+    private static final int MAX_BUCKETS = 10_000;
+
+    private final LogFileService files;
+    private final LogIndexService indexes;
+
+    public Histogram histogram(String file, String by, String key, String from, String to, int step) {
+        ActivityStats.Dimension dimension = dimension(by);
+        int minutes = Math.max(step, 1);
+        ActivityStats stats = indexes.findActivity(files.resolve(file))
+                .orElseThrow(() -> new RuntimeException("Fayl hələ indekslənməyib: " + file));
+
+        TimeRange covered = stats.covered();
+        TimeRange range = TimeRange.of(from, to);
+        if (covered.isAll()) {
+            return Histogram.builder().by(dimension.name()).step(minutes).total(new int[0]).series(List.of()).build();
+        }
+        long start = Math.floorDiv(range.from() == Long.MIN_VALUE ? covered.from() : range.from(), MILLIS_PER_MINUTE);
+        long end = Math.floorDiv(range.to() == Long.MAX_VALUE ? covered.to() : range.to(), MILLIS_PER_MINUTE);
+        long buckets = end < start ? 0 : (end - start) / minutes + 1;
+        if (buckets > MAX_BUCKETS) {
+            throw new RuntimeException("Sütun sayı çox böyükdür (" + buckets + "), addımı artırın və ya aralığı daraldın");
+        }
+
+        Map<String, int[]> counts = stats.histogram(dimension, key == null || key.isBlank() ? null : key.trim(),
+                start * MILLIS_PER_MINUTE, (int) buckets, minutes);
+        List<HistogramSeries> series = new ArrayList<>();
+        counts.forEach((k, c) -> {
+            if (k != null) {
+                series.add(HistogramSeries.builder().key(k).total(sum(c)).counts(c).build());
+            }
+        });
+        series.sort(Comparator.comparingLong(HistogramSeries::getTotal).reversed());
+
+        return Histogram.builder()
+                .by(dimension.name())
+                .start(start * MILLIS_PER_MINUTE)
+                .step(minutes)
+                .total(counts.get(null))
+                .series(series)
+                .build();
+    }
+
+    private static ActivityStats.Dimension dimension(String by) {
+        if (by == null || by.isBlank()) return ActivityStats.Dimension.LEVEL;
+        try {
+            return ActivityStats.Dimension.valueOf(by.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Naməlum qruplaşdırma: " + by + " (level, operation, thread)");
+        }
+    }
+
+    private static long sum(int[] counts) {
+        long sum = 0;
+        for (int count : counts) {
+            sum += count;
+        }
+        return sum;
+    }
+}
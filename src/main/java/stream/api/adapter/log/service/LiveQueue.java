@@ -0,0 +1,146 @@
+package stream.api.adapter.log.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import stream.api.adapter.log.engine.TailListener;
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One {@code /file-live} connection. The tailer thread only copies each line into a bounded queue; the
+ * queue is drained by a small pool of workers shared by every connection, a batch at a time, so a
+ * slow client never holds up the tailer and an idle connection holds no thread. A full queue is handled
+ * by the connection's {@link SseOverflow} policy.
+ */
+final class LiveQueue implements TailListener {
+
+    private static final int BATCH_LINES = 256;
+
+    private final ResponseBodyEmitter emitter;
+    private final EmitterWriter writer;
+    private final SseOverflow policy;
+    private final int limit;
+    private final Runnable onDrop;
+    private final Executor workers;
+    private final BlockingQueue<byte[]> lines;
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    private volatile boolean overflowed;
+    private volatile Exception failure;
+    private volatile boolean stopped;
+    private volatile boolean done;
+
+    LiveQueue(ResponseBodyEmitter emitter, EmitterWriter writer, SseOverflow policy, int limit, Runnable onDrop,
+              Executor workers) {
+        this.emitter = emitter;
+        this.writer = writer;
+        this.policy = policy;
+        this.limit = limit;
+        this.onDrop = onDrop;
+        this.workers = workers;
+        this.lines = new ArrayBlockingQueue<>(limit);
+    }
+
+    /**
+     * Runs on the tailer thread: never waits for the client.
+     */
+    @Override
+    public void onLine(byte[] buf, int start, int length) {
+        if (stopped || overflowed) return;
+        byte[] line = Arrays.copyOfRange(buf, start, start + length);
+        if (!lines.offer(line)) {
+            switch (policy) {
+                // müştəri buffer-dən çox geri qalıb: qalanı göndərilib axın bitir
+                case BUFFER -> overflowed = true;
+                case DROP_OLDEST -> {
+                    // yalnız tailer əlavə edir, ona görə yer açıldıqdan sonra offer uğurlu olur
+                    if (lines.poll() != null) onDrop.run();
+                    lines.offer(line);
+                }
+                case SAMPLE -> onDrop.run();
+            }
+        }
+        schedule();
+    }
+
+    @Override
+    public void onClose(Exception e) {
+        failure = e;
+        schedule();
+    }
+
+    /**
+     * Ends the connection's draining; the writer is dropped by a worker.
+     */
+    void stop() {
+        stopped = true;
+        schedule();
+    }
+
+    /**
+     * Queues one drain of this connection unless one is already queued or running.
+     */
+    private void schedule() {
+        if (done || !scheduled.compareAndSet(false, true)) return;
+        try {
+            workers.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            // pool bağlanıb (tətbiq dayanır)
+            scheduled.set(false);
+        }
+    }
+
+    /**
+     * Sends up to {@link #BATCH_LINES} lines, then gives the worker to the next connection.
+     */
+    private void drain() {
+        try {
+            drainBatch();
+        } finally {
+            scheduled.set(false);
+        }
+        // drain işləyərkən gələn sətir və ya siqnal itməsin
+        if (!done && (stopped || !lines.isEmpty() || overflowed || failure != null)) {
+            schedule();
+        }
+    }
+
+    private void drainBatch() {
+        if (done) return;
+        try {
+            for (int i = 0; i < BATCH_LINES && !stopped; i++) {
+                byte[] line = lines.poll();
+                if (line == null) break;
+                writer.line(line, 0, line.length);
+            }
+            if (stopped) {
+                finish();
+                return;
+            }
+            if (!lines.isEmpty()) return;
+            if (overflowed) {
+                writer.line("Müştəri geri qaldı, " + limit + " sətirlik buffer doldu");
+                writer.close();
+                finish();
+                emitter.complete();
+            } else if (failure != null) {
+                finish();
+                emitter.completeWithError(failure);
+            }
+        } catch (RuntimeException e) {
+            // müştəri bağlanıb
+            finish();
+            emitter.completeWithError(e);
+        }
+    }
+
+    private void finish() {
+        done = true;
+        lines.clear();
+        writer.discard();
+    }
+}
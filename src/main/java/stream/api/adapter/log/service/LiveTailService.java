@@ -0,0 +1,97 @@
+package stream.api.adapter.log.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import stream.api.adapter.log.engine.FileTailer;
+import stream.api.adapter.log.engine.LineFilter;
+import stream.api.adapter.log.engine.TailListener;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LiveTailService {
+
+    @Qualifier("tailExecutor")
+    private final ExecutorService executor;
+
+    @Qualifier("liveExecutor")
+    private final ExecutorService liveExecutor;
+
+    private final Map<Path, FileTailer> tailers = new HashMap<>();
+
+    @Value("${log.live.overflow:drop-oldest}")
+    private String defaultOverflow;
+
+    @Value("${log.live.buffer-lines:1000}")
+    private int bufferLines;
+
+    /**
+     * Streams new lines to the emitter through a bounded queue, drained by the shared live workers.
+     *
+     * @param filter   {@code null} to stream every new line
+     * @param overflow what to do when the client falls behind; {@code null} for the configured policy
+     * @param onDrop   told about every line dropped by the policy
+     */
+    public void subscribe(Path path, LineFilter filter, ResponseBodyEmitter emitter, EmitterWriter writer,
+                          String overflow, Consumer<SseOverflow> onDrop) throws IOException {
+        SseOverflow policy = SseOverflow.of(overflow == null || overflow.isBlank() ? defaultOverflow : overflow);
+        LiveQueue queue = new LiveQueue(emitter, writer, policy, bufferLines, () -> onDrop.accept(policy),
+                liveExecutor);
+        Runnable release = subscribe(path, filter, queue);
+
+        Runnable unsubscribe = () -> {
+            release.run();
+            queue.stop();
+        };
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(e -> unsubscribe.run());
+    }
+
+    /**
+     * Adds {@code listener} to the file's tailer, starting one if needed.
+     *
+     * @return ends the subscription; safe to run more than once
+     */
+    public Runnable subscribe(Path path, LineFilter filter, TailListener listener) throws IOException {
+        FileTailer tailer;
+        FileTailer.Subscription subscription;
+        synchronized (this) {
+            tailer = tailers.get(path);
+            if (tailer == null) {
+                tailer = new FileTailer(path, this::release);
+                tailers.put(path, tailer);
+                executor.execute(tailer);
+            }
+            subscription = tailer.subscribe(filter, listener);
+        }
+
+        FileTailer owner = tailer;
+        return () -> {
+            owner.unsubscribe(subscription);
+            release(owner);
+        };
+    }
+
+    public synchronized int subscribers() {
+        return tailers.values().stream().mapToInt(FileTailer::size).sum();
+    }
+
+    private synchronized void release(FileTailer tailer) {
+        if (tailer.isEmpty() && tailers.remove(tailer.getPath(), tailer)) {
+            tailer.stop();
+            log.debug("Tailer dayandırıldı: {}", tailer.getPath());
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package stream.api.adapter.log.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import stream.api.adapter.log.engine.QueryContext;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+public class LogFileService {
+
+    private final ArchiveService archives;
+
+    @Value("${log.monitor.file}")
+    private String filePath;
+
+    public Path resolve(String file) {
+        Path logDir = Paths.get(filePath).toAbsolutePath().normalize();
+        Path path = logDir.resolve(file).normalize();
+        if (!path.startsWith(logDir)) {
+            throw new RuntimeException("Fayl log qovluğundan kənardadır: " + file);
+        }
+        return path;
+    }
+
+    /**
+     * Opens a log file for reading; archives are read through their uncompressed content.
+     */
+    public FileChannel open(Path path) throws IOException {
+        return open(path, QueryContext.NONE);
+    }
+
+    /**
+     * @param query bounds the indexing of an archive that is opened for the first time
+     */
+    public FileChannel open(Path path, QueryContext query) throws IOException {
+        return archives.isArchive(path) ? archives.open(path, query) : FileChannel.open(path, StandardOpenOption.READ);
+    }
+
+    public boolean isArchive(Path path) {
+        return archives.isArchive(path);
+    }
+
+    public List<String> loadFiles() {
+        try (Stream<Path> paths = Files.list(Paths.get(filePath))) {
+            return paths
+                    .filter(p -> p.toString().endsWith(".log") || archives.isArchive(p))
+                    .map(p -> p.getFileName().toString())
+                    .toList();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * The given files, or the log files whose name matches {@code glob}, or every log file when neither is set.
+     */
+    public List<String> select(List<String> names, String glob) {
+        if (names != null && !names.isEmpty()) return names;
+        if (glob == null || glob.isBlank()) return loadFiles();
+
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+        return loadFiles().stream()
+                .filter(name -> matcher.matches(Paths.get(name)))
+                .toList();
+    }
+}
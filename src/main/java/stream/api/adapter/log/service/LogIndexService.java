@@ -0,0 +1,94 @@
+package stream.api.adapter.log.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import stream.api.adapter.log.engine.ActivityStats;
+import stream.api.adapter.log.engine.SegmentStore;
+import stream.api.adapter.log.engine.ThreadTimeIndex;
+import stream.api.adapter.log.engine.TrigramIndex;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LogIndexService {
+
+    private static final String SIDECAR_SUFFIX = ".tidx";
+    private static final String TRIGRAM_SUFFIX = ".trgx";
+    private static final String ACTIVITY_SUFFIX = ".acts";
+    private static final String SEGMENTS_SUFFIX = ".segs";
+
+    private final LogFileService files;
+    private final Map<Path, ThreadTimeIndex> indexes = new ConcurrentHashMap<>();
+    private final Map<Path, TrigramIndex> trigrams = new ConcurrentHashMap<>();
+    private final Map<Path, ActivityStats> activity = new ConcurrentHashMap<>();
+    private final Map<Path, SegmentStore> segments = new ConcurrentHashMap<>();
+
+    // sütunlu seqmentlər diskdə əlavə yer tutur, ona görə istəyə bağlıdır
+    @Value("${log.segments.enabled:false}")
+    private boolean segmentsEnabled;
+
+    @Scheduled(fixedDelayString = "${log.index.interval-ms:5000}")
+    public void refresh() {
+        for (String file : files.loadFiles()) {
+            Path path = files.resolve(file);
+            try (FileChannel channel = files.open(path)) {
+                ThreadTimeIndex index = indexes.computeIfAbsent(path, p -> ThreadTimeIndex.load(sidecar(p, SIDECAR_SUFFIX), channel));
+                if (index.update(channel)) {
+                    index.save(sidecar(path, SIDECAR_SUFFIX));
+                }
+                TrigramIndex blocks = trigrams.computeIfAbsent(path, p -> TrigramIndex.load(sidecar(p, TRIGRAM_SUFFIX), channel));
+                if (blocks.update(channel)) {
+                    blocks.save(sidecar(path, TRIGRAM_SUFFIX));
+                }
+                ActivityStats stats = activity.computeIfAbsent(path, p -> ActivityStats.load(sidecar(p, ACTIVITY_SUFFIX), channel));
+                if (stats.update(channel)) {
+                    stats.save(sidecar(path, ACTIVITY_SUFFIX));
+                }
+                if (segmentsEnabled) {
+                    segments.computeIfAbsent(path, p -> SegmentStore.load(sidecar(p, SEGMENTS_SUFFIX))).update(channel);
+                }
+            } catch (IOException e) {
+                log.warn("Index yenilənmədi: {}", path, e);
+            }
+        }
+    }
+
+    public Optional<ThreadTimeIndex> find(Path path) {
+        return Optional.ofNullable(indexes.get(path));
+    }
+
+    /**
+     * Trigram block index of the file, used to skip blocks that cannot contain a search literal.
+     */
+    public Optional<TrigramIndex> findTrigrams(Path path) {
+        return Optional.ofNullable(trigrams.get(path));
+    }
+
+    /**
+     * Per minute counters of the file, kept up to date by {@link #refresh()}.
+     */
+    public Optional<ActivityStats> findActivity(Path path) {
+        return Optional.ofNullable(activity.get(path));
+    }
+
+    /**
+     * Columnar segments of the file, when {@code log.segments.enabled} is set.
+     */
+    public Optional<SegmentStore> findSegments(Path path) {
+        return Optional.ofNullable(segments.get(path));
+    }
+
+    private static Path sidecar(Path log, String suffix) {
+        return log.resolveSibling(log.getFileName() + suffix);
+    }
+}
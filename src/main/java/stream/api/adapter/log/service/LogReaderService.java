@@ -3,34 +3,50 @@ package stream.api.adapter.log.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
-import stream.api.adapter.log.model.request.LogRequest;
+import stream.api.adapter.log.engine.ContextWindow;
+import stream.api.adapter.log.engine.EntryFilter;
+import stream.api.adapter.log.engine.EntryReader;
+import stream.api.adapter.log.engine.LineFilter;
+import stream.api.adapter.log.engine.LineSink;
+import stream.api.adapter.log.engine.LogHeaders;
+import stream.api.adapter.log.engine.MatchList;
+import stream.api.adapter.log.engine.PageCursor;
+import stream.api.adapter.log.engine.QueryContext;
+import stream.api.adapter.log.engine.ReverseSearch;
+import stream.api.adapter.log.engine.SegmentStore;
+import stream.api.adapter.log.engine.TailListener;
+import stream.api.adapter.log.engine.ThreadTimeIndex;
+import stream.api.adapter.log.engine.TimeRange;
+import stream.api.adapter.log.engine.TimeSeek;
+import stream.api.adapter.log.engine.TrigramIndex;
+import stream.api.adapter.log.model.request.LogsRequest;
+import stream.api.adapter.log.model.response.EntryPage;
+import stream.api.adapter.log.model.response.SearchPage;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.UncheckedIOException;
-import java.nio.file.Files;
+import java.nio.channels.FileChannel;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.time.Duration;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.stream.Stream;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class LogReaderService {
 
-    private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+    private final LogFileService files;
+    private final LogIndexService indexService;
+    private final QueryCache cache;
+    private final LiveTailService liveTailService;
 
-    @Value("${log.monitor.file}")
-    private String filePath;
+    @Value("${log.query.timeout-ms:60000}")
+    private long queryTimeoutMillis;
+
+    @Value("${log.query.max-bytes:0}")
+    private long queryMaxBytes;
 
 //    private List<String> readErrorLogs(String filePath) {
 //        try (Stream<String> lines = Files.lines(Paths.get(filePath))) {
@@ -43,427 +59,256 @@ public class LogReaderService {
 //            throw new RuntimeException(e);
 //        }
 //    }
-//
-//    private List<String> readLogs(List<String> allLogs, String code) {
-//        return allLogs
-//                .stream()
-//                .filter(line -> line.contains(code))
-//                .collect(Collectors.toList());
-//    }
-//
-//    private List<LogRequest> extractField(List<String> log) {
-//        String timestampPattern = "^\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}\\.\\d{3}"; // Timestamp
-//        String threadPattern = "\\[T\\d+\\]";
-//
-//        String timestamp = "";
-//        String threadId = "";
-//
-//        Pattern timestampPat = Pattern.compile(timestampPattern);
-//        Pattern threadPat = Pattern.compile(threadPattern);
-//
-//        List<LogRequest> logRequests = new ArrayList<>();
-//        for (String logLine : log) {
-//            Matcher timestampMatcher = timestampPat.matcher(logLine);
-//            if (timestampMatcher.find()) {
-//                timestamp = timestampMatcher.group();
-//            }
-//
-//
-//            Matcher threadMatcher = threadPat.matcher(logLine);
-//            if (threadMatcher.find()) {
-//                threadId = threadMatcher.group().replaceAll("[\\[\\]]", ""); // Sadece Thread ID
-//            }
-//
-//            LogRequest add = LogRequest.builder()
-//                    .timestamp(timestamp)
-//                    .threadId(threadId)
-//                    .build();
-//            logRequests.add(add);
-//        }
-//        return logRequests;
-//    }
-//
-//    public LogResponse findByOrdinatorOrReference(String filePath, String serial) {
-//        //serial  - > thread
-//        //
-//        List<String> allLogs =  readAllLogs(filePath);
-//        List<String> serialLogs = readLogs(allLogs, serial);
-//
-//        String paySerial = serialLogs.get(serialLogs.size() - 1);
-//        serialLogs.forEach(System.out::println);
-//
-//        List<LogRequest> requests = extractField(serialLogs);
-//        String threadId = requests.get(0).getThreadId();
-//        String timestamp = requests.get(0).getTimestamp();
-//
-//        List<String> register = register(allLogs, threadId, timestamp, serial);
-//        List<String> payment = pay(allLogs, paySerial);
-//
-//        String detailList = register.stream().filter(line -> line.contains("id:")).toList().toString();
-//        String id = getId(detailList);
-//        List<String> billList = billList(allLogs, id);
-//
-//        billList.forEach(System.out::println);
-//        register.forEach(System.out::println);
-//        payment.forEach(System.out::println);
-//
-//        return LogResponse.builder()
-//                .billList(billList)
-//                .register(register)
-//                .pay(payment)
-//                .build();
-//    }
-//
-//    private List<String> readAllLogs(String filePath) {
-//        try (Stream<String> lines = Files.lines(Paths.get(filePath))) {
-//            return lines.collect(Collectors.toList());
-//        } catch (IOException e) {
-//            throw new RuntimeException(e);
-//        }
-//    }
-//
-//    private List<String> register(List<String> logs, String threadId, String targetTimestamp, String serial) {
-//        int resIndex = -1;
-//
-//        for (int i = 0; i < logs.size(); i++) {
-//            String line = logs.get(i);
-//            if (line.contains("[" + threadId + "]") && line.contains("RES:") && line.contains(targetTimestamp) || line.contains("Result: " + serial)) {
-//                resIndex = i;
-//                break;
-//            }
-//        }
-//
-//        if (resIndex == -1) {
-//            System.out.println("RES sətri tapılmadı.");
-//            return Collections.emptyList();
-//        }
-//
-//        int reqIndex = -1;
-//        for (int i = resIndex; i >= 0; i--) {
-//            String line = logs.get(i);
-//            if (line.contains("[" + threadId + "]") && line.contains("REQ:")) {
-//                reqIndex = i;
-//                break;
-//            }
-//        }
-//
-//        if (reqIndex == -1) {
-//            System.out.println("REQ sətri tapılmadı.");
-//            return Collections.emptyList();
-//        }
-//        resIndex++;
-//        // İndi REQ ilə RES arasındakı blok yığılır
-//        List<String> result = new ArrayList<>();
-//        for (int i = reqIndex; i <= resIndex; i++) {
-//            String line = logs.get(i);
-//            if (line.contains("[" + threadId + "]")) {
-//                result.add(line);
-//            }
-//        }
-//        return result;
-//    }
-//
-//    private List<String> pay(List<String> logs, String serialLine) {
-//        int serialIndex = -1;
-//        String threadId = null;
-//
-//        String rowSerial = serialLine.split("Serial:")[1].trim();
-//        // 1. "serial:" olan sətri tap
-//        for (int i = 0; i < logs.size(); i++) {
-//            String line = logs.get(i);
-//
-//            if (line.equals(serialLine)) {
-//                boolean found = false;
-//
-//                // Əvvəlcə geriyə bax
-//                for (int j = i; j >= 0; j--) {
-//                    String previousLine = logs.get(j);
-//                    if (previousLine.contains("REQ: Pay") || previousLine.contains("[" + threadId + "]")) {
-//                        int start = previousLine.indexOf('[');
-//                        int end = previousLine.indexOf(']', start);
-//                        if (start != -1 && end != -1) {
-//                            threadId = previousLine.substring(start + 1, end);
-//                            serialIndex = j;
-//                            found = true; // tapıldı
-//                            break;
-//                        }
-//                    }
-//                }
-//
-//                // Əgər yuxarıda tapılmadısa, onda aşağıya bax
-//                if (!found) {
-//                    for (int j = i; j < logs.size(); j++) {
-//                        String nextLine = logs.get(j);
-//
-//                        if (nextLine.contains("REQ: Pay")) {
-//                            int start = nextLine.indexOf('[');
-//                            int end = nextLine.indexOf(']', start);
-//                            if (start != -1 && end != -1) {
-//                                threadId = nextLine.substring(start + 1, end);
-//                                serialIndex = j;
-//                                break;
-//                            }
-//                        }
-//
-//                        // Burada "REQ: GetPayment" görsək belə, davam edirik
-//                    }
-//                }
-//
-//                break; // serial tapıldıqdan sonra artıq əsas döngüdən çıx
-//            }
-//        }
-//
-//        if (serialIndex == -1 || threadId == null) {
-//            System.out.println("REQ: Pay bloku tapılmadı.");
-//            return Collections.emptyList();
-//        }
-//
-//        // 2. Pay istəyinin cavablarını yığ
-//        List<String> result = new ArrayList<>();
-//        boolean started = false;
-//        boolean done = false;
-//
-//        for (int i = serialIndex; i < logs.size(); i++) {
-//            String line = logs.get(i);
-//
-//            if (line.contains("[" + threadId + "]")) {
-//                if (!started && line.contains("REQ: Pay")) {
-//                    started = true;
-//                }
-//
-//                if (started) {
-//                    result.add(line);
-//                    if (line.contains("RES: Pay")) {
-//                        // Sonrakı xətləri də əlavə et
-//                        if (i + 1 < logs.size()) result.add(logs.get(i + 1));
-//                        if (line.contains("[ERR] - RES: Pay")) {
-//                            if (i + 2 < logs.size()) result.add(logs.get(i + 2));
-//                            if (i + 3 < logs.size()) result.add(logs.get(i + 3));
-//                        }
-//                        done = true;
-//                        break;
-//                    }
-//                }
-//            } else if (started && !line.contains("[")) {
-//                // log xətti boş və ya parse edilə bilməyən xəttdirsə → əlavə et
-//                result.add(line);
-//            } else if (started && !done) {
-//                continue; // başqa thread gəlib, amma hələ bizim RES gəlməyib → gözləməyə davam
-//            } else if (done) {
-//                break;
-//            }
-//        }
-//
-//        return result;
-//    }
-//
-//    private String getId(String line) {
-//        String search = "id:";
-//        String id = "";
-//        int startIndex = line.indexOf(search);
-//        if (startIndex != -1) {
-//            startIndex += search.length();
-//            int endIndex = -1;
-//
-//            if (line.contains(",")) {
-//                endIndex = line.indexOf(",", startIndex);
-//            } else {
-//                endIndex = line.indexOf("]", startIndex);
-//            }
-//            id = line.substring(startIndex, endIndex).trim();
-//        } else {
-//            System.out.println("ID tapılmadı.");
-//        }
-//        return id;
-//    }
-//
-//    private List<String> billList(List<String> logs, String id) {
-//        int idIndex = -1;
-//        String threadId = null;
-//
-//        // 1. "id:" olan və GetBillList ilə bağlı olan threadId-ni tap
-//        for (int i = 0; i < logs.size(); i++) {
-//            String line = logs.get(i);
-//            if (line.contains("Detail list: [id: " + id) || line.contains(id)) {
-//                System.out.println(line);
-//                // Geri gedərək REQ: GetBillList tap
-//                for (int j = i; j >= 0; j--) {
-//                    String previousLine = logs.get(j);
-//                    if (previousLine.contains("REQ: GetBillList")) {
-//                        int start = previousLine.indexOf('[');
-//                        int end = previousLine.indexOf(']', start);
-//                        if (start != -1 && end != -1) {
-//                            threadId = previousLine.substring(start + 1, end);
-//                            idIndex = j;
-//                            break;
-//                        }
-//                    }
-//                }
-//                break;
-//            }
-//        }
-//
-//        if (idIndex == -1 || threadId == null) {
-//            System.out.println("REQ: GetBillList bloku tapılmadı.");
-//            return Collections.emptyList();
-//        }
-//
-//        // 2. GetBillList istəyinin cavablarını yığ
-//        List<String> result = new ArrayList<>();
-//        boolean started = false;
-//        boolean done = false;
-//
-//        for (int i = idIndex; i < logs.size(); i++) {
-//            String line = logs.get(i);
-//
-//            if (line.contains("[" + threadId + "]")) {
-//                if (!started && line.contains("REQ: GetBillList")) {
-//                    started = true;
-//                }
-//
-//                if (started) {
-//                    result.add(line);
-//                    if (line.contains("RES: GetBillList")) {
-//                        result.add(logs.get(i + 1));
-//                        done = true;
-//                        break;
-//                    }
-//                }
-//            } else if (started && !line.contains("[")) {
-//                // log xətti boş və ya parse edilə bilməyən xəttdirsə → əlavə et
-//                result.add(line);
-//            } else if (started && !done) {
-//                // başqa thread gəlib, amma hələ bizim RES gəlməyib → gözləməyə davam
-//                continue;
-//            } else if (done) {
-//                break;
-//            }
-//        }
-//
-//        return result;
-//    }
-
-    public void streamLogs(String file, String data, int page, int size, ResponseBodyEmitter emitter) {
-        if (data.length() < 3) {
-            throw new RuntimeException("Axtardığınız datanın uzunluğu 4 simvoldan böyük olmalıdır");
-        }
 
-        String path = filePath + "/" + file;
+    public QueryContext newQuery() {
+        return new QueryContext(queryTimeoutMillis, queryMaxBytes);
+    }
 
-        try (Stream<String> allLogs = Files.lines(Paths.get(path))) {
-            List<LogRequest> filtered = allLogs
-                    .filter(line -> line.contains(data))
-                    .map(this::extractField)
-                    .toList();
+    /**
+     * Match pass of a {@link LogsRequest}, oldest or newest entry first as it asks.
+     */
+    public SearchPage findPage(LogsRequest req, QueryContext query) {
+        LineFilter filter = LineFilter.of(req.getUniqueData(), req.getQuery());
+        TimeRange range = TimeRange.of(req.getFrom(), req.getTo());
+        return req.isNewestFirst()
+                ? findNewest(req.getFile(), filter, req.getPage(), req.getSize(), req.getCursor(), range, query)
+                : findPage(req.getFile(), filter, req.getPage(), req.getSize(), req.getCursor(), range, query);
+    }
 
-            int start = page * size;
-            int end = Math.min(start + size, filtered.size());
-            if (start >= filtered.size()) return;
+    /**
+     * Match pass: finds the page (by page number, or after {@code cursor} when one is given) and
+     * the total match count, without reading any context yet.
+     */
+    public SearchPage findPage(String file, LineFilter filter, int page, int size, String cursor,
+                               TimeRange range, QueryContext query) {
 
-            List<LogRequest> pageLogs = filtered.subList(start, end);
+        Path path = files.resolve(file);
+        try {
+            QueryCache.Result result;
+            int start;
+            if (cursor != null && !cursor.isBlank()) {
+                PageCursor after = PageCursor.decode(cursor);
+                result = cache.pageAfter(path, filter, range, after, size, query);
+                start = after.ordinal();
+            } else {
+                start = page * size;
+                result = cache.page(path, filter, range, start, size, query);
+            }
 
-            try (Stream<String> allLines = Files.lines(Paths.get(path))) {
-                allLines.parallel()
-                        .filter(line -> pageLogs.stream().anyMatch(req -> {
-                            if (!line.contains("[" + req.getThreadId() + "]")) return false;
-                            String timeStr = line.substring(0, 23);
-                            LocalDateTime lineTime = LocalDateTime.parse(timeStr, formatter);
-                            LocalDateTime target = LocalDateTime.parse(req.getTimestamp(), formatter);
-                            long diff = Duration.between(target, lineTime).getSeconds();
-                            return diff >= -60 && diff <= 60;
-                        }))
-                        .forEach(line -> {
-                            try {
-                                emitter.send(line + "\n");
-                            } catch (IOException e) {
-                                throw new UncheckedIOException(e);
-                            }
-                        });
+            MatchList matches = result.matches();
+            String nextCursor = null;
+            if (matches.size() == size && size > 0) {
+                nextCursor = new PageCursor(matches.nextOffset(size - 1), start + size).encode();
             }
+            return SearchPage.builder()
+                    .path(path)
+                    .filter(filter)
+                    .range(range)
+                    .start(start)
+                    .size(size)
+                    .matches(matches)
+                    .total(result.total())
+                    .totalExact(result.complete())
+                    .nextCursor(nextCursor)
+                    .build();
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
-    public void streamLiveLogs(String file, String uniqueData, ResponseBodyEmitter emitter) {
-        String path = filePath + "/" + file;
+    /**
+     * Newest-first match pass: searches backwards from the end of the file (or of {@code range}) and stops
+     * as soon as the page is full, so the cost depends on how far back the matches are, not on file size.
+     * The cursor offset is the entry the previous page ended at; the total is extrapolated from the part
+     * that was read.
+     */
+    public SearchPage findNewest(String file, LineFilter filter, int page, int size, String cursor,
+                                 TimeRange range, QueryContext query) {
 
-        // İndi vaxtı qeyd edirik (bundan sonrakı loglar göstəriləcək)
-        LocalDateTime startTime = LocalDateTime.now();
+        Path path = files.resolve(file);
+        try (FileChannel channel = files.open(path, query)) {
+            long[] slice = TimeSeek.slice(channel, range, query);
+            PageCursor after = cursor != null && !cursor.isBlank() ? PageCursor.decode(cursor) : null;
+            long end = after != null ? Math.min(slice[1], after.offset()) : slice[1];
+            int start = after != null ? after.ordinal() : page * size;
+            int skip = after != null ? 0 : start;
+
+            TrigramIndex blocks = indexService.findTrigrams(path).orElse(null);
+            long[] runs = blocks != null ? blocks.candidates(channel, filter, slice[0], end) : new long[]{slice[0], end};
+            MatchList found = new MatchList().resume(0, skip + size).within(range);
+            long stoppedAt = slice[0];
+            for (int i = runs.length - 2; i >= 0; i -= 2) {
+                long at = ReverseSearch.scan(channel, runs[i], runs[i + 1], filter, query, found);
+                if (found.size() == skip + size) {
+                    stoppedAt = at;
+                    break;
+                }
+            }
+            MatchList matches = found.slice(skip, skip + size);
 
-        new Thread(() -> {
-            try (BufferedReader reader = Files.newBufferedReader(Paths.get(path))) {
-                String line;
-                while (true) {
-                    line = reader.readLine();
+            String nextCursor = null;
+            if (matches.size() == size && size > 0) {
+                nextCursor = new PageCursor(matches.offset(size - 1), start + size).encode();
+            }
+            // oxunmamış hissə üçün cəm oxunan hissədəki sıxlığa görə hesablanır
+            long known = start - skip + found.size();
+            boolean complete = found.size() < skip + size || stoppedAt <= slice[0];
+            long total = known;
+            if (!complete && slice[1] > stoppedAt) {
+                total = Math.max(known, Math.round(known * ((double) (slice[1] - slice[0]) / (slice[1] - stoppedAt))));
+            }
+            return SearchPage.builder()
+                    .path(path)
+                    .filter(filter)
+                    .range(range)
+                    .newestFirst(true)
+                    .start(start)
+                    .size(size)
+                    .matches(matches)
+                    .total(total)
+                    .totalExact(complete)
+                    .nextCursor(nextCursor)
+                    .build();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
 
-                    if (line == null) {
-                        // yeni xətt yoxdur, bir az gözləyirik
-                        Thread.sleep(100);
-                        continue;
-                    }
+    /**
+     * Context pass: streams the thread context of every match on the page, in file order, or newest
+     * entry first for a newest-first page.
+     */
+    public void streamPage(SearchPage page, QueryContext query, LineSink sink) {
+        if (page.getMatches().size() == 0) return;
 
-                    try {
-                        // log timestamp-ı oxu (ilk 23 simvol məsələn: "2025-09-24 12:00:01.338")
-                        String timeStr = line.substring(0, 23);
-                        LocalDateTime lineTime = LocalDateTime.parse(timeStr, formatter);
-                        // yalnız startTime-dan sonra olan logları göstər
-                        if (lineTime.isAfter(startTime)) {
-                            if (uniqueData == null || uniqueData.isBlank() || line.contains(uniqueData)) {
-                                emitter.send(line + "\n", MediaType.TEXT_PLAIN);
-                            }
-                        }
-                    } catch (Exception parseEx) {
-                        // əgər format tutmadısa, atla
-                    }
-                }
-            } catch (Exception ex) {
-                try {
-                    emitter.completeWithError(ex);
-                } catch (Exception ignore) {}
+        try (FileChannel channel = files.open(page.getPath(), query)) {
+            if (page.isNewestFirst()) {
+                new ContextWindow(page.getMatches(), sink).streamNewestFirst(channel, query);
+                return;
             }
-        }).start();
+            ThreadTimeIndex index = indexService.find(page.getPath()).orElse(null);
+            if (index == null || !streamIndexed(channel, index, page, query, sink)) {
+                new ContextWindow(page.getMatches(), sink).stream(channel, query);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
     }
 
+    private boolean streamIndexed(FileChannel channel, ThreadTimeIndex index, SearchPage page,
+                                  QueryContext query, LineSink sink) throws IOException {
+        MatchList matches = page.getMatches();
+        long[] offsets = cache.context(page.getPath(), page.getFilter(), page.getRange(), page.getStart(),
+                page.getSize());
+        if (offsets == null) {
+            // kontekst pəncərəsi hələ indekslənməyibsə, faylı oxuyaraq axtarırıq
+            long windowEnd = matches.lastMillis() + ContextWindow.WINDOW_MILLIS;
+            boolean complete = index.getIndexedBytes() == channel.size();
+            if (!complete && !index.covers(windowEnd)) return false;
+
+            offsets = contextOffsets(index, matches);
+            if (index.covers(windowEnd)) {
+                cache.putContext(page.getPath(), page.getFilter(), page.getRange(), page.getStart(), page.getSize(),
+                        offsets);
+            }
+        }
+        EntryReader.read(channel, offsets, query, sink);
+        return true;
+    }
 
+    private long[] contextOffsets(ThreadTimeIndex index, MatchList matches) {
+        List<long[]> offsets = new ArrayList<>();
+        for (int i = 0; i < matches.size(); i++) {
+            offsets.add(new long[]{matches.offset(i)});
+            if (matches.thread(i) == LogHeaders.NO_THREAD) continue;
 
+            long time = matches.millis(i);
+            offsets.add(index.lookup(matches.thread(i),
+                    time - ContextWindow.WINDOW_MILLIS, time + ContextWindow.WINDOW_MILLIS));
+        }
+        return offsets.stream()
+                .flatMapToLong(LongStream::of)
+                .sorted()
+                .distinct()
+                .toArray();
+    }
 
-    private LogRequest extractField(String log) {
-        String timestampPattern = "^\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}\\.\\d{3}";
-        String threadPattern = "\\[T\\d+\\]";
+    /**
+     * Entries selected by time, thread and level only. With columnar segments enabled the filter runs over
+     * their columns and only the unsegmented tail is read as text; otherwise the whole file is read.
+     */
+    public EntryPage findEntries(String file, EntryFilter filter, int page, int size, QueryContext query) {
+        Path path = files.resolve(file);
+        try (FileChannel channel = files.open(path, query)) {
+            SegmentStore segments = indexService.findSegments(path).orElse(null);
+            long[] offsets;
+            if (segments != null) {
+                offsets = segments.select(channel, filter, query);
+            } else {
+                LongStream.Builder found = LongStream.builder();
+                SegmentStore.scan(channel, 0, channel.size(), filter, query, found);
+                offsets = found.build().toArray();
+            }
 
-        String timestamp = "";
-        String threadId = "";
+            int start = (int) Math.min(offsets.length, (long) page * size);
+            int end = (int) Math.min(offsets.length, (long) start + size);
+            return EntryPage.builder()
+                    .path(path)
+                    .offsets(Arrays.copyOfRange(offsets, start, end))
+                    .total(offsets.length)
+                    .build();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
 
-        Pattern timestampPat = Pattern.compile(timestampPattern);
-        Pattern threadPat = Pattern.compile(threadPattern);
+    public void streamEntries(EntryPage page, QueryContext query, LineSink sink) {
+        if (page.getOffsets().length == 0) return;
 
-        Matcher timestampMatcher = timestampPat.matcher(log);
-        if (timestampMatcher.find()) {
-            timestamp = timestampMatcher.group();
+        try (FileChannel channel = files.open(page.getPath(), query)) {
+            EntryReader.read(channel, page.getOffsets(), query, sink);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
         }
+    }
+
+    public void streamLiveLogs(String file, String uniqueData, String filterQuery, String overflow,
+                               ResponseBodyEmitter emitter, EmitterWriter writer,
+                               Consumer<SseOverflow> onDrop) throws IOException {
+        liveTailService.subscribe(livePath(file), liveFilter(uniqueData, filterQuery), emitter, writer,
+                overflow, onDrop);
+    }
+
+    /**
+     * Same as {@link #streamLiveLogs} for a caller that consumes the lines itself.
+     *
+     * @return ends the subscription
+     */
+    public Runnable subscribeLive(String file, String uniqueData, String filterQuery,
+                                  TailListener listener) throws IOException {
+        return liveTailService.subscribe(livePath(file), liveFilter(uniqueData, filterQuery), listener);
+    }
 
-        Matcher threadMatcher = threadPat.matcher(log);
-        if (threadMatcher.find()) {
-            threadId = threadMatcher.group().replaceAll("[\\[\\]]", "");
+    private Path livePath(String file) {
+        Path path = files.resolve(file);
+        if (files.isArchive(path)) {
+            throw new RuntimeException("Arxiv faylı canlı izlənə bilməz: " + file);
         }
+        return path;
+    }
 
-        return LogRequest.builder()
-                .timestamp(timestamp)
-                .threadId(threadId)
-                .build();
+    // filtr verilməyibsə bütün yeni sətirlər göndərilir
+    private static LineFilter liveFilter(String uniqueData, String filterQuery) {
+        if (filterQuery != null && !filterQuery.isBlank()) {
+            return LineFilter.parse(filterQuery);
+        }
+        if (uniqueData != null && !uniqueData.isBlank()) {
+            return LineFilter.literal(uniqueData);
+        }
+        return null;
     }
 
     public List<String> loadFiles() {
-        try {
-            Path logDir = Paths.get(filePath);
-            List<String> files = Files.list(logDir)
-                    .filter(p -> p.toString().endsWith(".log"))
-                    .map(p -> p.getFileName().toString())
-                    .toList();
-            return files;
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
+        return files.loadFiles();
     }
 }
@@ -0,0 +1,205 @@
+package stream.api.adapter.log.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import stream.api.adapter.log.engine.EntryReader;
+import stream.api.adapter.log.engine.LineFilter;
+import stream.api.adapter.log.engine.LineSink;
+import stream.api.adapter.log.engine.MatchList;
+import stream.api.adapter.log.engine.QueryContext;
+import stream.api.adapter.log.engine.TimeRange;
+import stream.api.adapter.log.model.request.MultiLogsRequest;
+import stream.api.adapter.log.model.response.MultiSearchPage;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Searches several log files at once. Every file is searched on its own worker; the per-file matches,
+ * each already in time order, are merged by time into one page.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MultiSearchService {
+
+    private final LogFileService files;
+    private final QueryCache cache;
+
+    @Qualifier("multiSearchExecutor")
+    private final ExecutorService workers;
+
+    public MultiSearchPage findPage(MultiLogsRequest req, QueryContext query) {
+        LineFilter filter = LineFilter.of(req.getUniqueData(), req.getQuery());
+
+        TimeRange range = TimeRange.of(req.getFrom(), req.getTo());
+        List<String> names = files.select(req.getFiles(), req.getGlob());
+        List<Path> paths = names.stream().map(files::resolve).toList();
+        // hər fayldan səhifənin sonuna qədər olan uyğunluqlar lazımdır
+        int need = (int) Math.min(Integer.MAX_VALUE, (long) (req.getPage() + 1) * req.getSize());
+
+        List<Future<FileMatches>> futures = new ArrayList<>();
+        for (Path path : paths) {
+            futures.add(workers.submit(() -> search(path, filter, range, need, query)));
+        }
+
+        FileMatches[] results = new FileMatches[paths.size()];
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                results[i] = futures.get(i).get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : new RuntimeException(e.getCause());
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+
+        long total = 0;
+        boolean exact = true;
+        int skipped = 0;
+        for (FileMatches result : results) {
+            if (result == null) {
+                skipped++;
+                continue;
+            }
+            total += result.total();
+            exact &= result.complete();
+        }
+
+        int skip = req.getPage() * req.getSize();
+        int[] fileIndexes = new int[req.getSize()];
+        long[] offsets = new long[req.getSize()];
+        int size = merge(results, skip, fileIndexes, offsets);
+
+        return MultiSearchPage.builder()
+                .files(names)
+                .paths(paths)
+                .fileIndexes(Arrays.copyOf(fileIndexes, size))
+                .offsets(Arrays.copyOf(offsets, size))
+                .total(total)
+                .totalExact(exact)
+                .skippedFiles(skipped)
+                .build();
+    }
+
+    /**
+     * Streams the page's entries in time order, each line prefixed with its file name.
+     */
+    public void streamPage(MultiSearchPage page, QueryContext query, LineSink sink) {
+        int[] fileIndexes = page.getFileIndexes();
+        long[] offsets = page.getOffsets();
+        FileChannel[] channels = new FileChannel[page.getPaths().size()];
+        try {
+            int i = 0;
+            while (i < offsets.length) {
+                // eyni fayldan ardıcıl gələn entry-lər bir oxumada göndərilir
+                int file = fileIndexes[i];
+                int j = i;
+                while (j < offsets.length && fileIndexes[j] == file) {
+                    j++;
+                }
+                if (channels[file] == null) {
+                    channels[file] = files.open(page.getPaths().get(file), query);
+                }
+                long[] run = Arrays.copyOfRange(offsets, i, j);
+                EntryReader.read(channels[file], sortedDistinct(run), query,
+                        prefixed(page.getFiles().get(file), sink));
+                i = j;
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            for (FileChannel channel : channels) {
+                closeQuietly(channel);
+            }
+        }
+    }
+
+    private FileMatches search(Path path, LineFilter filter, TimeRange range, int need,
+                               QueryContext query) throws IOException {
+        if (!range.isAll()) {
+            try (FileChannel channel = files.open(path, query)) {
+                if (!TimeRange.ofFile(channel, query).overlaps(range)) {
+                    log.debug("Fayl vaxt aralığına düşmür, atlanır: {}", path);
+                    return null;
+                }
+            }
+        }
+        QueryCache.Result result = cache.page(path, filter, range, 0, need, query);
+        return new FileMatches(result.matches(), result.total(), result.complete());
+    }
+
+    /**
+     * K-way merge of the per-file matches by time (ties keep file order). Skips the first {@code skip}
+     * and fills at most {@code fileIndexes.length} entries.
+     */
+    private static int merge(FileMatches[] results, int skip, int[] fileIndexes, long[] offsets) {
+        int[] next = new int[results.length];
+        PriorityQueue<Integer> heads = new PriorityQueue<>((a, b) -> {
+            int byTime = Long.compare(results[a].matches().millis(next[a]), results[b].matches().millis(next[b]));
+            return byTime != 0 ? byTime : Integer.compare(a, b);
+        });
+        for (int f = 0; f < results.length; f++) {
+            if (results[f] != null && results[f].matches().size() > 0) heads.add(f);
+        }
+
+        int size = 0;
+        while (!heads.isEmpty() && size < fileIndexes.length) {
+            int file = heads.poll();
+            MatchList matches = results[file].matches();
+            if (skip > 0) {
+                skip--;
+            } else {
+                fileIndexes[size] = file;
+                offsets[size] = matches.offset(next[file]);
+                size++;
+            }
+            if (++next[file] < matches.size()) heads.add(file);
+        }
+        return size;
+    }
+
+    private static long[] sortedDistinct(long[] offsets) {
+        return Arrays.stream(offsets).sorted().distinct().toArray();
+    }
+
+    private static LineSink prefixed(String file, LineSink sink) {
+        byte[] prefix = ("[" + file + "] ").getBytes(StandardCharsets.UTF_8);
+        byte[][] scratch = {new byte[1024]};
+        return (buf, start, length) -> {
+            int needed = prefix.length + length;
+            if (scratch[0].length < needed) {
+                scratch[0] = new byte[Math.max(needed, scratch[0].length * 2)];
+            }
+            System.arraycopy(prefix, 0, scratch[0], 0, prefix.length);
+            System.arraycopy(buf, start, scratch[0], prefix.length, length);
+            sink.line(scratch[0], 0, needed);
+        };
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if (channel == null) return;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.debug("Fayl bağlanmadı", e);
+        }
+    }
+
+    private record FileMatches(MatchList matches, long total, boolean complete) {
+    }
+}
@@ -0,0 +1,304 @@
+package stream.api.adapter.log.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import stream.api.adapter.log.engine.FileHead;
+import stream.api.adapter.log.engine.LineFilter;
+import stream.api.adapter.log.engine.MatchList;
+import stream.api.adapter.log.engine.MatchVisitor;
+import stream.api.adapter.log.engine.PageCursor;
+import stream.api.adapter.log.engine.ParallelSearch;
+import stream.api.adapter.log.engine.QueryContext;
+import stream.api.adapter.log.engine.ReverseLineReader;
+import stream.api.adapter.log.engine.TimeRange;
+import stream.api.adapter.log.engine.TimeSeek;
+import stream.api.adapter.log.engine.TrigramIndex;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LRU cache of match lists keyed by (file, line filter, time range), capped by approximate heap size.
+ * An entry holds the matches up to {@code scannedTo} of the file, or of the byte slice its time range
+ * maps to; a later page or a grown file only scans from there on. A file that shrank or was rewritten drops the entry.
+ * Blocks the trigram index rules out are skipped.
+ */
+@Service
+@RequiredArgsConstructor
+public class QueryCache {
+
+    private static final long HEADER_LOOKBACK = 4L << 20;
+
+    private final ParallelSearch search;
+    private final LogFileService files;
+    private final LogIndexService indexes;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long usedBytes;
+
+    @Value("${log.cache.max-bytes:67108864}")
+    private long maxBytes;
+
+    /**
+     * Matches [start, start + size) of {@code filter} within {@code range}, scanning only the part of the
+     * file the cache does not cover.
+     */
+    public Result page(Path path, LineFilter filter, TimeRange range, int start, int size,
+                       QueryContext query) throws IOException {
+        try (FileChannel channel = files.open(path, query)) {
+            return page(channel, FileState.of(path, channel), new Key(path, filter, range), start, size, query);
+        }
+    }
+
+    /**
+     * The {@code size} matches after {@code cursor}. Served from the cache when it reaches the cursor,
+     * otherwise scanned directly from the cursor offset.
+     */
+    public Result pageAfter(Path path, LineFilter filter, TimeRange range, PageCursor cursor, int size,
+                            QueryContext query) throws IOException {
+        try (FileChannel channel = files.open(path, query)) {
+            FileState state = FileState.of(path, channel);
+            Key key = new Key(path, filter, range);
+            Entry entry;
+            synchronized (this) {
+                entry = entries.get(key);
+            }
+            boolean covered = false;
+            if (entry != null) {
+                synchronized (entry) {
+                    covered = entry.state.canGrowTo(channel, state)
+                            && (entry.matches.size() > cursor.ordinal() || entry.scannedTo >= cursor.offset());
+                }
+            }
+            if (covered) {
+                return page(channel, state, key, cursor.ordinal(), size, query);
+            }
+
+            long[] slice = slice(channel, range, query);
+            long from = Math.max(cursor.offset(), slice[0]);
+            long header = from > 0 ? ReverseLineReader.headerBefore(channel, from, HEADER_LOOKBACK) : -1;
+            if (header >= 0) from = header;
+            // kursor əvvəlki səhifənin son yazısının ortasında ola bilər, o yazı yenidən sayılmır
+            long previous = cursor.offset() >= slice[0] ? header : -1;
+            MatchList matches = new MatchList().resume(cursor.offset(), size).after(previous).within(range);
+            long scannedTo = scan(search, blocks(path), channel, from, slice[1], filter, query, matches);
+            return new Result(matches, cursor.ordinal() + matches.size(), slice[0], scannedTo, slice[1]);
+        }
+    }
+
+    private Result page(FileChannel channel, FileState state, Key key, int start, int size,
+                        QueryContext query) throws IOException {
+        Entry entry = entry(key, channel, state);
+        try {
+            synchronized (entry) {
+                long end = entry.extend(channel, state, search, blocks(key.path), start + size, query);
+                return new Result(entry.matches.slice(start, start + size), entry.matches.size(), entry.begin,
+                        entry.scannedTo, end);
+            }
+        } finally {
+            reweigh(entry);
+        }
+    }
+
+    public long[] context(Path path, LineFilter filter, TimeRange range, int start, int size) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(new Key(path, filter, range));
+        }
+        if (entry == null) return null;
+        synchronized (entry) {
+            return entry.contexts.get(start + ":" + size);
+        }
+    }
+
+    /**
+     * Remembers the context offsets of a page. Only call this once the context can no longer change.
+     */
+    public void putContext(Path path, LineFilter filter, TimeRange range, int start, int size, long[] offsets) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(new Key(path, filter, range));
+        }
+        if (entry == null) return;
+        synchronized (entry) {
+            entry.contexts.put(start + ":" + size, offsets);
+        }
+        reweigh(entry);
+    }
+
+    private synchronized Entry entry(Key key, FileChannel channel, FileState state) throws IOException {
+        Entry entry = entries.get(key);
+        if (entry != null && !entry.state.canGrowTo(channel, state)) {
+            entries.remove(key);
+            usedBytes -= entry.weight;
+            entry = null;
+        }
+        if (entry == null) {
+            entry = new Entry(key.filter, key.range, state);
+            entries.put(key, entry);
+        }
+        return entry;
+    }
+
+    private synchronized void reweigh(Entry entry) {
+        long weight;
+        synchronized (entry) {
+            weight = entry.weight();
+        }
+        if (entries.containsValue(entry)) {
+            usedBytes += weight - entry.weight;
+        }
+        entry.weight = weight;
+
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (usedBytes > maxBytes && entries.size() > 1 && eldest.hasNext()) {
+            Entry evicted = eldest.next();
+            if (evicted == entry) continue;
+            eldest.remove();
+            usedBytes -= evicted.weight;
+        }
+    }
+
+    /**
+     * @param matches   the requested matches
+     * @param known     number of matches in [begin, scannedTo)
+     * @param begin     start of the searched byte range (0 unless a time range is set)
+     * @param scannedTo how far the range has been searched
+     * @param end       end of the searched byte range
+     */
+    public record Result(MatchList matches, int known, long begin, long scannedTo, long end) {
+
+        public boolean complete() {
+            return scannedTo >= end;
+        }
+
+        /**
+         * Exact total when the whole range was searched, otherwise extrapolated from the part that was.
+         */
+        public long total() {
+            if (complete() || scannedTo <= begin) return known;
+            return Math.max(known, Math.round(known * ((double) (end - begin) / (scannedTo - begin))));
+        }
+    }
+
+    /**
+     * Byte range of the file to search for {@code range}; the whole file when there is no range.
+     */
+    private static long[] slice(FileChannel channel, TimeRange range, QueryContext query) throws IOException {
+        if (range.isAll()) {
+            return new long[]{0, ReverseLineReader.completeEnd(channel, channel.size())};
+        }
+        return TimeSeek.slice(channel, range, query);
+    }
+
+    private TrigramIndex blocks(Path path) {
+        return indexes.findTrigrams(path).orElse(null);
+    }
+
+    /**
+     * Searches only the parts of [from, to) the trigram index cannot rule out, the whole range without an index.
+     */
+    private static long scan(ParallelSearch search, TrigramIndex blocks, FileChannel channel, long from, long to,
+                             LineFilter filter, QueryContext query, MatchVisitor visitor) throws IOException {
+        if (blocks == null) return search.scan(channel, from, to, filter, query, visitor);
+
+        boolean[] stopped = {false};
+        MatchVisitor tracked = line -> {
+            if (visitor.match(line)) return true;
+            stopped[0] = true;
+            return false;
+        };
+        long[] runs = blocks.candidates(channel, filter, from, to);
+        for (int i = 0; i < runs.length; i += 2) {
+            long stoppedAt = search.scan(channel, runs[i], runs[i + 1], filter, query, tracked);
+            if (stopped[0]) return stoppedAt;
+        }
+        return to;
+    }
+
+    private record Key(Path path, LineFilter filter, TimeRange range) {
+    }
+
+    private record FileState(long size, long modified, long headHash) {
+
+        static FileState of(Path path, FileChannel channel) throws IOException {
+            long size = channel.size();
+            return new FileState(size, Files.getLastModifiedTime(path).toMillis(), FileHead.hash(channel, size));
+        }
+
+        /**
+         * True when {@code next}, read through {@code channel}, can only be this file with lines appended:
+         * the head of the size this state was taken at is unchanged.
+         */
+        boolean canGrowTo(FileChannel channel, FileState next) throws IOException {
+            if (next.size < size) return false;
+            if (next.size == size) return next.modified == modified;
+            return FileHead.hash(channel, size) == headHash;
+        }
+    }
+
+    private static final class Entry {
+        private final LineFilter filter;
+        private final TimeRange range;
+        private final MatchList matches;
+        private final Map<String, long[]> contexts = new HashMap<>();
+        private FileState state;
+        private boolean started;
+        private long begin;
+        private long scannedTo;
+        private long weight;
+
+        Entry(LineFilter filter, TimeRange range, FileState state) {
+            this.filter = filter;
+            this.range = range;
+            this.matches = new MatchList().within(range);
+            this.state = state;
+        }
+
+        /**
+         * @return end of the searched byte range: the last complete line, or the end of the time range
+         */
+        long extend(FileChannel channel, FileState current, ParallelSearch search, TrigramIndex blocks,
+                    int needed, QueryContext query) throws IOException {
+            state = current;
+            long[] slice = slice(channel, range, query);
+            if (!started) {
+                started = true;
+                begin = slice[0];
+                scannedTo = begin;
+            }
+            long end = Math.max(scannedTo, slice[1]);
+            if (matches.size() >= needed || scannedTo >= end) return end;
+
+            // davam edən sətir (stack trace) header-i əvvəlki hissədə ola bilər
+            long from = scannedTo;
+            if (from > 0) {
+                long header = ReverseLineReader.headerBefore(channel, from, HEADER_LOOKBACK);
+                if (header >= 0) from = header;
+            }
+
+            int before = matches.size();
+            try {
+                scannedTo = scan(search, blocks, channel, from, end, filter, query, matches.resume(scannedTo, needed));
+            } catch (IOException | RuntimeException e) {
+                matches.truncate(before);
+                throw e;
+            }
+            return end;
+        }
+
+        long weight() {
+            long weight = 256 + matches.weight();
+            for (long[] offsets : contexts.values()) {
+                weight += 64 + offsets.length * 8L;
+            }
+            return weight;
+        }
+    }
+}
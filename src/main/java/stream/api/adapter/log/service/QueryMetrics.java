@@ -0,0 +1,129 @@
+package stream.api.adapter.log.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import stream.api.adapter.log.engine.ArchiveStats;
+import stream.api.adapter.log.engine.QueryContext;
+import stream.api.adapter.log.engine.QueryProfile;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer meters of the search and streaming hot paths. Queries are recorded once, when their
+ * response ends; live tails, writers and archives are read as gauges when the registry is scraped.
+ */
+@Slf4j
+@Service
+public class QueryMetrics {
+
+    private final Map<QueryProfile.Phase, Timer> phases = new EnumMap<>(QueryProfile.Phase.class);
+    private final Counter scannedBytes;
+    private final Counter linesOut;
+    private final Counter bytesOut;
+    private final Counter cancelled;
+    private final DistributionSummary matches;
+    private final Map<SseOverflow, Counter> dropped = new EnumMap<>(SseOverflow.class);
+    private final long slowMillis;
+
+    public QueryMetrics(MeterRegistry registry, LiveTailService liveTail, ResponseWriters writers,
+                        ArchiveService archives, @Value("${log.query.slow-ms:10000}") long slowMillis) {
+        this.slowMillis = slowMillis;
+        for (QueryProfile.Phase phase : QueryProfile.Phase.values()) {
+            phases.put(phase, Timer.builder("log.query.phase")
+                    .description("Time spent in one phase of a query")
+                    .tag("phase", phase.name().toLowerCase(Locale.ROOT))
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+        this.scannedBytes = Counter.builder("log.query.scanned")
+                .description("Bytes read by match and context passes")
+                .baseUnit("bytes")
+                .register(registry);
+        this.linesOut = Counter.builder("log.stream.lines")
+                .description("Lines sent to clients")
+                .baseUnit("lines")
+                .register(registry);
+        this.bytesOut = Counter.builder("log.stream.sent")
+                .description("Uncompressed bytes sent to clients")
+                .baseUnit("bytes")
+                .register(registry);
+        this.cancelled = Counter.builder("log.query.cancelled")
+                .description("Queries stopped by the client, the deadline or the scan budget")
+                .register(registry);
+        this.matches = DistributionSummary.builder("log.query.matches")
+                .description("Matches (or estimated matches) per query")
+                .publishPercentileHistogram()
+                .register(registry);
+        for (SseOverflow policy : SseOverflow.values()) {
+            dropped.put(policy, Counter.builder("log.live.dropped")
+                    .description("Live lines dropped because a client was too slow")
+                    .tag("policy", policy.name().toLowerCase(Locale.ROOT))
+                    .register(registry));
+        }
+
+        Gauge.builder("log.live.subscribers", liveTail, LiveTailService::subscribers)
+                .description("Open live tail subscriptions")
+                .register(registry);
+        Gauge.builder("log.stream.writers", writers, ResponseWriters::openWriters)
+                .description("Open streaming responses")
+                .register(registry);
+        Gauge.builder("log.stream.pending", writers, ResponseWriters::pendingBytes)
+                .description("Bytes buffered in open responses, not yet sent")
+                .baseUnit("bytes")
+                .register(registry);
+        for (ArchiveStats stats : archives.stats()) {
+            bind(registry, stats);
+        }
+    }
+
+    /**
+     * Records a finished query, and logs its profile when it was slow.
+     */
+    public void record(QueryContext query, boolean wasCancelled) {
+        QueryProfile profile = query.getProfile();
+        for (QueryProfile.Phase phase : QueryProfile.Phase.values()) {
+            phases.get(phase).record(profile.getNanos(phase), TimeUnit.NANOSECONDS);
+        }
+        scannedBytes.increment(query.getScannedBytes());
+        linesOut.increment(profile.getLinesOut());
+        bytesOut.increment(profile.getBytesOut());
+        matches.record(profile.getMatches());
+        if (wasCancelled) {
+            cancelled.increment();
+        }
+
+        if (TimeUnit.NANOSECONDS.toMillis(profile.getElapsedNanos()) >= slowMillis) {
+            log.warn("Yavaş sorğu: {} {}{}", profile.getLabel(), profile.summary(query.getScannedBytes()),
+                    wasCancelled ? " (ləğv edildi)" : "");
+        }
+    }
+
+    public void dropped(SseOverflow policy) {
+        dropped.get(policy).increment();
+    }
+
+    private static void bind(MeterRegistry registry, ArchiveStats stats) {
+        FunctionCounter.builder("log.archive.compressed", stats, ArchiveStats::getCompressedBytes)
+                .tag("format", stats.getFormat())
+                .baseUnit("bytes")
+                .register(registry);
+        FunctionCounter.builder("log.archive.uncompressed", stats, ArchiveStats::getUncompressedBytes)
+                .tag("format", stats.getFormat())
+                .baseUnit("bytes")
+                .register(registry);
+        FunctionCounter.builder("log.archive.inflate.time", stats, s -> s.getNanos() / 1e9)
+                .tag("format", stats.getFormat())
+                .baseUnit("seconds")
+                .register(registry);
+    }
+}
@@ -0,0 +1,106 @@
+package stream.api.adapter.log.service;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import stream.api.adapter.log.engine.QueryProfile;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Opens {@link EmitterWriter}s and keeps a small pool of their buffers. A buffer sent to an emitter comes
+ * back through {@link ChunkConverter} once it has been written.
+ */
+@Service
+public class ResponseWriters {
+
+    private final ScheduledExecutorService scheduler;
+    private final int bufferBytes;
+    private final long flushMillis;
+    private final boolean gzipEnabled;
+    private final int poolSize;
+
+    private final ConcurrentLinkedQueue<byte[]> buffers = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooled = new AtomicInteger();
+    private final Set<EmitterWriter> open = ConcurrentHashMap.newKeySet();
+
+    public ResponseWriters(@Qualifier("flushScheduler") ScheduledExecutorService scheduler,
+                           @Value("${log.stream.flush-bytes:65536}") int bufferBytes,
+                           @Value("${log.stream.flush-ms:200}") long flushMillis,
+                           @Value("${log.stream.gzip:true}") boolean gzipEnabled,
+                           @Value("${log.stream.pool-size:32}") int poolSize) {
+        this.scheduler = scheduler;
+        this.bufferBytes = bufferBytes;
+        this.flushMillis = flushMillis;
+        this.gzipEnabled = gzipEnabled;
+        this.poolSize = poolSize;
+    }
+
+    /**
+     * @param acceptEncoding the request's {@code Accept-Encoding} header, may be {@code null}
+     */
+    public boolean useGzip(String acceptEncoding) {
+        return gzipEnabled && acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+    }
+
+    public EmitterWriter open(ResponseBodyEmitter emitter, boolean gzip) {
+        return open(emitter, gzip, new QueryProfile());
+    }
+
+    /**
+     * @param profile receives the lines written and the time spent sending them
+     */
+    public EmitterWriter open(ResponseBodyEmitter emitter, boolean gzip, QueryProfile profile) {
+        EmitterWriter writer = new EmitterWriter(emitter, this, gzip, scheduler, flushMillis, profile);
+        open.add(writer);
+        return writer;
+    }
+
+    public int openWriters() {
+        return open.size();
+    }
+
+    /**
+     * Bytes buffered in open writers and not yet handed to their emitter.
+     */
+    public long pendingBytes() {
+        return open.stream().mapToLong(EmitterWriter::pendingBytes).sum();
+    }
+
+    byte[] acquire() {
+        byte[] buffer = buffers.poll();
+        if (buffer == null) return new byte[bufferBytes];
+        pooled.decrementAndGet();
+        return buffer;
+    }
+
+    void release(EmitterWriter writer, byte[] buffer) {
+        open.remove(writer);
+        recycle(buffer);
+    }
+
+    void recycle(byte[] buffer) {
+        if (buffer == null || buffer.length != bufferBytes) return;
+        // pool doludursa buffer GC-yə buraxılır
+        if (pooled.incrementAndGet() <= poolSize) {
+            buffers.offer(buffer);
+        } else {
+            pooled.decrementAndGet();
+        }
+    }
+
+    /**
+     * The first {@code length} bytes of a pooled buffer, on their way to the client.
+     */
+    record Chunk(byte[] bytes, int length, ResponseWriters pool) {
+
+        void release() {
+            pool.recycle(bytes);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package stream.api.adapter.log.service;
+
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * What a live stream (plain or SSE) does with lines the client is not ready for. Every policy keeps at
+ * most {@code limit} lines per connection, however slow the client is.
+ */
+public enum SseOverflow {
+
+    /**
+     * Keeps up to {@code limit} lines; the stream ends when the client falls further behind.
+     */
+    BUFFER,
+    /**
+     * Keeps the newest {@code limit} lines, the oldest waiting line is dropped.
+     */
+    DROP_OLDEST,
+    /**
+     * Keeps nothing: lines arriving while the client is busy are skipped, so it sees a sample of the tail.
+     */
+    SAMPLE;
+
+    /**
+     * Accepts "drop-oldest" as well as "DROP_OLDEST".
+     */
+    public static SseOverflow of(String name) {
+        try {
+            return valueOf(name.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Naməlum overflow siyasəti: " + name);
+        }
+    }
+
+    public <T> Flux<T> apply(Flux<T> lines, int limit, Consumer<? super T> onDrop) {
+        return switch (this) {
+            case BUFFER -> lines.onBackpressureBuffer(limit, onDrop, BufferOverflowStrategy.ERROR);
+            case DROP_OLDEST -> lines.onBackpressureBuffer(limit, onDrop, BufferOverflowStrategy.DROP_OLDEST);
+            case SAMPLE -> lines.onBackpressureDrop(onDrop);
+        };
+    }
+}
@@ -0,0 +1,190 @@
+package stream.api.adapter.log.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Service;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import stream.api.adapter.log.engine.QueryCancelledException;
+import stream.api.adapter.log.engine.QueryContext;
+import stream.api.adapter.log.engine.QueryProfile;
+import stream.api.adapter.log.engine.TailListener;
+import stream.api.adapter.log.model.request.LogsRequest;
+import stream.api.adapter.log.model.response.SearchPage;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Server-Sent Event variants of the file and live streams. A file is read only as fast as the client takes
+ * events; a live tail cannot wait for the client, so it goes through an {@link SseOverflow} policy instead.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SseStreamService {
+
+    private static final long DEMAND_POLL_MILLIS = 100;
+
+    private final LogReaderService reader;
+    private final QueryMetrics metrics;
+
+    @Qualifier("queryExecutor")
+    private final ExecutorService queryExecutor;
+
+    @Value("${log.sse.overflow:drop-oldest}")
+    private String defaultOverflow;
+
+    @Value("${log.sse.buffer-lines:1000}")
+    private int bufferLines;
+
+    /**
+     * A "page" event with the totals, then one "line" event per context line. The reading thread waits for
+     * the client's demand before every event, so a connection holds no more than one line.
+     */
+    public Flux<ServerSentEvent<Object>> stream(LogsRequest req, QueryContext query) {
+        return Flux.create(sink -> {
+            Demand demand = new Demand(query);
+            sink.onRequest(demand::add);
+            Future<?> task = queryExecutor.submit(() -> run(req, query, demand, sink));
+            // müştəri bağlananda oxuma dayandırılır
+            sink.onDispose(() -> {
+                query.cancel();
+                task.cancel(true);
+            });
+        }, FluxSink.OverflowStrategy.ERROR);
+    }
+
+    /**
+     * New lines of the file as "line" events. When the client falls behind by more than the buffer, an
+     * "overflow" event ends the stream under {@link SseOverflow#BUFFER}; the other policies drop lines.
+     *
+     * @param overflow {@code null} for the configured policy
+     */
+    public Flux<ServerSentEvent<Object>> live(LogsRequest req, String overflow) {
+        SseOverflow policy = SseOverflow.of(overflow == null || overflow.isBlank() ? defaultOverflow : overflow);
+        Flux<String> lines = Flux.create(sink -> {
+            Runnable unsubscribe;
+            try {
+                unsubscribe = reader.subscribeLive(req.getFile(), req.getUniqueData(), req.getQuery(),
+                        new TailListener() {
+                            @Override
+                            public void onLine(byte[] buf, int start, int length) {
+                                sink.next(new String(buf, start, length, StandardCharsets.UTF_8));
+                            }
+
+                            @Override
+                            public void onClose(Exception e) {
+                                sink.error(e);
+                            }
+                        });
+            } catch (IOException e) {
+                sink.error(e);
+                return;
+            }
+            sink.onDispose(unsubscribe::run);
+        });
+
+        return policy.apply(lines, bufferLines, line -> metrics.dropped(policy))
+                .map(line -> event("line", line))
+                .onErrorResume(Exceptions::isOverflow, e -> Flux.just(
+                        event("overflow", "Müştəri geri qaldı, " + bufferLines + " sətirlik buffer doldu")));
+    }
+
+    private void run(LogsRequest req, QueryContext query, Demand demand, FluxSink<ServerSentEvent<Object>> sink) {
+        QueryProfile profile = query.getProfile();
+        boolean cancelled = false;
+        try {
+            long matchStart = System.nanoTime();
+            SearchPage page;
+            try {
+                page = reader.findPage(req, query);
+            } finally {
+                profile.record(QueryProfile.Phase.MATCH, System.nanoTime() - matchStart);
+            }
+            profile.setMatches(page.getTotal());
+            demand.take();
+            sink.next(event("page", pageInfo(page)));
+
+            long contextStart = System.nanoTime();
+            reader.streamPage(page, query, (buf, start, length) -> {
+                demand.take();
+                profile.onLine(length);
+                sink.next(event("line", new String(buf, start, length, StandardCharsets.UTF_8)));
+            });
+            // müştərini gözləmə vaxtı emit kimi sayılır
+            long elapsed = System.nanoTime() - contextStart;
+            profile.record(QueryProfile.Phase.CONTEXT,
+                    Math.max(0, elapsed - profile.getNanos(QueryProfile.Phase.EMIT)));
+            sink.complete();
+        } catch (Exception e) {
+            cancelled = e instanceof QueryCancelledException || query.isCancelled();
+            sink.error(e);
+        } finally {
+            metrics.record(query, cancelled);
+        }
+    }
+
+    private static Map<String, Object> pageInfo(SearchPage page) {
+        Map<String, Object> info = new LinkedHashMap<>();
+        info.put("total", page.getTotal());
+        info.put("totalExact", page.isTotalExact());
+        if (page.getNextCursor() != null) {
+            info.put("nextCursor", page.getNextCursor());
+        }
+        return info;
+    }
+
+    private static ServerSentEvent<Object> event(String name, Object data) {
+        return ServerSentEvent.builder(data).event(name).build();
+    }
+
+    /**
+     * Events the client has asked for and not yet received.
+     */
+    private static final class Demand {
+        private final QueryContext query;
+        private long requested;
+
+        Demand(QueryContext query) {
+            this.query = query;
+        }
+
+        synchronized void add(long n) {
+            requested = requested + n < 0 ? Long.MAX_VALUE : requested + n;
+            notifyAll();
+        }
+
+        /**
+         * Waits until one more event may be sent; the query deadline still applies while waiting.
+         */
+        synchronized void take() {
+            long start = System.nanoTime();
+            try {
+                while (requested == 0) {
+                    query.check();
+                    try {
+                        wait(DEMAND_POLL_MILLIS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        query.cancel();
+                        query.check();
+                    }
+                }
+            } finally {
+                query.getProfile().record(QueryProfile.Phase.EMIT, System.nanoTime() - start);
+            }
+            if (requested != Long.MAX_VALUE) {
+                requested--;
+            }
+        }
+    }
+}
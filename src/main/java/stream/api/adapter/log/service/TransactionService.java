@@ -0,0 +1,103 @@
+package stream.api.adapter.log.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import stream.api.adapter.log.engine.QueryContext;
+import stream.api.adapter.log.engine.TransactionIndex;
+import stream.api.adapter.log.model.response.LogResponse;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Rebuilds the story of a payment from its transaction spans: the registration that produced the
+ * serial, the Pay call for it and the GetBillList call for the registered id. Indexes of the least
+ * recently searched files are dropped once more than {@code log.transactions.max-files} are held.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TransactionService {
+
+    private static final String PAY = "Pay";
+    private static final String BILL_LIST = "GetBillList";
+
+    private final LogFileService files;
+    private final LinkedHashMap<Path, TransactionIndex> indexes = new LinkedHashMap<>(16, 0.75f, true);
+
+    // hər serial və id üçün sətir saxlanır, ona görə yalnız son fayllar yaddaşda qalır
+    @Value("${log.transactions.max-files:4}")
+    private int maxFiles;
+
+    public LogResponse findBySerial(String file, String serial, QueryContext query) {
+        if (serial == null || serial.isBlank()) {
+            throw new RuntimeException("Serial boş ola bilməz");
+        }
+
+        Path path = files.resolve(file);
+        try {
+            TransactionIndex index = index(path);
+            try (FileChannel channel = files.open(path, query)) {
+                index.update(channel, query);
+            }
+
+            int[] spans = index.byValue(serial.trim());
+            int register = first(index, spans, false);
+            int pay = last(index, spans, PAY);
+            String id = register < 0 ? null : index.firstId(register);
+            int billList = id == null ? -1 : first(index, index.byId(id), true);
+
+            try (FileChannel channel = files.open(path, query)) {
+                return LogResponse.builder()
+                        .register(lines(channel, index, register, query))
+                        .pay(lines(channel, index, pay, query))
+                        .billList(lines(channel, index, billList, query))
+                        .build();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private synchronized TransactionIndex index(Path path) {
+        TransactionIndex index = indexes.computeIfAbsent(path, p -> new TransactionIndex());
+        while (indexes.size() > maxFiles) {
+            Path eldest = indexes.keySet().iterator().next();
+            if (eldest.equals(path)) break;
+            indexes.remove(eldest);
+        }
+        return index;
+    }
+
+    /**
+     * First GetBillList span when {@code billList} is set, otherwise the first span that is neither
+     * Pay nor GetBillList (the registration).
+     */
+    private static int first(TransactionIndex index, int[] spans, boolean billList) {
+        for (int span : spans) {
+            String operation = index.operation(span);
+            boolean isBillList = BILL_LIST.equals(operation);
+            if (billList ? isBillList : !isBillList && !PAY.equals(operation)) return span;
+        }
+        return -1;
+    }
+
+    private static int last(TransactionIndex index, int[] spans, String operation) {
+        for (int i = spans.length - 1; i >= 0; i--) {
+            if (operation.equals(index.operation(spans[i]))) return spans[i];
+        }
+        return -1;
+    }
+
+    private static List<String> lines(FileChannel channel, TransactionIndex index, int span,
+                                      QueryContext query) throws IOException {
+        if (span < 0) return Collections.emptyList();
+        return index.lines(channel, span, query);
+    }
+}
@@ -0,0 +1,72 @@
+package stream.api.adapter.log.engine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ActivityStatsTest {
+
+    @TempDir
+    Path dir;
+
+    private static String lines(String level, int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.append("2025-09-24 00:00:0").append(i % 10).append(".000 [T1] [").append(level)
+                    .append("] - line ").append(i).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static Map<String, int[]> levels(ActivityStats stats) {
+        long from = stats.covered().from();
+        return stats.histogram(ActivityStats.Dimension.LEVEL, null, from, 1, 1);
+    }
+
+    @Test
+    void rotatedFileThatGrewPastTheCountsIsCountedAlone() throws IOException {
+        Path log = dir.resolve("app.log");
+        Files.writeString(log, lines("ERR", 3));
+        ActivityStats stats = new ActivityStats();
+        try (FileChannel channel = FileChannel.open(log)) {
+            stats.update(channel);
+        }
+        assertEquals(3, levels(stats).get("ERR")[0]);
+
+        Files.writeString(log, lines("INF", 20));
+        try (FileChannel channel = FileChannel.open(log)) {
+            assertTrue(stats.update(channel));
+        }
+        Map<String, int[]> levels = levels(stats);
+        assertNull(levels.get("ERR"));
+        assertEquals(20, levels.get("INF")[0]);
+        assertEquals(20, levels.get(null)[0]);
+    }
+
+    @Test
+    void sidecarOfAnEarlierFileIsNotLoaded() throws IOException {
+        Path log = dir.resolve("app.log");
+        Path sidecar = dir.resolve("app.log.acts");
+        Files.writeString(log, lines("ERR", 3));
+        ActivityStats stats = new ActivityStats();
+        try (FileChannel channel = FileChannel.open(log)) {
+            stats.update(channel);
+            stats.save(sidecar);
+            assertEquals(3, levels(ActivityStats.load(sidecar, channel)).get("ERR")[0]);
+        }
+
+        Files.writeString(log, lines("INF", 20));
+        try (FileChannel channel = FileChannel.open(log)) {
+            assertEquals(0, ActivityStats.load(sidecar, channel).getIndexedBytes());
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package stream.api.adapter.log.engine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.Deflater;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ArchiveChannelTest {
+
+    private static final long CHECKPOINT_INTERVAL = 64 * 1024;
+
+    @TempDir
+    Path dir;
+
+    private static GzipFixture fixture() {
+        return new GzipFixture()
+                .member(GzipFixture.lines(8_000, 11), Deflater.DEFAULT_COMPRESSION)
+                .member(new byte[][]{GzipFixture.noise(100_000, 12), GzipFixture.lines(6_000, 13)},
+                        new int[]{Deflater.NO_COMPRESSION, Deflater.BEST_SPEED})
+                .member("2025-09-24 23:59:59.999 [T9] [INF] - last\n".getBytes(), Deflater.DEFAULT_COMPRESSION);
+    }
+
+    private FileChannel open(GzipFixture fixture) throws IOException {
+        Path file = dir.resolve("a.log.gz");
+        Files.write(file, fixture.archive());
+        FileChannel archive = FileChannel.open(file);
+        GzipIndex index = GzipIndex.build(archive, 0, CHECKPOINT_INTERVAL, QueryContext.NONE);
+        assertTrue(index.checkpoints() > 3);
+        return new ArchiveChannel(archive, index, new ArchiveStats("gzip"));
+    }
+
+    @Test
+    void sequentialReadGivesTheContent() throws IOException {
+        GzipFixture fixture = fixture();
+        byte[] content = fixture.content();
+        try (FileChannel channel = open(fixture)) {
+            assertEquals(content.length, channel.size());
+            ByteArrayOutputStream read = new ByteArrayOutputStream();
+            ByteBuffer buf = ByteBuffer.allocate(10_000);
+            while (channel.read(buf) > 0) {
+                read.write(buf.array(), 0, buf.position());
+                buf.clear();
+            }
+            assertArrayEquals(content, read.toByteArray());
+        }
+    }
+
+    @Test
+    void randomPositionalReads() throws IOException {
+        GzipFixture fixture = fixture();
+        byte[] content = fixture.content();
+        Random random = new Random(14);
+        try (FileChannel channel = open(fixture)) {
+            for (int i = 0; i < 500; i++) {
+                long position = random.nextInt(content.length + 10);
+                int length = 1 + random.nextInt(i % 2 == 0 ? 100 : 80_000);
+                // heap və direct buffer ayrı yollardan keçir
+                ByteBuffer dst = i % 3 == 0 ? ByteBuffer.allocateDirect(length) : ByteBuffer.allocate(length);
+                int n = channel.read(dst, position);
+                if (position >= content.length) {
+                    assertEquals(-1, n);
+                    continue;
+                }
+                assertTrue(n > 0);
+                byte[] got = new byte[n];
+                dst.flip().get(got);
+                assertArrayEquals(Arrays.copyOfRange(content, (int) position, (int) position + n), got);
+            }
+        }
+    }
+
+    @Test
+    void transferToCopiesARange() throws IOException {
+        GzipFixture fixture = fixture();
+        byte[] content = fixture.content();
+        try (FileChannel channel = open(fixture)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            long from = 150_000;
+            long count = 300_000;
+            assertEquals(count, channel.transferTo(from, count, Channels.newChannel(out)));
+            assertArrayEquals(Arrays.copyOfRange(content, (int) from, (int) (from + count)), out.toByteArray());
+        }
+    }
+}
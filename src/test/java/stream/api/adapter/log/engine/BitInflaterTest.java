@@ -0,0 +1,84 @@
+package stream.api.adapter.log.engine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.Deflater;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BitInflaterTest {
+
+    @TempDir
+    Path dir;
+
+    private long inflate(byte[] archive, byte[] content, List<Long> members) throws IOException {
+        Path file = dir.resolve("a.log.gz");
+        Files.write(file, archive);
+        try (FileChannel channel = FileChannel.open(file)) {
+            BitInflater inflater = new BitInflater(channel, QueryContext.NONE);
+            return inflater.run((out, bitOffset, member) -> {
+                if (member) members.add(out);
+                // sərhəddəki pəncərə açılmış məzmunun həmin yerə qədər olan son hissəsidir
+                byte[] window = inflater.window();
+                long memberStart = member ? out : members.get(members.size() - 1);
+                int expected = (int) Math.min(BitInflater.WINDOW_SIZE, out - memberStart);
+                assertEquals(expected, window.length);
+                assertArrayEquals(Arrays.copyOfRange(content, (int) out - window.length, (int) out), window);
+            });
+        }
+    }
+
+    @Test
+    void storedFixedAndDynamicBlocks() throws IOException {
+        byte[] stored = GzipFixture.noise(150_000, 1);
+        byte[] fixed = "2025-09-24 00:00:00.000 [T1] [INF] - ok\n".getBytes();
+        byte[] dynamic = GzipFixture.lines(5_000, 2);
+
+        int[] types = new int[3];
+        byte[][] parts = {stored, fixed, dynamic};
+        int[] levels = {Deflater.NO_COMPRESSION, Deflater.DEFAULT_COMPRESSION, Deflater.DEFAULT_COMPRESSION};
+        for (int i = 0; i < 3; i++) {
+            byte[] archive = new GzipFixture().member(parts[i], levels[i]).archive();
+            types[i] = GzipFixture.firstBlockType(archive, 0);
+            List<Long> members = new ArrayList<>();
+            assertEquals(parts[i].length, inflate(archive, parts[i], members));
+            assertEquals(List.of(0L), members);
+        }
+        assertArrayEquals(new int[]{0, 1, 2}, types);
+    }
+
+    @Test
+    void multiMemberArchiveWithMixedBlocks() throws IOException {
+        GzipFixture fixture = new GzipFixture()
+                .member(GzipFixture.lines(3_000, 3), Deflater.DEFAULT_COMPRESSION)
+                .member(new byte[][]{GzipFixture.noise(70_000, 4), GzipFixture.lines(2_000, 5), "x\n".getBytes()},
+                        new int[]{Deflater.NO_COMPRESSION, Deflater.BEST_SPEED, Deflater.DEFAULT_COMPRESSION})
+                .member(new byte[0], Deflater.DEFAULT_COMPRESSION)
+                .member(GzipFixture.lines(4_000, 6), Deflater.BEST_COMPRESSION);
+        byte[] content = fixture.content();
+
+        List<Long> members = new ArrayList<>();
+        assertEquals(content.length, inflate(fixture.archive(), content, members));
+        assertEquals(4, members.size());
+        assertEquals(0, (long) members.get(0));
+        assertTrue(members.get(1) > 0);
+    }
+
+    @Test
+    void truncatedArchiveIsRejected() throws IOException {
+        byte[] archive = new GzipFixture().member(GzipFixture.lines(1_000, 7), Deflater.DEFAULT_COMPRESSION).archive();
+        byte[] truncated = Arrays.copyOf(archive, archive.length / 2);
+        assertThrows(IOException.class, () -> inflate(truncated, new byte[0], new ArrayList<>()));
+    }
+}
@@ -0,0 +1,51 @@
+package stream.api.adapter.log.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BytePatternTest {
+
+    private static final byte[] TEXT = "ab abc abcab xabcabd".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void arrayAndBufferAgree() {
+        BytePattern pattern = new BytePattern("abcabd");
+        ByteBuffer buffer = ByteBuffer.wrap(TEXT);
+        assertEquals(14, pattern.indexOf(TEXT, 0, TEXT.length));
+        assertEquals(14, pattern.indexOf(buffer, 0, TEXT.length));
+    }
+
+    @Test
+    void matchMustFitBeforeTheEnd() {
+        BytePattern pattern = new BytePattern("abd");
+        assertEquals(17, pattern.indexOf(TEXT, 0, TEXT.length));
+        // "to" sərhədi nümunənin ortasına düşür
+        assertEquals(-1, pattern.indexOf(TEXT, 0, TEXT.length - 1));
+        assertEquals(-1, pattern.indexOf(TEXT, 18, TEXT.length));
+    }
+
+    @Test
+    void searchStartsAtFrom() {
+        BytePattern pattern = new BytePattern("abc");
+        assertEquals(3, pattern.indexOf(TEXT, 0, TEXT.length));
+        assertEquals(7, pattern.indexOf(TEXT, 4, TEXT.length));
+        assertEquals(-1, pattern.indexOf(TEXT, 0, 2));
+        assertEquals(-1, pattern.indexOf(new byte[0], 0, 0));
+    }
+
+    @Test
+    void multiByteLiteralMatchesItsUtf8Bytes() {
+        byte[] text = "sorğu uğurlu".getBytes(StandardCharsets.UTF_8);
+        assertEquals(7, new BytePattern("uğur").indexOf(text, 0, text.length));
+    }
+
+    @Test
+    void emptyLiteralIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new BytePattern(""));
+    }
+}
@@ -0,0 +1,126 @@
+package stream.api.adapter.log.engine;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EntryMergeTest {
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private static EntryMerge.Body lines(String... lines) {
+        return sink -> {
+            for (String line : lines) {
+                byte[] bytes = line.getBytes(StandardCharsets.US_ASCII);
+                sink.line(bytes, 0, bytes.length);
+            }
+        };
+    }
+
+    private static String header(int second, String text) {
+        return "2025-09-24 00:00:0" + second + ".000 [T1] [INF] - " + text;
+    }
+
+    private List<String> merge(List<EntryMerge.Source> sources, long idleMillis, boolean newestFirst,
+                               List<String> failed) {
+        List<String> out = new ArrayList<>();
+        failed.addAll(EntryMerge.merge(sources, executor, 2, idleMillis, newestFirst, QueryContext.NONE,
+                (buf, start, length) -> out.add(new String(buf, start, length, StandardCharsets.UTF_8))));
+        return out;
+    }
+
+    @Test
+    void entriesAreMergedInTimeOrder() {
+        List<String> failed = new ArrayList<>();
+        List<String> out = merge(List.of(
+                new EntryMerge.Source("a", lines(header(1, "a1"), "\tat a.one", header(4, "a4")), null),
+                new EntryMerge.Source("b", lines(header(2, "b2"), header(3, "b3"), "\tat b.three"), null)),
+                5_000, false, failed);
+
+        // davam sətirləri öz yazısı ilə birlikdə qalır
+        assertEquals(List.of(
+                "[a] " + header(1, "a1"), "[a] \tat a.one",
+                "[b] " + header(2, "b2"),
+                "[b] " + header(3, "b3"), "[b] \tat b.three",
+                "[a] " + header(4, "a4")), out);
+        assertTrue(failed.isEmpty());
+    }
+
+    @Test
+    void newestFirstSourcesAreMergedNewestFirst() {
+        List<String> failed = new ArrayList<>();
+        List<String> out = merge(List.of(
+                new EntryMerge.Source("a", lines(header(5, "a5"), header(2, "a2")), null),
+                new EntryMerge.Source("b", lines(header(4, "b4"), header(3, "b3"), header(1, "b1")), null)),
+                5_000, true, failed);
+
+        assertEquals(List.of(
+                "[a] " + header(5, "a5"), "[b] " + header(4, "b4"), "[b] " + header(3, "b3"),
+                "[a] " + header(2, "a2"), "[b] " + header(1, "b1")), out);
+        assertTrue(failed.isEmpty());
+    }
+
+    @Test
+    void idleSourceIsDroppedAndClosed() throws InterruptedException {
+        CountDownLatch closed = new CountDownLatch(1);
+        EntryMerge.Body stuck = sink -> {
+            lines(header(1, "s1"), header(3, "s3")).stream(sink);
+            // bağlanana qədər heç nə göndərmir
+            closed.await();
+        };
+        List<String> failed = new ArrayList<>();
+        long start = System.nanoTime();
+        List<String> out = merge(List.of(
+                new EntryMerge.Source("slow", stuck, closed::countDown),
+                new EntryMerge.Source("fast", lines(header(2, "f2"), header(4, "f4")), null)),
+                300, false, failed);
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 3_000);
+        assertEquals(List.of("slow"), failed);
+        // s3 yığılıb göndərilməyib və itir, qalan mənbə axıra qədər gedir
+        assertEquals(4, out.size());
+        assertEquals("[slow] " + header(1, "s1"), out.get(0));
+        assertTrue(out.get(1).startsWith("[slow] Axın yarımçıq qaldı: cavab 300 ms"), out.get(1));
+        assertEquals(List.of("[fast] " + header(2, "f2"), "[fast] " + header(4, "f4")), out.subList(2, 4));
+        assertTrue(closed.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void failedSourceKeepsItsLinesAndIsReported() {
+        EntryMerge.Body broken = sink -> {
+            lines(header(1, "x0"), header(1, "x1")).stream(sink);
+            throw new IOException("disk xətası");
+        };
+        List<String> failed = new ArrayList<>();
+        List<String> out = merge(List.of(
+                new EntryMerge.Source("broken", broken, null),
+                new EntryMerge.Source("ok", lines(header(2, "o2")), null)),
+                5_000, false, failed);
+
+        assertEquals(List.of("broken"), failed);
+        // x0 göndərilib, xəta zamanı yığılan x1 isə itir
+        assertEquals(List.of("[broken] " + header(1, "x0"), "[broken] Axın yarımçıq qaldı: disk xətası", "[ok] " + header(2, "o2")), out);
+    }
+}
@@ -0,0 +1,88 @@
+package stream.api.adapter.log.engine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FileTailerTest {
+
+    private static final String ERROR = "2025-09-24 00:00:01.000 [T1] [ERR] - payment timeout";
+    private static final String WARNING = "2025-09-24 00:00:02.000 [T1] [WRN] - slow payment";
+    private static final String INFO = "2025-09-24 00:00:03.000 [T2] [INF] - refund ok";
+
+    @TempDir
+    Path dir;
+
+    private FileTailer tailer() throws IOException {
+        Path log = dir.resolve("app.log");
+        Files.writeString(log, "");
+        return new FileTailer(log, t -> {
+        });
+    }
+
+    private static List<String> subscribe(FileTailer tailer, LineFilter filter) {
+        List<String> lines = new ArrayList<>();
+        tailer.subscribe(filter, (buf, start, length) -> lines.add(new String(buf, start, length, StandardCharsets.UTF_8)));
+        return lines;
+    }
+
+    private static void dispatch(FileTailer tailer, String... lines) {
+        for (String line : lines) {
+            byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+            tailer.dispatch(0, bytes, 0, bytes.length);
+        }
+    }
+
+    @Test
+    void linesGoOnlyToTheSubscribersTheyMatch() throws IOException {
+        FileTailer tailer = tailer();
+        List<String> errors = subscribe(tailer, LineFilter.literal("[ERR]"));
+        List<String> payments = subscribe(tailer, LineFilter.parse("payment AND NOT timeout"));
+        List<String> everything = subscribe(tailer, null);
+        List<String> refunds = subscribe(tailer, LineFilter.parse("/refund/"));
+
+        dispatch(tailer, ERROR, WARNING, INFO);
+
+        assertEquals(List.of(ERROR), errors);
+        assertEquals(List.of(WARNING), payments);
+        assertEquals(List.of(ERROR, WARNING, INFO), everything);
+        assertEquals(List.of(INFO), refunds);
+    }
+
+    @Test
+    void subscriberWithSeveralHitLiteralsGetsTheLineOnce() throws IOException {
+        FileTailer tailer = tailer();
+        List<String> either = subscribe(tailer, LineFilter.parse("payment OR timeout OR [ERR]"));
+        List<String> same = subscribe(tailer, LineFilter.literal("payment"));
+
+        dispatch(tailer, ERROR, INFO, ERROR);
+
+        assertEquals(List.of(ERROR, ERROR), either);
+        assertEquals(List.of(ERROR, ERROR), same);
+    }
+
+    @Test
+    void leavingSubscriberStopsReceiving() throws IOException {
+        FileTailer tailer = tailer();
+        List<String> kept = subscribe(tailer, LineFilter.literal("payment"));
+        List<String> left = new ArrayList<>();
+        FileTailer.Subscription subscription = tailer.subscribe(LineFilter.literal("payment"),
+                (buf, start, length) -> left.add(new String(buf, start, length, StandardCharsets.UTF_8)));
+
+        dispatch(tailer, ERROR);
+        tailer.unsubscribe(subscription);
+        dispatch(tailer, WARNING);
+
+        assertEquals(List.of(ERROR, WARNING), kept);
+        assertEquals(List.of(ERROR), left);
+        assertEquals(1, tailer.size());
+    }
+}
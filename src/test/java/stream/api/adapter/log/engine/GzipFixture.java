@@ -0,0 +1,106 @@
+package stream.api.adapter.log.engine;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Gzip archives for the inflater tests, built member by member with a chosen deflate level per part.
+ */
+final class GzipFixture {
+
+    private final ByteArrayOutputStream archive = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream content = new ByteArrayOutputStream();
+
+    /**
+     * Log-like lines; compressed with the default level they give dynamic Huffman blocks.
+     */
+    static byte[] lines(int count, long seed) {
+        Random random = new Random(seed);
+        StringBuilder sb = new StringBuilder();
+        String[] words = {"timeout", "Payment", "GetBillList", "ok", "retry", "Serial:SN", "amount="};
+        for (int i = 0; i < count; i++) {
+            sb.append(String.format("2025-09-24 %02d:%02d:%02d.%03d [T%d] [%s] - ", i / 3600 % 24, i / 60 % 60,
+                    i % 60, random.nextInt(1000), random.nextInt(64), random.nextBoolean() ? "INF" : "ERR"));
+            for (int w = random.nextInt(6) + 1; w > 0; w--) {
+                sb.append(words[random.nextInt(words.length)]).append(random.nextInt(100_000)).append(' ');
+            }
+            sb.append('\n');
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Incompressible bytes; with {@link Deflater#NO_COMPRESSION} they give stored blocks.
+     */
+    static byte[] noise(int length, long seed) {
+        byte[] bytes = new byte[length];
+        new Random(seed).nextBytes(bytes);
+        return bytes;
+    }
+
+    /**
+     * One gzip member holding {@code parts[i]} deflated at {@code levels[i]}, each part ending its own
+     * block(s) with a sync flush.
+     */
+    GzipFixture member(byte[][] parts, int[] levels) {
+        Deflater deflater = new Deflater(levels[0], true);
+        ByteArrayOutputStream deflated = new ByteArrayOutputStream();
+        byte[] buf = new byte[64 * 1024];
+        CRC32 crc = new CRC32();
+        long size = 0;
+        for (int i = 0; i < parts.length; i++) {
+            deflater.setLevel(levels[i]);
+            deflater.setInput(parts[i]);
+            int mode = i == parts.length - 1 ? Deflater.NO_FLUSH : Deflater.SYNC_FLUSH;
+            if (i == parts.length - 1) deflater.finish();
+            int n;
+            while ((n = deflater.deflate(buf, 0, buf.length, mode)) > 0 || !deflater.needsInput()) {
+                deflated.write(buf, 0, n);
+                if (deflater.finished()) break;
+            }
+            crc.update(parts[i]);
+            size += parts[i].length;
+            content.writeBytes(parts[i]);
+        }
+        while (!deflater.finished()) {
+            int n = deflater.deflate(buf);
+            deflated.write(buf, 0, n);
+        }
+        deflater.end();
+
+        archive.writeBytes(new byte[]{0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, (byte) 0xff});
+        archive.writeBytes(deflated.toByteArray());
+        writeInt((int) crc.getValue());
+        writeInt((int) size);
+        return this;
+    }
+
+    GzipFixture member(byte[] data, int level) {
+        return member(new byte[][]{data}, new int[]{level});
+    }
+
+    byte[] archive() {
+        return archive.toByteArray();
+    }
+
+    byte[] content() {
+        return content.toByteArray();
+    }
+
+    /**
+     * Deflate block type (0 stored, 1 fixed, 2 dynamic) of the first block of a member starting at
+     * {@code memberStart} with the plain 10 byte header written here.
+     */
+    static int firstBlockType(byte[] archive, int memberStart) {
+        return (archive[memberStart + 10] >> 1) & 3;
+    }
+
+    private void writeInt(int value) {
+        for (int i = 0; i < 4; i++) {
+            archive.write(value >>> (8 * i));
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package stream.api.adapter.log.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LineFilterTest {
+
+    private static boolean matches(String query, String line) {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        return LineFilter.parse(query).matches(bytes, 0, bytes.length);
+    }
+
+    @Test
+    void andBindsTighterThanOr() {
+        // a OR (b AND c)
+        assertTrue(matches("aa OR bb AND cc", "aa"));
+        assertFalse(matches("aa OR bb AND cc", "bb"));
+        assertTrue(matches("aa OR bb AND cc", "bb cc"));
+    }
+
+    @Test
+    void adjacentTermsAreAnded() {
+        // (a AND b) OR c
+        assertTrue(matches("aa bb OR cc", "cc"));
+        assertTrue(matches("aa bb OR cc", "aa bb"));
+        assertFalse(matches("aa bb OR cc", "aa"));
+    }
+
+    @Test
+    void notBindsTighterThanAnd() {
+        // (NOT a) AND b
+        assertTrue(matches("NOT aa bb", "bb"));
+        assertFalse(matches("NOT aa bb", "aa bb"));
+        assertFalse(matches("NOT aa bb", "cc"));
+    }
+
+    @Test
+    void parenthesesOverridePrecedence() {
+        assertFalse(matches("(aa OR bb) AND cc", "aa"));
+        assertTrue(matches("(aa OR bb) AND cc", "bb cc"));
+        assertTrue(matches("NOT (aa OR bb)", "cc"));
+        assertFalse(matches("NOT (aa OR bb)", "bb"));
+    }
+
+    @Test
+    void quotedLiteralsAndRegexes() {
+        assertTrue(matches("\"OR AND\" /T\\d+/", "x OR AND [T12]"));
+        assertFalse(matches("\"OR AND\" /T\\d+/", "x OR AND [Tx]"));
+        assertTrue(matches("/timeout/i", "TIMEOUT"));
+    }
+
+    @Test
+    void prefilterIsARequiredClause() {
+        LineFilter filter = LineFilter.parse("ERR AND (Payment OR GetBillList) AND NOT timeout");
+        assertEquals(2, filter.prefilter().length);
+        assertFalse(matches("ERR AND (Payment OR GetBillList) AND NOT timeout", "ERR Payment timeout"));
+        assertTrue(matches("ERR AND (Payment OR GetBillList) AND NOT timeout", "ERR GetBillList ok"));
+    }
+
+    @Test
+    void malformedQueriesAreRejected() {
+        assertThrows(RuntimeException.class, () -> LineFilter.parse("(aa OR bb"));
+        assertThrows(RuntimeException.class, () -> LineFilter.parse("aa OR"));
+        assertThrows(RuntimeException.class, () -> LineFilter.parse("/a(b/"));
+    }
+}
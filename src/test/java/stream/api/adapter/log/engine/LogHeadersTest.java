@@ -0,0 +1,69 @@
+package stream.api.adapter.log.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogHeadersTest {
+
+    private static LogHeader parse(String line) {
+        LogHeader header = new LogHeader();
+        byte[] bytes = line.getBytes(StandardCharsets.US_ASCII);
+        assertTrue(LogHeaders.parse(bytes, 0, bytes.length, header), line);
+        return header;
+    }
+
+    private static int thread(String id) {
+        return parse("2025-09-24 00:00:01.000 [" + id + "] [INF] - text").getThread();
+    }
+
+    @Test
+    void leadingZerosKeepThreadsApart() {
+        assertNotEquals(thread("T7"), thread("T007"));
+        assertNotEquals(thread("T07"), thread("T007"));
+        assertEquals(thread("T007"), thread("T007"));
+        assertEquals("T007", LogHeaders.threadName(thread("T007")));
+        assertEquals("T7", LogHeaders.threadName(thread("T7")));
+        assertEquals("T0", LogHeaders.threadName(thread("T0")));
+        assertEquals(thread("T012"), LogHeaders.threadId("012"));
+    }
+
+    @Test
+    void longestIdsKeepTheirKey() {
+        assertEquals("T999999999", LogHeaders.threadName(thread("T999999999")));
+        assertEquals("T000000000", LogHeaders.threadName(thread("T000000000")));
+        assertTrue(thread("T999999999") > thread("T000000000"));
+    }
+
+    @Test
+    void overlongIdIsNotAThread() {
+        // int-ə sığmayan id başqa thread-ə çevrilmir
+        assertFalse(parse("2025-09-24 00:00:01.000 [T4294967303] [INF] - text").hasThread());
+        assertEquals(LogHeaders.NO_THREAD, LogHeaders.threadId("0123456789"));
+        assertEquals(thread("T5"), parse("2025-09-24 00:00:01.000 [T12345678901] [T5] - text").getThread());
+    }
+
+    @Test
+    void malformedIdsAreSkipped() {
+        assertFalse(parse("2025-09-24 00:00:01.000 [T] [INF] - text").hasThread());
+        assertFalse(parse("2025-09-24 00:00:01.000 [T12 [INF] - text").hasThread());
+        assertEquals(LogHeaders.NO_THREAD, LogHeaders.threadId(""));
+        assertEquals(LogHeaders.NO_THREAD, LogHeaders.threadId("1a"));
+    }
+
+    @Test
+    void textFormMatchesTheByteForm() {
+        String line = "2025-09-24 10:20:30.456 [T042] [ERR] - text";
+        LogHeader header = new LogHeader();
+        assertTrue(LogHeaders.parse(line, header));
+        assertEquals(parse(line).getMillis(), header.getMillis());
+        assertEquals(parse(line).getThread(), header.getThread());
+        assertFalse(LogHeaders.parse("2025-09-24 10:20", header));
+        assertEquals(LogHeaders.parseTime("2025-09-24T10:20:30.456"), header.getMillis());
+    }
+}
@@ -0,0 +1,125 @@
+package stream.api.adapter.log.engine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MappedSearchTest {
+
+    @TempDir
+    Path dir;
+
+    private Path write(String text) throws IOException {
+        Path log = dir.resolve("app.log");
+        Files.writeString(log, text, StandardCharsets.US_ASCII);
+        return log;
+    }
+
+    /**
+     * Entries of a header and a continuation line; every seventh continuation line holds "needle".
+     */
+    private static String entries(int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.append("2025-09-24 00:00:01.000 [T1] [ERR] - entry ").append(i).append('\n');
+            sb.append("    at step ").append(i).append(i % 7 == 0 ? " needle" : "").append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static List<long[]> scan(Path log, long windowSize, String literal) throws IOException {
+        List<long[]> found = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(log)) {
+            long end = MappedSearch.scan(channel, 0, channel.size(), windowSize, LineFilter.literal(literal),
+                    QueryContext.NONE, line -> found.add(new long[]{line.getOffset(), line.getHeaderOffset(),
+                            line.getNextOffset()}));
+            assertEquals(channel.size(), end);
+        }
+        return found;
+    }
+
+    /**
+     * (offset, header offset, next offset) of every line holding {@code literal}, found by reading the text.
+     */
+    private static List<long[]> expected(String text, String literal) {
+        List<long[]> expected = new ArrayList<>();
+        long header = -1;
+        int start = 0;
+        while (start < text.length()) {
+            int newline = text.indexOf('\n', start);
+            int end = newline < 0 ? text.length() : newline;
+            String line = text.substring(start, end);
+            if (line.startsWith("2025-")) header = start;
+            if (line.contains(literal)) {
+                expected.add(new long[]{start, header, newline < 0 ? end : end + 1});
+            }
+            start = end + 1;
+        }
+        return expected;
+    }
+
+    private static void assertSame(List<long[]> expected, List<long[]> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i)[0], actual.get(i)[0], "offset " + i);
+            assertEquals(expected.get(i)[1], actual.get(i)[1], "header " + i);
+            assertEquals(expected.get(i)[2], actual.get(i)[2], "next " + i);
+        }
+    }
+
+    @Test
+    void matchStraddlingAWindowBoundaryIsFoundOnce() throws IOException {
+        String text = entries(400);
+        Path log = write(text);
+        // pəncərə sərhədi "needle"-ın ortasına düşür
+        int straddled = text.indexOf("needle", 5000);
+        assertSame(expected(text, "needle"), scan(log, straddled + 3, "needle"));
+        for (long window : new long[]{512, 1000, 4096}) {
+            assertSame(expected(text, "needle"), scan(log, window, "needle"));
+        }
+    }
+
+    @Test
+    void lastLineWithoutNewlineIsSearched() throws IOException {
+        String text = entries(20) + "2025-09-24 00:00:02.000 [T1] [ERR] - last needle";
+        Path log = write(text);
+        List<long[]> found = scan(log, 1L << 28, "last needle");
+        assertEquals(1, found.size());
+        assertEquals(text.lastIndexOf("2025-"), found.get(0)[0]);
+        assertEquals(text.length(), found.get(0)[2]);
+        assertSame(expected(text, "needle"), scan(log, 256, "needle"));
+    }
+
+    @Test
+    void emptyFileHasNoMatches() throws IOException {
+        Path log = write("");
+        assertTrue(scan(log, 1L << 28, "needle").isEmpty());
+    }
+
+    @Test
+    void visitorCanStopTheSearch() throws IOException {
+        String text = entries(100);
+        Path log = write(text);
+        List<long[]> expected = expected(text, "needle");
+        List<Long> seen = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(log)) {
+            long stoppedAt = MappedSearch.scan(channel, 0, channel.size(), 512, LineFilter.literal("needle"),
+                    QueryContext.NONE, line -> {
+                        seen.add(line.getOffset());
+                        return seen.size() < 3;
+                    });
+            assertEquals(3, seen.size());
+            assertEquals(expected.get(2)[2], stoppedAt);
+        }
+    }
+}
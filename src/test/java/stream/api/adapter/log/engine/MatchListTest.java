@@ -0,0 +1,114 @@
+package stream.api.adapter.log.engine;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MatchListTest {
+
+    // bir yazının üç sətri, sonrakı yazının bir sətri uyğun gəlir
+    private static final String FIRST = "2025-09-24 00:00:00.000 [T1] [ERR] - timeout calling bank\n"
+            + "\tcaused by: timeout after 30s\n"
+            + "\tat x.y(Z.java:1) timeout\n";
+    private static final String SECOND = "2025-09-24 00:00:01.000 [T2] [ERR] - timeout again\n";
+    private static final String OTHER = "2025-09-24 00:00:02.000 [T3] [INF] - ok\n";
+
+    @TempDir
+    Path dir;
+
+    private Path log;
+    private long second;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        log = dir.resolve("app.log");
+        Files.writeString(log, FIRST + SECOND + OTHER);
+        second = FIRST.length();
+    }
+
+    private static long[] offsets(MatchList matches) {
+        long[] offsets = new long[matches.size()];
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = matches.offset(i);
+        }
+        return offsets;
+    }
+
+    private static long[] reversed(long[] offsets) {
+        long[] copy = offsets.clone();
+        for (int i = 0; i < copy.length / 2; i++) {
+            long t = copy[i];
+            copy[i] = copy[copy.length - 1 - i];
+            copy[copy.length - 1 - i] = t;
+        }
+        return copy;
+    }
+
+    @Test
+    void forwardCountsEntriesLikeReverse() throws IOException {
+        LineFilter filter = LineFilter.parse("timeout");
+        try (FileChannel channel = FileChannel.open(log)) {
+            MatchList forward = new MatchList();
+            MappedSearch.scan(channel, 0, channel.size(), filter, forward);
+            MatchList stream = new MatchList();
+            StreamSearch.scan(channel, 0, channel.size(), filter, QueryContext.NONE, stream);
+            MatchList reverse = new MatchList();
+            ReverseSearch.scan(channel, 0, channel.size(), filter, QueryContext.NONE, reverse);
+
+            assertArrayEquals(new long[]{0, second}, offsets(forward));
+            assertArrayEquals(offsets(forward), offsets(stream));
+            assertArrayEquals(new long[]{second, 0}, offsets(reverse));
+            assertArrayEquals(offsets(forward), reversed(offsets(reverse)));
+        }
+    }
+
+    @Test
+    void entryIsCountedOnceAcrossResumeCalls() throws IOException {
+        LineFilter filter = LineFilter.parse("timeout");
+        try (FileChannel channel = FileChannel.open(log)) {
+            MatchList matches = new MatchList().resume(0, 1);
+            long stoppedAt = MappedSearch.scan(channel, 0, channel.size(), filter, matches);
+            assertEquals(1, matches.size());
+
+            // QueryCache kimi: dayanılan yerdən əvvəlki header-dən davam edilir
+            long from = ReverseLineReader.headerBefore(channel, stoppedAt, 1 << 20);
+            MappedSearch.scan(channel, from, channel.size(), filter, matches.resume(stoppedAt, 10));
+            assertArrayEquals(new long[]{0, second}, offsets(matches));
+        }
+    }
+
+    @Test
+    void entryIsCountedOnceAcrossWindows() throws IOException {
+        LineFilter filter = LineFilter.parse("timeout");
+        try (FileChannel channel = FileChannel.open(log)) {
+            MatchList matches = new MatchList();
+            MappedSearch.scan(channel, 0, channel.size(), FIRST.length() + 16, filter, QueryContext.NONE, matches);
+            assertArrayEquals(new long[]{0, second}, offsets(matches));
+
+            MatchList parallel = new MatchList();
+            new ParallelSearch(ForkJoinPool.commonPool()).scan(channel, 0, channel.size(), filter, parallel);
+            assertArrayEquals(new long[]{0, second}, offsets(parallel));
+        }
+    }
+
+    @Test
+    void previousPageEntryIsSkipped() throws IOException {
+        LineFilter filter = LineFilter.parse("timeout");
+        try (FileChannel channel = FileChannel.open(log)) {
+            // kursor birinci yazının ilk uyğun sətrindən sonradır
+            long cursor = FIRST.indexOf('\n') + 1;
+            MatchList matches = new MatchList().resume(cursor, 10).after(0);
+            MappedSearch.scan(channel, 0, channel.size(), filter, matches);
+            assertArrayEquals(new long[]{second}, offsets(matches));
+        }
+    }
+}
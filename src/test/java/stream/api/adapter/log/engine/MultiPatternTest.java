@@ -0,0 +1,63 @@
+package stream.api.adapter.log.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MultiPatternTest {
+
+    private static MultiPattern pattern(String... literals) {
+        List<byte[]> bytes = new ArrayList<>();
+        for (String literal : literals) {
+            bytes.add(literal.getBytes(StandardCharsets.UTF_8));
+        }
+        return new MultiPattern(bytes);
+    }
+
+    private static List<Integer> hits(MultiPattern pattern, String line) {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        List<Integer> hits = new ArrayList<>();
+        pattern.match(bytes, 0, bytes.length, hits::add);
+        return hits;
+    }
+
+    @Test
+    void overlappingLiteralsAreAllFound() {
+        MultiPattern pattern = pattern("abcd", "bcde", "cd");
+        // "d"-də "abcd" və onun sonluğu "cd" birlikdə bitir
+        assertEquals(List.of(0, 2, 1), hits(pattern, "xabcdex"));
+    }
+
+    @Test
+    void literalThatIsASuffixOfAnotherIsFound() {
+        MultiPattern pattern = pattern("she", "he", "hers");
+        assertEquals(List.of(0, 1, 2), hits(pattern, "ushers"));
+        assertEquals(List.of(1), hits(pattern, "the"));
+    }
+
+    @Test
+    void everyOccurrenceIsReported() {
+        assertEquals(List.of(0, 0, 0), hits(pattern("aa"), "aaaa"));
+    }
+
+    @Test
+    void onlyTheGivenPartOfTheBufferIsSearched() {
+        MultiPattern pattern = pattern("ERR", "WARN");
+        byte[] bytes = "ERR | WARN | ERR".getBytes(StandardCharsets.US_ASCII);
+        List<Integer> hits = new ArrayList<>();
+        pattern.match(bytes, 4, 8, hits::add);
+        assertEquals(List.of(1), hits);
+    }
+
+    @Test
+    void multiByteLiteralsAndUnknownBytes() {
+        MultiPattern pattern = pattern("uğur", "ödəniş");
+        assertEquals(List.of(1, 0), hits(pattern, "ödəniş uğurlu"));
+        assertEquals(List.of(), hits(pattern, "payment ok"));
+        assertEquals(List.of(), hits(pattern(), "payment ok"));
+    }
+}
@@ -0,0 +1,38 @@
+package stream.api.adapter.log.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PageCursorTest {
+
+    private static String token(ByteBuffer buf) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buf.array());
+    }
+
+    @Test
+    void encodedCursorDecodesToItself() {
+        PageCursor cursor = new PageCursor(5L << 32 | 0xFFFF_FFFFL, 1234);
+        String token = cursor.encode();
+        assertTrue(token.matches("[A-Za-z0-9_-]+"), token);
+        assertEquals(cursor, PageCursor.decode(token));
+        assertEquals(new PageCursor(0, 0), PageCursor.decode(new PageCursor(0, 0).encode()));
+    }
+
+    @Test
+    void malformedTokensAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode("not a cursor"));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode(""));
+        assertThrows(IllegalArgumentException.class,
+                () -> PageCursor.decode(token(ByteBuffer.allocate(12).putLong(-1).putInt(0))));
+        assertThrows(IllegalArgumentException.class,
+                () -> PageCursor.decode(token(ByteBuffer.allocate(12).putLong(0).putInt(-1))));
+        assertThrows(IllegalArgumentException.class,
+                () -> PageCursor.decode(token(ByteBuffer.allocate(13).putLong(0).putInt(0))));
+    }
+}
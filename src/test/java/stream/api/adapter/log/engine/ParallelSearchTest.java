@@ -0,0 +1,121 @@
+package stream.api.adapter.log.engine;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParallelSearchTest {
+
+    // ~12MB: 4MB-lıq bir neçə hissə
+    private static final int ENTRIES = 80_000;
+
+    @TempDir
+    Path dir;
+
+    private ForkJoinPool pool;
+    private ParallelSearch search;
+
+    @BeforeEach
+    void setUp() {
+        pool = new ForkJoinPool(2);
+        search = new ParallelSearch(pool);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Entries of a header and three continuation lines; every 13th entry has "needle" in its last line.
+     */
+    private Path write() throws IOException {
+        Path log = dir.resolve("app.log");
+        try (BufferedWriter out = Files.newBufferedWriter(log, StandardCharsets.US_ASCII)) {
+            for (int i = 0; i < ENTRIES; i++) {
+                out.write("2025-09-24 00:00:01.000 [T" + (i % 5) + "] [ERR] - entry " + i + "\n");
+                out.write("    at first.step(Step.java:" + i + ")\n");
+                out.write("    at second.step(Step.java:" + i + ")\n");
+                out.write("    at third.step(Step.java:" + i + ")" + (i % 13 == 0 ? " needle" : "") + "\n");
+            }
+        }
+        return log;
+    }
+
+    private static MatchVisitor collect(List<long[]> found, int limit) {
+        return line -> {
+            found.add(new long[]{line.getOffset(), line.getHeaderOffset(), line.getNextOffset()});
+            return found.size() < limit;
+        };
+    }
+
+    @Test
+    void rangesStartAtEntryHeaders() throws IOException {
+        Path log = write();
+        try (FileChannel channel = FileChannel.open(log)) {
+            long[] bounds = search.split(channel, 0, channel.size());
+            assertTrue(bounds.length > 2, "fayl bir hissəyə sığdı");
+            for (int i = 1; i < bounds.length - 1; i++) {
+                ByteBuffer head = ByteBuffer.allocate(LogHeaders.TIMESTAMP_LENGTH);
+                channel.read(head, bounds[i]);
+                assertTrue(LogHeaders.isHeader(head.array(), 0, head.limit()), "bound " + bounds[i]);
+            }
+        }
+    }
+
+    @Test
+    void matchesComeBackInFileOrderWithTheirHeaders() throws IOException {
+        Path log = write();
+        List<long[]> parallel = new ArrayList<>();
+        List<long[]> serial = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(log)) {
+            long end = search.scan(channel, 0, channel.size(), LineFilter.literal("needle"), QueryContext.NONE,
+                    collect(parallel, Integer.MAX_VALUE));
+            assertEquals(channel.size(), end);
+            MappedSearch.scan(channel, 0, channel.size(), LineFilter.literal("needle"), collect(serial, Integer.MAX_VALUE));
+        }
+
+        assertEquals((ENTRIES + 12) / 13, parallel.size());
+        for (int i = 0; i < serial.size(); i++) {
+            assertEquals(serial.get(i)[0], parallel.get(i)[0], "offset " + i);
+            assertEquals(serial.get(i)[1], parallel.get(i)[1], "header " + i);
+            if (i > 0) assertTrue(parallel.get(i)[0] > parallel.get(i - 1)[0]);
+        }
+    }
+
+    @Test
+    void earlyStopReturnsTheOffsetAfterTheLastVisitedLine() throws IOException {
+        Path log = write();
+        try (FileChannel channel = FileChannel.open(log)) {
+            long size = channel.size();
+            long[] bounds = search.split(channel, 0, size);
+            // ikinci hissənin içində dayanırıq
+            List<long[]> all = new ArrayList<>();
+            MappedSearch.scan(channel, 0, size, LineFilter.literal("needle"), collect(all, Integer.MAX_VALUE));
+            int stopAt = 0;
+            while (all.get(stopAt)[0] < bounds[1]) stopAt++;
+            stopAt += 10;
+
+            List<long[]> found = new ArrayList<>();
+            long stoppedAt = search.scan(channel, 0, size, LineFilter.literal("needle"), QueryContext.NONE,
+                    collect(found, stopAt + 1));
+            assertEquals(stopAt + 1, found.size());
+            assertEquals(all.get(stopAt)[2], stoppedAt);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package stream.api.adapter.log.engine;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class QueryContextTest {
+
+    @Test
+    void budgetCancelsTheQuery() {
+        QueryContext query = new QueryContext(0, 100);
+        query.onScanned(100);
+        assertThrows(QueryCancelledException.class, () -> query.onScanned(1));
+        assertThrows(QueryCancelledException.class, query::check);
+    }
+
+    @Test
+    void sharedContextKeepsNoState() {
+        QueryContext.NONE.onScanned(Long.MAX_VALUE / 2);
+        QueryContext.NONE.cancel();
+        QueryContext.NONE.getProfile().onLine(10);
+
+        QueryContext.NONE.check();
+        assertFalse(QueryContext.NONE.isCancelled());
+        assertEquals(0, QueryContext.NONE.getScannedBytes());
+        assertEquals(0, QueryContext.NONE.getProfile().getLinesOut());
+    }
+}
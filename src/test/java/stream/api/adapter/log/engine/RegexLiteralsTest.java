@@ -0,0 +1,71 @@
+package stream.api.adapter.log.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RegexLiteralsTest {
+
+    @Test
+    void plainRunsAreRequired() {
+        assertEquals(List.of(List.of("Serial:SN"), List.of(" amount=")), RegexLiterals.required("Serial:SN\\d+ amount="));
+        assertEquals(List.of(List.of("a.b")), RegexLiterals.required("a\\.b"));
+    }
+
+    @Test
+    void optionalCharacterIsDropped() {
+        assertEquals(List.of(List.of("ab")), RegexLiterals.required("abc?"));
+        assertEquals(List.of(List.of("ab")), RegexLiterals.required("abc{0,2}"));
+        assertEquals(List.of(List.of("ab")), RegexLiterals.required("ab\\.*"));
+    }
+
+    @Test
+    void alternationTakesLongestRunOfEachBranch() {
+        assertEquals(List.of(List.of("timeout", "Refused")), RegexLiterals.required("timeout|Refused"));
+        assertEquals(List.of(), RegexLiterals.required("timeout|\\d+"));
+    }
+
+    @Test
+    void inlineFlagsRequireNothing() {
+        assertEquals(List.of(), RegexLiterals.required("(?i)timeout"));
+    }
+
+    @Test
+    void multiCharacterEscapesAreSkippedWhole() {
+        assertEquals(List.of(List.of("ID"), List.of("42")), RegexLiterals.required("ID\\x3D42"));
+        assertEquals(List.of(List.of("ID"), List.of("42")), RegexLiterals.required("ID\\x{3D}42"));
+        assertEquals(List.of(List.of("BC")), RegexLiterals.required("\\u0041BC"));
+        assertEquals(List.of(List.of("x"), List.of("y")), RegexLiterals.required("x\\0101y"));
+        assertEquals(List.of(List.of("foo")), RegexLiterals.required("\\cJfoo"));
+        assertEquals(List.of(List.of("cd")), RegexLiterals.required("(?<n>ab)\\k<n>cd"));
+        assertEquals(List.of(List.of("x")), RegexLiterals.required("\\p{Lu}x"));
+        assertEquals(List.of(List.of("bc")), RegexLiterals.required("\\N{LATIN SMALL LETTER A}bc"));
+        assertEquals(List.of(List.of("ab")), RegexLiterals.required("(x)ab\\1"));
+        assertEquals(List.of(List.of("c")), RegexLiterals.required("\\Qa|b\\E*c"));
+    }
+
+    @Test
+    void filterAgreesWithRegexOnEscapes() {
+        String[][] cases = {
+                {"ID\\x3D42", "ID=42"},
+                {"ID\\x{3D}42", "ID=42"},
+                {"\\u0041BC", "ABC"},
+                {"x\\0101y", "xAy"},
+                {"\\cJfoo", "\nfoo"},
+                {"(?<n>ab)\\k<n>cd", "ababcd"},
+                {"\\p{Lu}x", "Ax"},
+                {"\\N{LATIN SMALL LETTER A}bc", "abc"},
+                {"\\Qa|b\\E*c", "a|c"},
+        };
+        for (String[] c : cases) {
+            byte[] line = c[1].getBytes(StandardCharsets.UTF_8);
+            assertTrue(Pattern.compile(c[0]).matcher(c[1]).find(), c[0]);
+            assertTrue(LineFilter.parse("/" + c[0] + "/").matches(line, 0, line.length), c[0]);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package stream.api.adapter.log.engine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SegmentStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private static void write(Path file, int thread, int count) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file)) {
+            for (int i = 0; i < count; i++) {
+                out.write(String.format("2025-09-24 00:%02d:%02d.000 [T%d] [INF] - line %d%n",
+                        i / 60 % 60, i % 60, thread, i));
+            }
+        }
+    }
+
+    private static int select(SegmentStore store, Path log, int thread) throws IOException {
+        try (FileChannel channel = FileChannel.open(log)) {
+            EntryFilter filter = new EntryFilter(TimeRange.ALL, thread, null);
+            return store.select(channel, filter, QueryContext.NONE).length;
+        }
+    }
+
+    @Test
+    void rotatedFileThatGrewPastTheSegmentsStartsANewGeneration() throws IOException {
+        Path log = dir.resolve("app.log");
+        Path segments = dir.resolve("app.log.segs");
+        write(log, 1, 70_000);
+        SegmentStore store = SegmentStore.load(segments);
+        try (FileChannel channel = FileChannel.open(log)) {
+            assertTrue(store.update(channel));
+        }
+        assertTrue(store.getIndexedBytes() > 0);
+        assertEquals(70_000, select(store, log, 1));
+
+        // yeni fayl köhnə seqmentlərdən uzundur, baş hissəsi fərqlidir
+        write(log, 2, 140_000);
+        try (FileChannel channel = FileChannel.open(log)) {
+            assertTrue(store.update(channel));
+        }
+        assertEquals(0, select(store, log, 1));
+        assertEquals(140_000, select(store, log, 2));
+
+        // diskdən yüklənən nəsil də yeni faylındır
+        SegmentStore loaded = SegmentStore.load(segments);
+        assertEquals(store.getIndexedBytes(), loaded.getIndexedBytes());
+        assertEquals(140_000, select(loaded, log, 2));
+    }
+}
@@ -0,0 +1,94 @@
+package stream.api.adapter.log.engine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ThreadTimeIndexTest {
+
+    private static final long ALL_FROM = 0;
+    private static final long ALL_TO = Long.MAX_VALUE;
+
+    @TempDir
+    Path dir;
+
+    private static String lines(int thread, int second, int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.append(String.format("2025-09-24 00:00:%02d.000 [T%d] [INF] - line %d%n", second, thread, i));
+        }
+        return sb.toString();
+    }
+
+    private static void write(Path file, String text) throws IOException {
+        Files.writeString(file, text, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void appendedLinesAreIndexed() throws IOException {
+        Path log = dir.resolve("app.log");
+        write(log, lines(1, 1, 3));
+        ThreadTimeIndex index = new ThreadTimeIndex();
+        try (FileChannel channel = FileChannel.open(log)) {
+            assertTrue(index.update(channel));
+            assertFalse(index.update(channel));
+        }
+        Files.writeString(log, lines(1, 2, 2), StandardOpenOption.APPEND);
+        try (FileChannel channel = FileChannel.open(log)) {
+            assertTrue(index.update(channel));
+        }
+        assertEquals(5, index.lookup(1, ALL_FROM, ALL_TO).length);
+    }
+
+    @Test
+    void rotatedFileThatGrewPastTheIndexIsRebuilt() throws IOException {
+        Path log = dir.resolve("app.log");
+        write(log, lines(1, 1, 3));
+        ThreadTimeIndex index = new ThreadTimeIndex();
+        try (FileChannel channel = FileChannel.open(log)) {
+            index.update(channel);
+        }
+
+        // yeni fayl köhnədən uzundur, yalnız baş hissə fərqlidir
+        String rotated = lines(2, 5, 10);
+        write(log, rotated);
+        try (FileChannel channel = FileChannel.open(log)) {
+            assertTrue(index.update(channel));
+        }
+        assertEquals(0, index.lookup(1, ALL_FROM, ALL_TO).length);
+        assertEquals(10, index.lookup(2, ALL_FROM, ALL_TO).length);
+        assertEquals(rotated.length(), index.getIndexedBytes());
+    }
+
+    @Test
+    void sidecarOfAnEarlierFileIsNotLoaded() throws IOException {
+        Path log = dir.resolve("app.log");
+        Path sidecar = dir.resolve("app.log.tidx");
+        write(log, lines(1, 1, 3));
+        ThreadTimeIndex index = new ThreadTimeIndex();
+        try (FileChannel channel = FileChannel.open(log)) {
+            index.update(channel);
+            index.save(sidecar);
+            long[] offsets = index.lookup(1, ALL_FROM, ALL_TO);
+            assertArrayEquals(offsets, ThreadTimeIndex.load(sidecar, channel).lookup(1, ALL_FROM, ALL_TO));
+        }
+
+        write(log, lines(2, 5, 10));
+        try (FileChannel channel = FileChannel.open(log)) {
+            ThreadTimeIndex loaded = ThreadTimeIndex.load(sidecar, channel);
+            assertEquals(0, loaded.getIndexedBytes());
+            assertEquals(0, loaded.lookup(1, ALL_FROM, ALL_TO).length);
+        }
+    }
+}
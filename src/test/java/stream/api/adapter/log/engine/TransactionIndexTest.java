@@ -0,0 +1,71 @@
+package stream.api.adapter.log.engine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TransactionIndexTest {
+
+    @TempDir
+    Path dir;
+
+    private static String transactions(String prefix, int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.append("2025-09-24 00:00:01.000 [T1] [INF] - REQ: Pay Serial:").append(prefix).append(i).append('\n');
+            sb.append("2025-09-24 00:00:02.000 [T1] [INF] - RES: Pay ok\n");
+        }
+        return sb.toString();
+    }
+
+    @Test
+    void rotatedFileThatGrewPastTheIndexIsReindexed() throws IOException {
+        Path log = dir.resolve("app.log");
+        Files.writeString(log, transactions("OLD", 2));
+        TransactionIndex index = new TransactionIndex();
+        try (FileChannel channel = FileChannel.open(log)) {
+            index.update(channel, QueryContext.NONE);
+            assertEquals(1, index.byValue("OLD0").length);
+            assertEquals(List.of("2025-09-24 00:00:01.000 [T1] [INF] - REQ: Pay Serial:OLD0",
+                    "2025-09-24 00:00:02.000 [T1] [INF] - RES: Pay ok"), index.lines(channel, 0, QueryContext.NONE));
+        }
+
+        Files.writeString(log, transactions("NEW", 10));
+        try (FileChannel channel = FileChannel.open(log)) {
+            index.update(channel, QueryContext.NONE);
+            assertEquals(0, index.byValue("OLD0").length);
+            assertEquals(1, index.byValue("NEW0").length);
+            assertEquals(10, index.size());
+            assertEquals(Files.size(log), index.getIndexedBytes());
+        }
+    }
+
+    @Test
+    void cancelledUpdateKeepsItsProgress() throws IOException {
+        Path log = dir.resolve("app.log");
+        Files.writeString(log, transactions("S", 30_000));
+        TransactionIndex index = new TransactionIndex();
+        try (FileChannel channel = FileChannel.open(log)) {
+            // skan limiti ikinci buferdə aşılır
+            QueryContext budget = new QueryContext(0, 3 << 19);
+            assertThrows(QueryCancelledException.class, () -> index.update(channel, budget));
+            long indexed = index.getIndexedBytes();
+            assertTrue(indexed > 0 && indexed < Files.size(log), "indexed=" + indexed);
+
+            index.update(channel, QueryContext.NONE);
+            assertEquals(Files.size(log), index.getIndexedBytes());
+            assertEquals(30_000, index.size());
+            assertEquals(1, index.byValue("S0").length);
+            assertEquals(1, index.byValue("S29999").length);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package stream.api.adapter.log.engine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrigramIndexTest {
+
+    // ~4MB: bir neçə tam blok və açıq quyruq
+    private static final int LINES = 60_000;
+
+    @TempDir
+    Path dir;
+
+    private static String lines(String prefix, int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.append("2025-09-24 00:00:01.000 [T1] [INF] - ").append(prefix).append(" order-").append(i).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static void write(Path file, String text) throws IOException {
+        Files.writeString(file, text, StandardCharsets.US_ASCII);
+    }
+
+    private static boolean covers(long[] runs, long offset) {
+        for (int i = 0; i < runs.length; i += 2) {
+            if (runs[i] <= offset && offset < runs[i + 1]) return true;
+        }
+        return false;
+    }
+
+    private static long length(long[] runs) {
+        long length = 0;
+        for (int i = 0; i < runs.length; i += 2) {
+            length += runs[i + 1] - runs[i];
+        }
+        return length;
+    }
+
+    @Test
+    void blocksHoldingTheLiteralAreNeverSkipped() throws IOException {
+        Path log = dir.resolve("app.log");
+        String text = lines("payment", LINES);
+        write(log, text);
+        TrigramIndex index = new TrigramIndex();
+        try (FileChannel channel = FileChannel.open(log)) {
+            assertTrue(index.update(channel));
+            for (int i = 0; i < LINES; i += 997) {
+                String literal = "order-" + i + "\n";
+                long[] runs = index.candidates(channel, LineFilter.literal(literal.trim()), 0, text.length());
+                assertTrue(covers(runs, text.indexOf(literal)), literal.trim());
+            }
+            long[] rare = index.candidates(channel, LineFilter.literal("order-12345"), 0, text.length());
+            assertTrue(length(rare) < text.length(), "heç bir blok atlanmadı");
+        }
+    }
+
+    @Test
+    void savedIndexLoadsTheSameBlocks() throws IOException {
+        Path log = dir.resolve("app.log");
+        Path sidecar = dir.resolve("app.log.trgx");
+        String text = lines("payment", LINES);
+        write(log, text);
+        TrigramIndex index = new TrigramIndex();
+        try (FileChannel channel = FileChannel.open(log)) {
+            index.update(channel);
+            index.save(sidecar);
+            TrigramIndex loaded = TrigramIndex.load(sidecar, channel);
+            assertEquals(index.getIndexedBytes(), loaded.getIndexedBytes());
+            LineFilter filter = LineFilter.literal("order-12345");
+            assertArrayEquals(index.candidates(channel, filter, 0, text.length()),
+                    loaded.candidates(channel, filter, 0, text.length()));
+        }
+    }
+
+    @Test
+    void rotatedFileIsRebuilt() throws IOException {
+        Path log = dir.resolve("app.log");
+        Path sidecar = dir.resolve("app.log.trgx");
+        write(log, lines("payment", LINES));
+        TrigramIndex index = new TrigramIndex();
+        try (FileChannel channel = FileChannel.open(log)) {
+            index.update(channel);
+            index.save(sidecar);
+        }
+
+        // yeni fayl köhnədən uzundur, yalnız məzmunu fərqlidir
+        String rotated = lines("refund", LINES + 1000);
+        write(log, rotated);
+        LineFilter filter = LineFilter.literal("refund order-50000");
+        long offset = rotated.indexOf("refund order-50000\n");
+        try (FileChannel channel = FileChannel.open(log)) {
+            // yenilənməmiş indeks bütün aralığı qaytarır
+            assertArrayEquals(new long[]{0, rotated.length()}, index.candidates(channel, filter, 0, rotated.length()));
+            assertEquals(0, TrigramIndex.load(sidecar, channel).getIndexedBytes());
+
+            assertTrue(index.update(channel));
+            assertTrue(covers(index.candidates(channel, filter, 0, rotated.length()), offset));
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package stream.api.adapter.log.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import stream.api.adapter.log.engine.QueryCancelledException;
+import stream.api.adapter.log.engine.QueryContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ArchiveServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private static long contentSize(int lines) {
+        long size = 0;
+        for (int i = 0; i < lines; i++) {
+            size += ("2025-09-24 00:00:00.000 [T1] [INF] - line " + i + "\n").length();
+        }
+        return size;
+    }
+
+    private Path archive(String name, int lines) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            for (int i = 0; i < lines; i++) {
+                out.write(("2025-09-24 00:00:00.000 [T1] [INF] - line " + i + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        Path path = dir.resolve(name);
+        Files.write(path, bytes.toByteArray());
+        return path;
+    }
+
+    @Test
+    void cancelledBuildIsLeftToTheNextCaller() throws IOException {
+        Path path = archive("a.log.gz", 20_000);
+        ArchiveService service = new ArchiveService(1);
+        QueryContext cancelled = new QueryContext(0, 0);
+        cancelled.cancel();
+
+        assertThrows(QueryCancelledException.class, () -> service.open(path, cancelled).close());
+        try (FileChannel channel = service.open(path, QueryContext.NONE)) {
+            assertEquals(contentSize(20_000), channel.size());
+        }
+        // indeks artıq hazırdır, ləğv olunmuş sorğu da açır
+        try (FileChannel channel = service.open(path, cancelled)) {
+            assertEquals(contentSize(20_000), channel.size());
+        }
+    }
+
+    @Test
+    void concurrentOpensOfSeveralArchivesAgree() throws Exception {
+        List<Path> paths = List.of(archive("a.log.gz", 30_000), archive("b.log.gz", 40_000));
+        ArchiveService service = new ArchiveService(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Long>> sizes = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                Path path = paths.get(i % 2);
+                sizes.add(pool.submit(() -> {
+                    try (FileChannel channel = service.open(path, new QueryContext(0, 0))) {
+                        return channel.size();
+                    }
+                }));
+            }
+            for (int i = 0; i < sizes.size(); i++) {
+                assertEquals(contentSize(i % 2 == 0 ? 30_000 : 40_000), (long) sizes.get(i).get());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
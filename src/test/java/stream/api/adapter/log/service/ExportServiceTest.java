@@ -0,0 +1,43 @@
+package stream.api.adapter.log.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ExportServiceTest {
+
+    private static final String ETAG = "\"etag\"";
+
+    @Test
+    void explicitRangeIsClampedToTheFile() {
+        assertArrayEquals(new long[]{100, 501}, ExportService.requestedRange("bytes=100-500", null, ETAG, 1000));
+        assertArrayEquals(new long[]{100, 1000}, ExportService.requestedRange("bytes=100-5000", null, ETAG, 1000));
+        assertArrayEquals(new long[]{100, 1000}, ExportService.requestedRange("bytes=100-", null, ETAG, 1000));
+        assertArrayEquals(new long[]{500, 501}, ExportService.requestedRange("bytes=500-500", null, ETAG, 1000));
+    }
+
+    @Test
+    void suffixRangeTakesTheLastBytes() {
+        assertArrayEquals(new long[]{800, 1000}, ExportService.requestedRange("bytes=-200", null, ETAG, 1000));
+        assertArrayEquals(new long[]{0, 1000}, ExportService.requestedRange("bytes=-5000", null, ETAG, 1000));
+    }
+
+    @Test
+    void endBeforeStartSendsTheWholeFile() {
+        assertNull(ExportService.requestedRange("bytes=500-100", null, ETAG, 1000));
+    }
+
+    @Test
+    void rangePastTheEndIsUnsatisfiable() {
+        assertSame(ExportService.UNSATISFIABLE, ExportService.requestedRange("bytes=1000-", null, ETAG, 1000));
+        assertSame(ExportService.UNSATISFIABLE, ExportService.requestedRange("bytes=-0", null, ETAG, 1000));
+    }
+
+    @Test
+    void staleIfRangeSendsTheWholeFile() {
+        assertNull(ExportService.requestedRange("bytes=100-200", "\"old\"", ETAG, 1000));
+        assertArrayEquals(new long[]{100, 201}, ExportService.requestedRange("bytes=100-200", ETAG, ETAG, 1000));
+    }
+}
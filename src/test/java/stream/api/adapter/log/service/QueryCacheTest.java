@@ -0,0 +1,146 @@
+package stream.api.adapter.log.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import stream.api.adapter.log.engine.LineFilter;
+import stream.api.adapter.log.engine.PageCursor;
+import stream.api.adapter.log.engine.ParallelSearch;
+import stream.api.adapter.log.engine.QueryContext;
+import stream.api.adapter.log.engine.TimeRange;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QueryCacheTest {
+
+    private static final LineFilter ERRORS = LineFilter.literal("[ERR]");
+
+    @TempDir
+    Path dir;
+
+    private ForkJoinPool pool;
+    private QueryCache cache;
+
+    @BeforeEach
+    void setUp() {
+        pool = new ForkJoinPool(2);
+        cache = newCache();
+    }
+
+    private QueryCache newCache() {
+        LogFileService files = new LogFileService(new ArchiveService(1));
+        QueryCache cache = new QueryCache(new ParallelSearch(pool), files, new LogIndexService(files));
+        ReflectionTestUtils.setField(cache, "maxBytes", 64L << 20);
+        return cache;
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    private static String lines(String level, int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.append("2025-09-24 00:00:01.000 [T1] [").append(level).append("] - line ").append(i).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private Path write(String text) throws IOException {
+        Path log = dir.resolve("app.log");
+        Files.writeString(log, text, StandardCharsets.US_ASCII);
+        return log;
+    }
+
+    private QueryCache.Result page(Path log, LineFilter filter) throws IOException {
+        return cache.page(log, filter, TimeRange.ALL, 0, 100, new QueryContext(0, 0));
+    }
+
+    @Test
+    void appendedLinesExtendTheEntry() throws IOException {
+        Path log = write(lines("INF", 5) + lines("ERR", 3));
+        assertEquals(3, page(log, ERRORS).known());
+
+        Files.writeString(log, lines("ERR", 2), StandardOpenOption.APPEND);
+        QueryCache.Result result = page(log, ERRORS);
+        assertEquals(5, result.known());
+        assertTrue(result.complete());
+        assertEquals(Files.size(log), result.scannedTo());
+    }
+
+    @Test
+    void truncatedFileDropsTheEntry() throws IOException {
+        Path log = write(lines("ERR", 5));
+        assertEquals(5, page(log, ERRORS).known());
+
+        write(lines("ERR", 2));
+        assertEquals(2, page(log, ERRORS).known());
+    }
+
+    @Test
+    void smallFileWithANewHeadDropsTheEntry() throws IOException {
+        Path log = write(lines("ERR", 3));
+        assertEquals(3, page(log, ERRORS).known());
+
+        // fırlanmış fayl köhnədən uzundur və 4KB-dan kiçikdir
+        write(lines("INF", 3) + lines("ERR", 1));
+        assertEquals(1, page(log, ERRORS).known());
+    }
+
+    @Test
+    void eldestEntriesAreEvictedPastTheWeightLimit() throws IOException {
+        ReflectionTestUtils.setField(cache, "maxBytes", 4096L);
+        Path log = write(lines("ERR", 10));
+        LineFilter first = LineFilter.literal("line 1");
+        page(log, first);
+        cache.putContext(log, first, TimeRange.ALL, 0, 100, new long[1]);
+        assertNotNull(cache.context(log, first, TimeRange.ALL, 0, 100));
+
+        LineFilter last = null;
+        for (int i = 2; i < 10; i++) {
+            last = LineFilter.literal("line " + i);
+            page(log, last);
+            cache.putContext(log, last, TimeRange.ALL, 0, 100, new long[1]);
+        }
+        assertNull(cache.context(log, first, TimeRange.ALL, 0, 100));
+        assertNotNull(cache.context(log, last, TimeRange.ALL, 0, 100));
+    }
+
+    @Test
+    void pageAfterACursorInsideAnEntryDoesNotRepeatIt() throws IOException {
+        // birinci yazının üç sətri uyğundur, kursor birincidən sonra, yazının ortasında qalır
+        Path log = write("2025-09-24 00:00:00.000 [T1] [ERR] - timeout calling bank\n"
+                + "\tcaused by: timeout after 30s\n"
+                + "\tat x.y(Z.java:1) timeout\n"
+                + "2025-09-24 00:00:01.000 [T2] [ERR] - timeout again\n"
+                + "2025-09-24 00:00:02.000 [T3] [INF] - ok\n");
+        LineFilter timeouts = LineFilter.literal("timeout");
+        QueryContext query = new QueryContext(0, 0);
+        QueryCache.Result first = cache.page(log, timeouts, TimeRange.ALL, 0, 1, query);
+        assertEquals(0, first.matches().offset(0));
+        PageCursor cursor = new PageCursor(first.matches().nextOffset(0), 1);
+
+        // keşdə olmayan kursor birbaşa skan olunur
+        QueryCache.Result scanned = newCache().pageAfter(log, timeouts, TimeRange.ALL, cursor, 10, query);
+        assertEquals(1, scanned.matches().size());
+        assertEquals(Files.readString(log).indexOf("2025-09-24 00:00:01"), scanned.matches().offset(0));
+        assertEquals(2, scanned.known());
+
+        QueryCache.Result cached = cache.pageAfter(log, timeouts, TimeRange.ALL, cursor, 10, query);
+        assertEquals(1, cached.matches().size());
+        assertEquals(scanned.matches().offset(0), cached.matches().offset(0));
+    }
+}